@@ -22,6 +22,10 @@ import xyz.cofe.json.stream.token.StringToken;
 import xyz.cofe.json.stream.token.TrueToken;
 
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -318,7 +322,20 @@ public sealed interface Ast<S extends CharPointer<S>> {
                 return token.end();
             }
 
+            /**
+             * Часто используемые значения без расположения: -128..1023
+             */
+            private static final IntAst<?>[] cache = new IntAst<?>[1024 + 128];
+
+            static {
+                for (var i = 0; i < cache.length; i++) {
+                    cache[i] = new IntAst<>(new IntToken<>(i - 128, DummyCharPointer.instance, DummyCharPointer.instance));
+                }
+            }
+
+            @SuppressWarnings("unchecked")
             public static IntAst<DummyCharPointer> create(int value) {
+                if (value >= -128 && value < cache.length - 128) return (IntAst<DummyCharPointer>) cache[value + 128];
                 return new IntAst<>(new IntToken<>(value, DummyCharPointer.instance, DummyCharPointer.instance));
             }
 
@@ -437,8 +454,10 @@ public sealed interface Ast<S extends CharPointer<S>> {
                 return token.end();
             }
 
+            private static final TrueAst<DummyCharPointer> instance = new TrueAst<>(new TrueToken<>(DummyCharPointer.instance, DummyCharPointer.instance));
+
             public static TrueAst<DummyCharPointer> create() {
-                return new TrueAst<>(new TrueToken<>(DummyCharPointer.instance, DummyCharPointer.instance));
+                return instance;
             }
 
             public static <S1 extends CharPointer<S1>> TrueAst<S1> create(S1 begin, S1 end) {
@@ -470,8 +489,10 @@ public sealed interface Ast<S extends CharPointer<S>> {
                 return token.end();
             }
 
+            private static final FalseAst<DummyCharPointer> instance = new FalseAst<>(new FalseToken<>(DummyCharPointer.instance, DummyCharPointer.instance));
+
             public static FalseAst<DummyCharPointer> create() {
-                return new FalseAst<>(new FalseToken<>(DummyCharPointer.instance, DummyCharPointer.instance));
+                return instance;
             }
 
             public static <S1 extends CharPointer<S1>> FalseAst<S1> create(S1 begin, S1 end) {
@@ -517,13 +538,15 @@ public sealed interface Ast<S extends CharPointer<S>> {
             return token.end();
         }
 
+        private static final NullAst<DummyCharPointer> instance = new NullAst<>(new NullToken<>(DummyCharPointer.instance, DummyCharPointer.instance));
+
         /**
          * Конструктор
          *
          * @return значение
          */
         public static NullAst<DummyCharPointer> create() {
-            return new NullAst<DummyCharPointer>(new NullToken<>(DummyCharPointer.instance, DummyCharPointer.instance));
+            return instance;
         }
 
         /**
@@ -683,23 +706,57 @@ public sealed interface Ast<S extends CharPointer<S>> {
     /**
      * Объект
      *
-     * @param values пары ключ-значение
+     * <p>
+     * У отложенного объекта ({@link #lazy(LazyValues, OpenParentheses, CloseParentheses)})
+     * поле values пустое, а пары возвращает метод {@link #values()}.
+     * Record pattern (<code>ObjectAst(var values, var begin, var end, var lazy)</code>)
+     * и {@link java.lang.reflect.RecordComponent#getAccessor()} вызывают этот метод, поэтому получают пары.
+     * Для обычного объекта lazy = null и можно пользоваться конструктором без lazy.
+     * </p>
+     *
+     * @param values пары ключ-значение, пустой список у отложенного объекта
      * @param begin  начало объекта
      * @param end    конец объекта
+     * @param lazy   отложенное содержимое или null, тогда пары - это values, см {@link LazyAstParser}
      * @param <S>    тип исходника
      */
     record ObjectAst<S extends CharPointer<S>>(
         ImList<KeyValue<S>> values,
         OpenParentheses<S> begin,
-        CloseParentheses<S> end
+        CloseParentheses<S> end,
+        LazyValues<KeyValue<S>> lazy
     ) implements Ast<S> {
+        /**
+         * Конструктор объекта без отложенного содержимого
+         *
+         * @param values пары ключ-значение
+         * @param begin  начало объекта
+         * @param end    конец объекта
+         */
+        public ObjectAst(ImList<KeyValue<S>> values, OpenParentheses<S> begin, CloseParentheses<S> end) {
+            this(values, begin, end, null);
+        }
+
+        /**
+         * Объект, содержимое которого разбирается при первом обращении
+         *
+         * @param lazy  содержимое
+         * @param begin начало объекта
+         * @param end   конец объекта
+         * @param <S1>  тип исходника
+         * @return объект
+         */
+        public static <S1 extends CharPointer<S1>> ObjectAst<S1> lazy(LazyValues<KeyValue<S1>> lazy, OpenParentheses<S1> begin, CloseParentheses<S1> end) {
+            if (lazy == null) throw new IllegalArgumentException("lazy==null");
+            return new ObjectAst<>(ImList.of(), begin, end, lazy);
+        }
+
+        private static final OpenParentheses<DummyCharPointer> dummyOpen = new OpenParentheses<>(DummyCharPointer.instance, DummyCharPointer.instance);
+        private static final CloseParentheses<DummyCharPointer> dummyClose = new CloseParentheses<>(DummyCharPointer.instance, DummyCharPointer.instance);
+
         public static ObjectAst<DummyCharPointer> create(ImList<KeyValue<DummyCharPointer>> values) {
             if (values == null) throw new IllegalArgumentException("values==null");
-            return new ObjectAst<>(
-                values,
-                new OpenParentheses<>(DummyCharPointer.instance, DummyCharPointer.instance),
-                new CloseParentheses<>(DummyCharPointer.instance, DummyCharPointer.instance)
-            );
+            return new ObjectAst<>(values, dummyOpen, dummyClose);
         }
 
         public static <S1 extends CharPointer<S1>> ObjectAst<S1> create(ImList<KeyValue<S1>> values, OpenParentheses<S1> open, CloseParentheses<S1> close) {
@@ -729,10 +786,44 @@ public sealed interface Ast<S extends CharPointer<S>> {
             );
         }
 
+        /**
+         * Начиная с какого кол-ва пар и поисков по ключу имеет смысл индекс ({@link #indexed()})
+         */
+        public static final int INDEX_THRESHOLD = 8;
+
         public ObjectAst {
             if (values == null) throw new IllegalArgumentException("values==null");
             if (begin == null) throw new IllegalArgumentException("begin==null");
             if (end == null) throw new IllegalArgumentException("end==null");
+            if (lazy != null && values.isNonEmpty()) throw new IllegalArgumentException("values must be empty with lazy");
+        }
+
+        /**
+         * Пары ключ-значение, отложенное содержимое разбирается при первом обращении
+         *
+         * @return пары ключ-значение
+         * @throws AstParser.JsonParseError ошибка синтаксиса в отложенном содержимом
+         */
+        @Override
+        public ImList<KeyValue<S>> values() {
+            return lazy != null ? lazy.get() : values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ObjectAst<?> other)) return false;
+            return begin.equals(other.begin) && end.equals(other.end) && values().equals(other.values());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(values(), begin, end);
+        }
+
+        @Override
+        public String toString() {
+            return "ObjectAst[values=" + (lazy != null && !lazy.isParsed() ? lazy : values()) + ", begin=" + begin + ", end=" + end + "]";
         }
 
         @Override
@@ -753,7 +844,8 @@ public sealed interface Ast<S extends CharPointer<S>> {
          */
         public Optional<Ast<S>> get(String key) {
             if (key == null) throw new IllegalArgumentException("key==null");
-            for (var kv : values) {
+
+            for (var kv : values()) {
                 if (kv.key() instanceof Ast.StringAst<S> str) {
                     if (key.equals(str.value())) {
                         return Optional.of(kv.value());
@@ -767,6 +859,63 @@ public sealed interface Ast<S extends CharPointer<S>> {
             return Optional.empty();
         }
 
+        /**
+         * Индекс по ключам для многократного поиска, например при разборе record с большим кол-вом полей.
+         * Сам индекс строится при первом поиске.
+         *
+         * @return индекс
+         */
+        public Index<S> indexed() {
+            return new Index<>(this);
+        }
+
+        /**
+         * Индекс по ключам объекта, строится при первом поиске.
+         * При повторе ключа - первое значение, как у {@link ObjectAst#get(String)}.
+         *
+         * <p>Потокобезопасен</p>
+         *
+         * @param <S> тип исходника
+         */
+        public static final class Index<S extends CharPointer<S>> {
+            private final ObjectAst<S> object;
+            private volatile Map<String, Ast<S>> map;
+
+            private Index(ObjectAst<S> object) {
+                this.object = object;
+            }
+
+            /**
+             * Объект
+             *
+             * @return объект
+             */
+            public ObjectAst<S> object() {
+                return object;
+            }
+
+            /**
+             * Значение по указанному ключу
+             *
+             * @param key ключ
+             * @return значение
+             */
+            public Optional<Ast<S>> get(String key) {
+                if (key == null) throw new IllegalArgumentException("key==null");
+
+                // при гонке индекс может быть построен дважды, результат одинаковый
+                var m = map;
+                if (m == null) {
+                    var values = object.values();
+                    var res = new HashMap<String, Ast<S>>(Math.max(16, values.size() * 2));
+                    for (var kv : values) res.putIfAbsent(kv.key().value(), kv.value());
+                    m = Collections.unmodifiableMap(res);
+                    map = m;
+                }
+                return Optional.ofNullable(m.get(key));
+            }
+        }
+
         /**
          * Клонирует и добавляет еще одну пару ключ-значение
          *
@@ -777,7 +926,7 @@ public sealed interface Ast<S extends CharPointer<S>> {
         public ObjectAst<S> put(StringToken<S> key, Ast<S> value) {
             if (key == null) throw new IllegalArgumentException("key==null");
             if (value == null) throw new IllegalArgumentException("value==null");
-            var vals = values.filter(kv -> !key.value().equals(kv.key().value())).prepend(new KeyValue<>(new StringAst<>(key), value));
+            var vals = values().filter(kv -> !key.value().equals(kv.key().value())).prepend(new KeyValue<>(new StringAst<>(key), value));
             return new ObjectAst<>(vals, begin(), end());
         }
 
@@ -791,7 +940,7 @@ public sealed interface Ast<S extends CharPointer<S>> {
         public ObjectAst<S> put(Key<S> key, Ast<S> value) {
             if (key == null) throw new IllegalArgumentException("key==null");
             if (value == null) throw new IllegalArgumentException("value==null");
-            var vals = values.filter(kv -> !key.value().equals(kv.key().value())).prepend(new KeyValue<>(key, value));
+            var vals = values().filter(kv -> !key.value().equals(kv.key().value())).prepend(new KeyValue<>(key, value));
             return new ObjectAst<>(vals, begin(), end());
         }
     }
@@ -799,18 +948,80 @@ public sealed interface Ast<S extends CharPointer<S>> {
     /**
      * Массив
      *
-     * @param values значения
+     * <p>
+     * У отложенного массива ({@link #lazy(LazyValues, OpenSquare, CloseSquare)})
+     * поле values пустое, а значения возвращает метод {@link #values()},
+     * его же вызывают record pattern и {@link java.lang.reflect.RecordComponent#getAccessor()}.
+     * Для обычного массива lazy = null, см {@link ObjectAst}.
+     * </p>
+     *
+     * @param values значения, пустой список у отложенного массива
      * @param begin  начало массива
      * @param end    конец массива
+     * @param lazy   отложенное содержимое или null, тогда значения - это values, см {@link LazyAstParser}
      * @param <S>тип исходника
      */
     record ArrayAst<S extends CharPointer<S>>(
-        ImList<Ast<S>> values, OpenSquare<S> begin, CloseSquare<S> end) implements Ast<S> {
+        ImList<Ast<S>> values, OpenSquare<S> begin, CloseSquare<S> end, LazyValues<Ast<S>> lazy) implements Ast<S> {
 
         public ArrayAst {
             if (values == null) throw new IllegalArgumentException("values==null");
             if (begin == null) throw new IllegalArgumentException("begin==null");
             if (end == null) throw new IllegalArgumentException("end==null");
+            if (lazy != null && values.isNonEmpty()) throw new IllegalArgumentException("values must be empty with lazy");
+        }
+
+        /**
+         * Конструктор массива без отложенного содержимого
+         *
+         * @param values значения
+         * @param begin  начало массива
+         * @param end    конец массива
+         */
+        public ArrayAst(ImList<Ast<S>> values, OpenSquare<S> begin, CloseSquare<S> end) {
+            this(values, begin, end, null);
+        }
+
+        /**
+         * Массив, содержимое которого разбирается при первом обращении
+         *
+         * @param lazy  содержимое
+         * @param begin начало массива
+         * @param end   конец массива
+         * @param <S1>  тип исходника
+         * @return массив
+         */
+        public static <S1 extends CharPointer<S1>> ArrayAst<S1> lazy(LazyValues<Ast<S1>> lazy, OpenSquare<S1> begin, CloseSquare<S1> end) {
+            if (lazy == null) throw new IllegalArgumentException("lazy==null");
+            return new ArrayAst<>(ImList.of(), begin, end, lazy);
+        }
+
+        /**
+         * Значения, отложенное содержимое разбирается при первом обращении
+         *
+         * @return значения
+         * @throws AstParser.JsonParseError ошибка синтаксиса в отложенном содержимом
+         */
+        @Override
+        public ImList<Ast<S>> values() {
+            return lazy != null ? lazy.get() : values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ArrayAst<?> other)) return false;
+            return begin.equals(other.begin) && end.equals(other.end) && values().equals(other.values());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(values(), begin, end);
+        }
+
+        @Override
+        public String toString() {
+            return "ArrayAst[values=" + (lazy != null && !lazy.isParsed() ? lazy : values()) + ", begin=" + begin + ", end=" + end + "]";
         }
 
         @Override
@@ -823,6 +1034,9 @@ public sealed interface Ast<S extends CharPointer<S>> {
             return end.end();
         }
 
+        private static final OpenSquare<DummyCharPointer> dummyOpen = new OpenSquare<>(DummyCharPointer.instance, DummyCharPointer.instance);
+        private static final CloseSquare<DummyCharPointer> dummyClose = new CloseSquare<>(DummyCharPointer.instance, DummyCharPointer.instance);
+
         /**
          * Создание/конструктор
          *
@@ -831,11 +1045,7 @@ public sealed interface Ast<S extends CharPointer<S>> {
          */
         public static ArrayAst<DummyCharPointer> create(ImList<Ast<DummyCharPointer>> values) {
             if (values == null) throw new IllegalArgumentException("values==null");
-            return new ArrayAst<>(
-                values,
-                new OpenSquare<>(DummyCharPointer.instance, DummyCharPointer.instance),
-                new CloseSquare<>(DummyCharPointer.instance, DummyCharPointer.instance)
-            );
+            return new ArrayAst<>(values, dummyOpen, dummyClose);
         }
 
         public static <S1 extends CharPointer<S1>> ArrayAst<S1> create(ImList<Ast<S1>> values, OpenSquare<S1> openSquare, CloseSquare<S1> closeSquare) {
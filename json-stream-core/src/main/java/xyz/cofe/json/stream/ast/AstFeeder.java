@@ -0,0 +1,433 @@
+package xyz.cofe.json.stream.ast;
+
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.Colon;
+import xyz.cofe.json.stream.token.Comma;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.StringToken;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Парсинг json, данные "проталкиваются" порциями байтов, например из неблокирующего сокета
+ *
+ * <pre>
+ * var feeder = new AstFeeder(ast -&gt; System.out.println(ast.toJson()));
+ * while (channel.read(buffer) &gt;= 0) {
+ *     buffer.flip();
+ *     feeder.feed(buffer);
+ *     buffer.clear();
+ * }
+ * feeder.endOfInput();
+ * </pre>
+ *
+ * <p>
+ * Лексема или символ UTF-8, разрезанные границей порции, дожидаются следующей порции.
+ * Готовые значения верхнего уровня передаются получателю сразу, значений в потоке может быть несколько.
+ * </p>
+ *
+ * <p>
+ * Лексемы распознаются в окне - тексте после последней принятой лексемы.
+ * Указатели лексем ({@link StringPointer}) относятся к этому окну, а не к началу потока,
+ * смещение окна от начала потока - {@link #offset()}.
+ * </p>
+ *
+ * <p>Не потокобезопасен, один экземпляр на соединение</p>
+ */
+public final class AstFeeder {
+    private final AstParser.ParserOptions options;
+    private final Consumer<Ast<StringPointer>> consumer;
+    private final Tokenizer<StringPointer> tokenizer;
+    private final CharsetDecoder decoder;
+
+    /**
+     * Незавершенная последовательность байтов предыдущей порции
+     */
+    private ByteBuffer carry = ByteBuffer.allocate(0);
+    private final CharBuffer chars = CharBuffer.allocate(1024);
+
+    /**
+     * Текст, еще не разобранный на лексемы
+     */
+    private final StringBuilder window = new StringBuilder();
+
+    /**
+     * Смещение окна от начала потока, в символах
+     */
+    private long offset;
+
+    /**
+     * Незавершенная лексема (строка, комментарий, число, идентификатор) в окне:
+     * ее конец ищется только в новых символах, иначе длинная лексема из множества порций
+     * разбиралась бы заново с каждой порцией
+     */
+    private int scanFrom;
+
+    /**
+     * Начало незавершенной лексемы; до него в окне только пробелы и завершенные комментарии
+     */
+    private int openAt;
+
+    /**
+     * Вид незавершенной лексемы: 0 - нет, кавычка - строка,
+     * <code>/</code> - однострочный комментарий, <code>*</code> - многострочный, {@link #WORD} - число или идентификатор
+     */
+    private char open;
+    private boolean escaped;
+
+    private static final char WORD = 'w';
+
+    private AstParser<StringPointer> parser;
+    private boolean eof;
+
+    /**
+     * Конструктор
+     *
+     * @param options  настройки парсера
+     * @param charset  кодировка
+     * @param consumer получатель значений верхнего уровня
+     */
+    public AstFeeder(AstParser.ParserOptions options, Charset charset, Consumer<Ast<StringPointer>> consumer) {
+        if (options == null) throw new IllegalArgumentException("options==null");
+        if (charset == null) throw new IllegalArgumentException("charset==null");
+        if (consumer == null) throw new IllegalArgumentException("consumer==null");
+        this.options = options;
+        this.consumer = consumer;
+        this.tokenizer = options.configure(Tokenizer.<StringPointer>defaultTokenizer());
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.parser = new AstParser.Init<>(options);
+    }
+
+    /**
+     * Конструктор, кодировка UTF-8
+     *
+     * @param consumer получатель значений верхнего уровня
+     */
+    public AstFeeder(Consumer<Ast<StringPointer>> consumer) {
+        this(new AstParser.ParserOptions(), StandardCharsets.UTF_8, consumer);
+    }
+
+    /**
+     * Смещение от начала потока (в символах) текста, еще не разобранного на лексемы
+     *
+     * @return смещение
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Есть начатое, но не завершенное значение или не разобранный текст
+     *
+     * @return true - ожидаются еще данные
+     */
+    public boolean pending() {
+        return !(parser instanceof AstParser.Init<StringPointer>) || openAt < window.length() || carry.hasRemaining();
+    }
+
+    /**
+     * Очередная порция данных
+     *
+     * @param chunk данные, читаются все оставшиеся байты
+     */
+    public void feed(ByteBuffer chunk) {
+        if (chunk == null) throw new IllegalArgumentException("chunk==null");
+        if (eof) throw new IllegalStateException("end of input already reached");
+
+        var in = chunk;
+        if (carry.hasRemaining()) {
+            in = ByteBuffer.allocate(carry.remaining() + chunk.remaining()).put(carry).put(chunk).flip();
+        }
+
+        decode(in, false);
+
+        carry = in.hasRemaining()
+            ? ByteBuffer.allocate(in.remaining()).put(in).flip()
+            : ByteBuffer.allocate(0);
+
+        lex();
+    }
+
+    /**
+     * Очередная порция текста
+     *
+     * @param text текст
+     */
+    public void feed(CharSequence text) {
+        if (text == null) throw new IllegalArgumentException("text==null");
+        if (eof) throw new IllegalStateException("end of input already reached");
+        window.append(text);
+        lex();
+    }
+
+    /**
+     * Конец данных, оставшиеся лексемы разбираются
+     *
+     * @throws AstParser.NoResult      если значение не завершено
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     */
+    public void endOfInput() {
+        if (eof) return;
+        eof = true;
+
+        decode(carry, true);
+        carry = ByteBuffer.allocate(0);
+        while (true) {
+            chars.clear();
+            var res = decoder.flush(chars);
+            chars.flip();
+            window.append(chars);
+            if (!res.isOverflow()) break;
+        }
+
+        lex();
+
+        if (!(parser instanceof AstParser.Init<StringPointer>)) throw new AstParser.NoResult(parser);
+        if (!window.isEmpty()) {
+            throw new AstParser.JsonParseError(new AstParser.Error<>("can't parse lexem at " + offset));
+        }
+    }
+
+    private void decode(ByteBuffer in, boolean last) {
+        while (true) {
+            chars.clear();
+            CoderResult res = decoder.decode(in, chars, last);
+            chars.flip();
+            window.append(chars);
+            if (!res.isOverflow()) break;
+        }
+    }
+
+    /**
+     * Последний символ-разделитель в окне: лексема, которая заканчивается не дальше него,
+     * не изменится от следующих порций
+     */
+    private int lastDelimiter(String text) {
+        for (var i = text.length() - 1; i >= 0; i--) {
+            var c = text.charAt(i);
+            if (Character.isWhitespace(c)) return i;
+            switch (c) {
+                case '{', '}', '[', ']', ',', ':', '"', '\'':
+                    return i;
+                default:
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Лексема не может быть продолжена следующей порцией
+     */
+    private static boolean closed(Token<StringPointer> token) {
+        return token instanceof OpenParentheses<StringPointer>
+            || token instanceof CloseParentheses<StringPointer>
+            || token instanceof OpenSquare<StringPointer>
+            || token instanceof CloseSquare<StringPointer>
+            || token instanceof Comma<StringPointer>
+            || token instanceof Colon<StringPointer>
+            || token instanceof StringToken<StringPointer>;
+    }
+
+    /**
+     * Символ, на котором заканчивается число или идентификатор
+     */
+    private static boolean delimiter(char c) {
+        if (Character.isWhitespace(c)) return true;
+        switch (c) {
+            case '{', '}', '[', ']', ',', ':', '"', '\'', '/':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Окно состоит из пробелов и завершенных комментариев, за которыми, возможно, следует незавершенная лексема.
+     * Сканирование продолжается с {@link #scanFrom}, просмотренные символы повторно не читаются.
+     *
+     * @return true - в окне нет новых лексем, кроме пробелов и комментариев
+     */
+    private boolean incomplete() {
+        var len = window.length();
+        var i = scanFrom;
+        while (true) {
+            if (open == 0) {
+                while (i < len && Character.isWhitespace(window.charAt(i))) i++;
+                openAt = i;
+                if (i >= len) {
+                    scanFrom = i;
+                    return true;
+                }
+
+                var c = window.charAt(i);
+                if (c == '"' || c == '\'') {
+                    open = c;
+                    escaped = false;
+                    i++;
+                } else if (c == '/') {
+                    if (i + 1 >= len) {
+                        scanFrom = i;
+                        return true;
+                    }
+                    var c1 = window.charAt(i + 1);
+                    if (c1 != '/' && c1 != '*') return complete();
+                    open = c1;
+                    i += 2;
+                } else if (delimiter(c)) {
+                    return complete();
+                } else {
+                    open = WORD;
+                    i++;
+                }
+            }
+
+            switch (open) {
+                case '/':
+                    for (; i < len; i++) {
+                        if (window.charAt(i) == '\n') {
+                            open = 0;
+                            i++;
+                            break;
+                        }
+                    }
+                    break;
+                case '*':
+                    for (; i < len; i++) {
+                        if (window.charAt(i) != '*') continue;
+                        if (i + 1 >= len) break;
+                        if (window.charAt(i + 1) == '/') {
+                            open = 0;
+                            i += 2;
+                            break;
+                        }
+                    }
+                    break;
+                case WORD:
+                    for (; i < len; i++) {
+                        if (delimiter(window.charAt(i))) return complete();
+                    }
+                    break;
+                default:
+                    for (; i < len; i++) {
+                        var c = window.charAt(i);
+                        if (escaped) {
+                            escaped = false;
+                        } else if (c == '\\') {
+                            escaped = true;
+                        } else if (c == open) {
+                            return complete();
+                        }
+                    }
+            }
+
+            if (open != 0) {
+                scanFrom = i;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * В окне есть завершенная лексема, окно разбирается с начала
+     */
+    private boolean complete() {
+        open = 0;
+        scanFrom = 0;
+        return false;
+    }
+
+    /**
+     * Пробелы и комментарии перед незавершенной лексемой, которые пропускает лексический анализатор,
+     * удаляются из окна, иначе комментарий после последнего значения оставался бы в окне
+     */
+    private void settle() {
+        if (openAt == 0 || !options.skipTrivia()) return;
+
+        var skip = tokenizer.afterTrivia(new StringPointer(window.substring(0, openAt), 0)).offset;
+        if (skip == 0) return;
+
+        window.delete(0, skip);
+        offset += skip;
+        scanFrom -= skip;
+        openAt -= skip;
+    }
+
+    private void lex() {
+        if (!eof && incomplete()) {
+            settle();
+            return;
+        }
+
+        var text = window.toString();
+        var safe = eof ? text.length() : lastDelimiter(text);
+        var ptr = new StringPointer(text, 0);
+        var consumed = 0;
+        var unknown = -1L;
+
+        while (true) {
+            var tokOpt = tokenizer.next(ptr);
+            if (tokOpt.isEmpty()) {
+                // в конце данных пропущенные пробелы и комментарии тоже разобраны
+                if (eof) {
+                    consumed = tokenizer.afterTrivia(ptr).offset;
+                } else {
+                    unknown = offset + tokenizer.afterTrivia(ptr).offset;
+                }
+                break;
+            }
+
+            Token<StringPointer> token = tokOpt.get();
+            var end = token.end().offset;
+            if (!eof && end > safe && !closed(token)) break;
+            if (!eof && end >= text.length() && !closed(token)) break;
+
+            input(token);
+            consumed = end;
+            ptr = token.end();
+        }
+
+        if (consumed > 0) {
+            window.delete(0, consumed);
+            offset += consumed;
+            scanFrom = 0;
+            openAt = 0;
+            open = 0;
+            escaped = false;
+        }
+
+        if (eof) return;
+        if (incomplete()) {
+            settle();
+        } else if (unknown >= 0) {
+            // лексема завершена, но не распознана - следующие порции ее не исправят
+            throw new AstParser.JsonParseError(new AstParser.Error<>("can't parse lexem at " + unknown));
+        }
+    }
+
+    private void input(Token<StringPointer> token) {
+        var res = parser.input(token);
+        if (res.parser() instanceof AstParser.Error<StringPointer> err) {
+            throw new AstParser.JsonParseError(err);
+        }
+        if (res.result().isPresent()) {
+            consumer.accept(res.result().get());
+            parser = new AstParser.Init<>(options);
+        } else {
+            parser = res.parser();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package xyz.cofe.json.stream.ast;
 import jdk.security.jarsigner.JarSignerException;
 import xyz.cofe.coll.im.ImList;
 import xyz.cofe.json.stream.token.BigIntToken;
+import xyz.cofe.json.stream.token.ByteTokenizer;
 import xyz.cofe.json.stream.token.CharPointer;
 import xyz.cofe.json.stream.token.CloseParentheses;
 import xyz.cofe.json.stream.token.CloseSquare;
@@ -12,21 +13,29 @@ import xyz.cofe.json.stream.token.DoubleToken;
 import xyz.cofe.json.stream.token.FalseToken;
 import xyz.cofe.json.stream.token.IdentifierToken;
 import xyz.cofe.json.stream.token.IntToken;
+import xyz.cofe.json.stream.token.LineColumn;
 import xyz.cofe.json.stream.token.LongToken;
 import xyz.cofe.json.stream.token.MLComment;
 import xyz.cofe.json.stream.token.NullToken;
 import xyz.cofe.json.stream.token.OpenParentheses;
 import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.ReaderPointer;
 import xyz.cofe.json.stream.token.SLComment;
+import xyz.cofe.json.stream.token.StringCache;
 import xyz.cofe.json.stream.token.StringPointer;
 import xyz.cofe.json.stream.token.StringToken;
+import xyz.cofe.json.stream.token.StructuralIndex;
 import xyz.cofe.json.stream.token.Token;
 import xyz.cofe.json.stream.token.Tokenizer;
 import xyz.cofe.json.stream.token.TrueToken;
+import xyz.cofe.json.stream.token.Utf8Pointer;
 import xyz.cofe.json.stream.token.Whitespace;
 
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -128,6 +137,20 @@ public sealed interface AstParser<S extends CharPointer<S>> {
         return level;
     }
 
+    /**
+     * Настройки парсера
+     *
+     * @param identAtRoot        идентификатор в качестве значения верхнего уровня
+     * @param identInObjectKey   идентификатор в качестве ключа
+     * @param identInObjectValue идентификатор в качестве значения свойства
+     * @param identInArrayValue  идентификатор в качестве элемента массива
+     * @param returnNestedValue  возвращать вложенные значения
+     * @param singleLineComment  допускаются однострочные комментарии
+     * @param multiLineComment   допускаются многострочные комментарии
+     * @param skipTrivia         пробелы и допустимые комментарии пропускаются лексическим анализатором,
+     *                           см {@link Tokenizer#skipTrivia(boolean, boolean)};
+     *                           учитывается в {@link #parse(CharPointer, ParserOptions)}
+     */
     record ParserOptions(
         boolean identAtRoot,
         boolean identInObjectKey,
@@ -135,8 +158,30 @@ public sealed interface AstParser<S extends CharPointer<S>> {
         boolean identInArrayValue,
         boolean returnNestedValue,
         boolean singleLineComment,
-        boolean multiLineComment
+        boolean multiLineComment,
+        boolean skipTrivia
     ) {
+        public ParserOptions(
+            boolean identAtRoot,
+            boolean identInObjectKey,
+            boolean identInObjectValue,
+            boolean identInArrayValue,
+            boolean returnNestedValue,
+            boolean singleLineComment,
+            boolean multiLineComment
+        ) {
+            this(
+                identAtRoot,
+                identInObjectKey,
+                identInObjectValue,
+                identInArrayValue,
+                returnNestedValue,
+                singleLineComment,
+                multiLineComment,
+                true
+            );
+        }
+
         public ParserOptions() {
             this(
                 false,
@@ -148,6 +193,49 @@ public sealed interface AstParser<S extends CharPointer<S>> {
                 true
             );
         }
+
+        /**
+         * Пропуск пробелов и комментариев лексическим анализатором
+         *
+         * @param skip true - пропускать, false - лексемы пробелов и комментариев передаются парсеру
+         * @return настройки
+         */
+        public ParserOptions skipTrivia(boolean skip) {
+            return new ParserOptions(
+                identAtRoot,
+                identInObjectKey,
+                identInObjectValue,
+                identInArrayValue,
+                returnNestedValue,
+                singleLineComment,
+                multiLineComment,
+                skip
+            );
+        }
+
+        /**
+         * Настройка лексического анализатора согласно {@link #skipTrivia()}.
+         * Запрещенные комментарии не пропускаются, чтобы парсер сообщил об ошибке.
+         *
+         * @param tokenizer лексический анализатор
+         * @param <S>       тип исходника
+         * @return лексический анализатор
+         */
+        public <S extends CharPointer<S>> Tokenizer<S> configure(Tokenizer<S> tokenizer) {
+            if (tokenizer == null) throw new IllegalArgumentException("tokenizer==null");
+            return skipTrivia ? tokenizer.skipTrivia(true, singleLineComment && multiLineComment) : tokenizer;
+        }
+
+        /**
+         * Настройка лексического анализатора согласно {@link #skipTrivia()}
+         *
+         * @param tokenizer лексический анализатор
+         * @return лексический анализатор
+         */
+        public ByteTokenizer configure(ByteTokenizer tokenizer) {
+            if (tokenizer == null) throw new IllegalArgumentException("tokenizer==null");
+            return skipTrivia ? tokenizer.skipTrivia(true, singleLineComment && multiLineComment) : tokenizer;
+        }
     }
 
     record Parsed<S extends CharPointer<S>>(AstParser<S> parser, Optional<Ast<S>> result) {}
@@ -166,10 +254,26 @@ public sealed interface AstParser<S extends CharPointer<S>> {
         return new Parsed<>(new Error<S>(message), Optional.empty());
     }
 
+    private static <S extends CharPointer<S>> Parsed<S> err(String message, Token<S> token) {
+        var at = token.begin().lineColumn().map(lc -> " at " + lc).orElse("");
+        return new Parsed<>(new Error<S>(message + at, token.begin()), Optional.empty());
+    }
+
+    private static <S extends CharPointer<S>> Parsed<S> unexpectedToken(Token<S> token) {
+        return err("unexpected lexem " + token.getClass().getSimpleName(), token);
+    }
+
     @SuppressWarnings("rawtypes")
     @SafeVarargs
     private static <S extends CharPointer<S>> Parsed<S> unexpectedToken(Token<S> token, Class<Token>... expect) {
-        return err("unexpected lexem " + token + " at " + token.begin() + ", was expect the following lexemes " + Arrays.toString(expect));
+        var at = token.begin().lineColumn().map(LineColumn::toString).orElseGet(() -> token.begin().toString());
+        return new Parsed<>(
+            new Error<S>(
+                "unexpected lexem " + token + " at " + at + ", was expect the following lexemes " + Arrays.toString(expect),
+                token.begin()
+            ),
+            Optional.empty()
+        );
     }
 
     public static final class Init<S extends CharPointer<S>>
@@ -252,10 +356,24 @@ public sealed interface AstParser<S extends CharPointer<S>> {
     /**
      * Ошибка парснга
      *
-     * @param message сообщение
-     * @param <S>     тип источника
+     * @param message  сообщение
+     * @param position расположение ошибки в исходнике или null
+     * @param <S>      тип источника
      */
-    public record Error<S extends CharPointer<S>>(String message) implements AstParser<S> {
+    public record Error<S extends CharPointer<S>>(String message, S position) implements AstParser<S> {
+        public Error(String message) {
+            this(message, null);
+        }
+
+        /**
+         * Строка и колонка ошибки, вычисляются по требованию
+         *
+         * @return строка и колонка
+         */
+        public Optional<LineColumn> lineColumn() {
+            return position != null ? position.lineColumn() : Optional.empty();
+        }
+
         @Override
         public Parsed<S> input(Token<S> token) {
             return ok(this);
@@ -500,7 +618,7 @@ public sealed interface AstParser<S extends CharPointer<S>> {
                     } else if (token instanceof Whitespace<S> t) {
                         return ok(this);
                     } else {
-                        return err("!");
+                        return unexpectedToken(token);
                     }
                 }
                 case AfterValue -> {
@@ -686,11 +804,11 @@ public sealed interface AstParser<S extends CharPointer<S>> {
                             return ok(parent, res);
                         }
                     } else if (token instanceof CloseParentheses<S> t) {
-                        return err("!!");
+                        return unexpectedToken(token);
                     } else if (token instanceof Colon<S> t) {
-                        return err("!!");
+                        return unexpectedToken(token);
                     } else if (token instanceof Comma<S> t) {
-                        return err("!!");
+                        return unexpectedToken(token);
                     }
                 }
                 case AfterValue -> {
@@ -724,12 +842,12 @@ public sealed interface AstParser<S extends CharPointer<S>> {
                     } else if (token instanceof Whitespace<S> t) {
                         return ok(this);
                     } else {
-                        return err("!!");
+                        return unexpectedToken(token);
                     }
                 }
             }
 
-            return err("!!");
+            return unexpectedToken(token);
         }
     }
 
@@ -741,6 +859,15 @@ public sealed interface AstParser<S extends CharPointer<S>> {
 
         public AstParser.Error<?> getSource() {return source;}
 
+        /**
+         * Строка и колонка ошибки
+         *
+         * @return строка и колонка
+         */
+        public Optional<LineColumn> lineColumn() {
+            return source.lineColumn();
+        }
+
         public JsonParseError(AstParser.Error<?> source) {
             super(source.message());
             this.source = source;
@@ -765,12 +892,135 @@ public sealed interface AstParser<S extends CharPointer<S>> {
 
     public static Ast<StringPointer> parse(String source) {
         if (source == null) throw new IllegalArgumentException("source==null");
-        var tokens = Tokenizer.parse(source);
+        return parse(new StringPointer(source, 0));
+    }
+
+    /**
+     * Парсинг json из потока символов, поток читается порциями
+     *
+     * <p>
+     * Лексемы распознаются по ходу парсинга и не накапливаются, но узлы результата хранят лексемы с указателями,
+     * поэтому прочитанные порции удерживаются, пока жив результат - в памяти весь документ.
+     * Дерево без расположения в исходнике, которое не удерживает порции - {@link xyz.cofe.json.stream.event.AstBuilder}.
+     * </p>
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<ReaderPointer> parse(Reader source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return parse(new ReaderPointer(source));
+    }
+
+    /**
+     * Парсинг json файла в кодировке UTF-8, файл отображается в память и не копируется в кучу
+     *
+     * @param file исходник
+     * @return результат парсинга
+     */
+    public static Ast<Utf8Pointer> parse(Path file) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        var options = new ParserOptions();
+        return parse(options.configure(new ByteTokenizer()).iterator(Utf8Pointer.map(file)), options);
+    }
+
+    /**
+     * Парсинг json в кодировке UTF-8, лексемы строятся по индексу структурных символов {@link StructuralIndex}
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<Utf8Pointer> parse(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return parse(StructuralIndex.of(source).tokens(), new ParserOptions());
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source исходник
+     * @param <S>    тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(S source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return parse(source, new ParserOptions());
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @param <S>     тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(S source, ParserOptions options) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        Tokenizer<S> tokenizer = options.configure(Tokenizer.<S>defaultTokenizer());
+        return parse(tokenizer.iterator(source), options);
+    }
+
+    /**
+     * Парсинг json, одинаковые ключи объектов разделяют один экземпляр {@link String}
+     *
+     * @param source исходник
+     * @param cache  кэш строк, может использоваться повторно для нескольких документов
+     * @param <S>    тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(S source, StringCache cache) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (cache == null) throw new IllegalArgumentException("cache==null");
+        var options = new ParserOptions();
+        Tokenizer<S> tokenizer = options.configure(Tokenizer.<S>defaultTokenizer(cache));
+        return parse(tokenizer.iterator(source), options);
+    }
+
+    /**
+     * Парсинг json из распознанных лексем
+     *
+     * @param tokens лексемы
+     * @param <S>    тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(Tokenizer.Parsed<S> tokens) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        return parse(tokens.tokens().iterator());
+    }
+
+    /**
+     * Парсинг json, лексемы запрашиваются по одной до получения результата.
+     * Оставшиеся лексемы не запрашиваются.
+     *
+     * @param tokens лексемы, например {@link Tokenizer#iterator(CharPointer)}
+     * @param <S>    тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(Iterator<? extends Token<S>> tokens) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        return parse(tokens, new ParserOptions());
+    }
+
+    /**
+     * Парсинг json, лексемы запрашиваются по одной до получения результата.
+     * Оставшиеся лексемы не запрашиваются.
+     *
+     * @param tokens  лексемы
+     * @param options настройки парсера
+     * @param <S>     тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(Iterator<? extends Token<S>> tokens, ParserOptions options) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
 
-        AstParser<StringPointer> parser = new AstParser.Init<>();
-        for (var token : tokens.tokens()) {
+        AstParser<S> parser = new AstParser.Init<>(options);
+        while (tokens.hasNext()) {
+            var token = tokens.next();
             var res = parser.input(token);
-            if (res.parser() instanceof AstParser.Error<StringPointer> err) {
+            if (res.parser() instanceof AstParser.Error<S> err) {
                 throw new JsonParseError(err);
             }
             if (res.result().isPresent()) {
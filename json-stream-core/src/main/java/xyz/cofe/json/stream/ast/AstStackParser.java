@@ -0,0 +1,528 @@
+package xyz.cofe.json.stream.ast;
+
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.token.BigIntToken;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.Colon;
+import xyz.cofe.json.stream.token.Comma;
+import xyz.cofe.json.stream.token.DoubleToken;
+import xyz.cofe.json.stream.token.FalseToken;
+import xyz.cofe.json.stream.token.IdentifierToken;
+import xyz.cofe.json.stream.token.IntToken;
+import xyz.cofe.json.stream.token.LineColumn;
+import xyz.cofe.json.stream.token.LongToken;
+import xyz.cofe.json.stream.token.MLComment;
+import xyz.cofe.json.stream.token.NullToken;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.SLComment;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.StringToken;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.TrueToken;
+import xyz.cofe.json.stream.token.Whitespace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Парсер JSON на явном стеке состояний.
+ *
+ * <p>
+ * Строит то же дерево {@link Ast}, что и {@link AstParser} с теми же {@link AstParser.ParserOptions},
+ * с теми же сообщениями об ошибках, но без объекта-состояния на каждый вложенный объект/массив
+ * и без {@link AstParser.Parsed} на каждую лексему:
+ * состояние вложенности - это массив <code>int</code> кодов, значения копятся в списках,
+ * которые переиспользуются от документа к документу.
+ * </p>
+ *
+ * <pre>
+ * var parser = new AstStackParser&lt;StringPointer&gt;(new AstParser.ParserOptions());
+ * for (var token : Tokenizer.parse(source).tokens()) {
+ *     parser.input(token).ifPresent(ast -&gt; System.out.println(ast.toJson()));
+ * }
+ * </pre>
+ *
+ * <p>Не потокобезопасен</p>
+ *
+ * @param <S> тип исходника
+ */
+public final class AstStackParser<S extends CharPointer<S>> {
+    private static final int ROOT = 0;
+    private static final int OBJECT_KEY = 1;
+    private static final int OBJECT_AFTER_KEY = 2;
+    private static final int OBJECT_VALUE = 3;
+    private static final int OBJECT_AFTER_VALUE = 4;
+    private static final int ARRAY_VALUE = 5;
+    private static final int ARRAY_AFTER_VALUE = 6;
+
+    private final AstParser.ParserOptions options;
+
+    /**
+     * Состояние на каждом уровне вложенности, на уровне 0 всегда {@link #ROOT}
+     */
+    private int[] states = new int[16];
+
+    /**
+     * Открывающая скобка уровня
+     */
+    private Token<?>[] begins = new Token<?>[16];
+
+    /**
+     * Последний ключ объекта уровня
+     */
+    private Ast.Key<?>[] keys = new Ast.Key<?>[16];
+
+    /**
+     * Значения уровня: элементы массива или {@link Ast.KeyValue} объекта
+     */
+    private List<?>[] values = new List<?>[16];
+
+    private int depth;
+    private AstParser.Error<S> error;
+
+    /**
+     * Конструктор
+     *
+     * @param options настройки парсера
+     */
+    public AstStackParser(AstParser.ParserOptions options) {
+        if (options == null) throw new IllegalArgumentException("options==null");
+        this.options = options;
+    }
+
+    /**
+     * Конструктор с настройками по умолчанию
+     */
+    public AstStackParser() {
+        this(new AstParser.ParserOptions());
+    }
+
+    /**
+     * Уровень вложенности текущего значения, 0 - между значениями верхнего уровня
+     *
+     * @return уровень вложенности
+     */
+    public int getNestedLevel() {
+        return depth;
+    }
+
+    /**
+     * Сброс незавершенного значения и ошибки, парсер готов к новому документу
+     */
+    public void reset() {
+        while (depth > 0) pop();
+        error = null;
+    }
+
+    /**
+     * Очередная лексема
+     *
+     * @param token лексема
+     * @return значение верхнего уровня, если оно завершено этой лексемой,
+     * или вложенное значение, если {@link AstParser.ParserOptions#returnNestedValue()}
+     * @throws AstParser.JsonParseError ошибка синтаксиса, повторяется для следующих лексем до {@link #reset()}
+     */
+    public Optional<Ast<S>> input(Token<S> token) {
+        if (token == null) throw new IllegalArgumentException("token==null");
+        if (error != null) throw new AstParser.JsonParseError(error);
+
+        return switch (states[depth]) {
+            case ROOT -> root(token);
+            case OBJECT_KEY -> objectKey(token);
+            case OBJECT_AFTER_KEY -> objectAfterKey(token);
+            case OBJECT_VALUE -> objectValue(token);
+            case OBJECT_AFTER_VALUE -> objectAfterValue(token);
+            case ARRAY_VALUE -> arrayValue(token);
+            default -> arrayAfterValue(token);
+        };
+    }
+
+    private Optional<Ast<S>> root(Token<S> token) {
+        var scalar = scalar(token);
+        if (scalar != null) return Optional.of(scalar);
+
+        if (token instanceof IdentifierToken<S> t) {
+            if (!options.identAtRoot()) throw unexpected(token, startTokens());
+            return Optional.of(new Ast.IdentAst<>(t));
+        }
+        if (token instanceof Whitespace<S>) return Optional.empty();
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token, startTokens());
+            return Optional.empty();
+        }
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token, startTokens());
+            return Optional.empty();
+        }
+        if (token instanceof OpenSquare<S> || token instanceof OpenParentheses<S>) return open(token);
+        throw unexpected(token, startTokens());
+    }
+
+    private Optional<Ast<S>> objectKey(Token<S> token) {
+        if (token instanceof StringToken<S> t) {
+            keys[depth] = new Ast.StringAst<>(t);
+            states[depth] = OBJECT_AFTER_KEY;
+            return Optional.empty();
+        }
+        if (token instanceof IdentifierToken<S> t) {
+            if (!options.identInObjectKey()) throw unexpected(token, keyTokens());
+            keys[depth] = new Ast.IdentAst<>(t);
+            states[depth] = OBJECT_AFTER_KEY;
+            return Optional.empty();
+        }
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token, keyTokens());
+            return Optional.empty();
+        }
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token, keyTokens());
+            return Optional.empty();
+        }
+        if (token instanceof Whitespace<S>) return Optional.empty();
+        if (token instanceof CloseParentheses<S> t) return closeObject(t);
+        throw unexpected(token, keyTokens());
+    }
+
+    private Optional<Ast<S>> objectAfterKey(Token<S> token) {
+        if (token instanceof Colon<S>) {
+            states[depth] = OBJECT_VALUE;
+            return Optional.empty();
+        }
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token, afterKeyTokens());
+            return Optional.empty();
+        }
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token, afterKeyTokens());
+            return Optional.empty();
+        }
+        if (token instanceof Whitespace<S>) return Optional.empty();
+        throw unexpected(token, afterKeyTokens());
+    }
+
+    private Optional<Ast<S>> objectValue(Token<S> token) {
+        var scalar = scalar(token);
+        if (scalar != null) return value(scalar);
+
+        if (token instanceof IdentifierToken<S> t) {
+            if (!options.identInObjectValue()) throw unexpected(token, objectValueTokens());
+            return value(new Ast.IdentAst<>(t));
+        }
+        if (token instanceof OpenParentheses<S> || token instanceof OpenSquare<S>) return open(token);
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token, objectValueTokens());
+            return Optional.empty();
+        }
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token, objectValueTokens());
+            return Optional.empty();
+        }
+        if (token instanceof Whitespace<S>) return Optional.empty();
+        throw unexpected(token);
+    }
+
+    private Optional<Ast<S>> objectAfterValue(Token<S> token) {
+        if (token instanceof Comma<S>) {
+            states[depth] = OBJECT_KEY;
+            return Optional.empty();
+        }
+        if (token instanceof CloseParentheses<S> t) return closeObject(t);
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token, objectValueTokens());
+            return Optional.empty();
+        }
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token, objectValueTokens());
+            return Optional.empty();
+        }
+        if (token instanceof Whitespace<S>) return Optional.empty();
+        throw unexpected(token, objectValueTokens());
+    }
+
+    private Optional<Ast<S>> arrayValue(Token<S> token) {
+        var scalar = scalar(token);
+        if (scalar != null) return value(scalar);
+
+        if (token instanceof IdentifierToken<S> t) {
+            if (!options.identInArrayValue()) throw unexpected(token, arrayValueTokens());
+            return value(new Ast.IdentAst<>(t));
+        }
+        if (token instanceof OpenSquare<S> || token instanceof OpenParentheses<S>) return open(token);
+        if (token instanceof CloseSquare<S> t) return closeArray(t);
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token, arrayValueTokens());
+            return Optional.empty();
+        }
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token, arrayValueTokens());
+            return Optional.empty();
+        }
+        if (token instanceof Whitespace<S>) return Optional.empty();
+        throw unexpected(token);
+    }
+
+    private Optional<Ast<S>> arrayAfterValue(Token<S> token) {
+        if (token instanceof Comma<S>) {
+            states[depth] = ARRAY_VALUE;
+            return Optional.empty();
+        }
+        if (token instanceof CloseSquare<S> t) return closeArray(t);
+        if (token instanceof MLComment<S> || token instanceof SLComment<S> || token instanceof Whitespace<S>) {
+            return Optional.empty();
+        }
+        throw unexpected(token);
+    }
+
+    /**
+     * Скалярное значение или null
+     */
+    private Ast<S> scalar(Token<S> token) {
+        if (token instanceof StringToken<S> t) return new Ast.StringAst<>(t);
+        if (token instanceof IntToken<S> t) return new Ast.NumberAst.IntAst<>(t);
+        if (token instanceof DoubleToken<S> t) return new Ast.NumberAst.DoubleAst<>(t);
+        if (token instanceof LongToken<S> t) return new Ast.NumberAst.LongAst<>(t);
+        if (token instanceof BigIntToken<S> t) return new Ast.NumberAst.BigIntAst<>(t);
+        if (token instanceof TrueToken<S> t) return new Ast.BooleanAst.TrueAst<>(t);
+        if (token instanceof FalseToken<S> t) return new Ast.BooleanAst.FalseAst<>(t);
+        if (token instanceof NullToken<S> t) return new Ast.NullAst<>(t);
+        return null;
+    }
+
+    /**
+     * Значение передается на текущий уровень
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<Ast<S>> value(Ast<S> value) {
+        switch (states[depth]) {
+            case OBJECT_VALUE -> {
+                ((List<Ast.KeyValue<S>>) values[depth]).add(new Ast.KeyValue<>((Ast.Key<S>) keys[depth], value));
+                states[depth] = OBJECT_AFTER_VALUE;
+            }
+            case ARRAY_VALUE -> {
+                ((List<Ast<S>>) values[depth]).add(value);
+                states[depth] = ARRAY_AFTER_VALUE;
+            }
+            default -> {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Ast<S>> open(Token<S> token) {
+        if (depth + 1 == states.length) {
+            var size = states.length * 2;
+            states = Arrays.copyOf(states, size);
+            begins = Arrays.copyOf(begins, size);
+            keys = Arrays.copyOf(keys, size);
+            values = Arrays.copyOf(values, size);
+        }
+
+        depth++;
+        states[depth] = token instanceof OpenSquare<S> ? ARRAY_VALUE : OBJECT_KEY;
+        begins[depth] = token;
+        if (values[depth] == null) values[depth] = new ArrayList<>();
+        return Optional.empty();
+    }
+
+    private void pop() {
+        values[depth].clear();
+        begins[depth] = null;
+        keys[depth] = null;
+        depth--;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Ast<S>> closeObject(CloseParentheses<S> token) {
+        var res = new Ast.ObjectAst<>(
+            ImList.from((List<Ast.KeyValue<S>>) values[depth]),
+            (OpenParentheses<S>) begins[depth],
+            token
+        );
+        pop();
+        return nested(res);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Ast<S>> closeArray(CloseSquare<S> token) {
+        var res = new Ast.ArrayAst<>(
+            ImList.from((List<Ast<S>>) values[depth]),
+            (OpenSquare<S>) begins[depth],
+            token
+        );
+        pop();
+        return nested(res);
+    }
+
+    private Optional<Ast<S>> nested(Ast<S> res) {
+        var top = value(res);
+        if (top.isPresent() || !options.returnNestedValue()) return top;
+        return Optional.of(res);
+    }
+
+    /**
+     * Готовое значение вместо содержимого только что открытого объекта/массива, см {@link LazyAstParser}
+     *
+     * @param value значение
+     * @return значение верхнего уровня, как для закрывающей скобки
+     */
+    Optional<Ast<S>> replaceOpened(Ast<S> value) {
+        if (value == null) throw new IllegalArgumentException("value==null");
+        if (depth == 0) throw new IllegalStateException("nothing opened");
+        pop();
+        return nested(value);
+    }
+
+    //region ошибки, сообщения совпадают с AstParser
+
+    private AstParser.JsonParseError fail(String message, Token<S> token) {
+        error = new AstParser.Error<>(message, token.begin());
+        return new AstParser.JsonParseError(error);
+    }
+
+    private AstParser.JsonParseError unexpected(Token<S> token) {
+        var at = token.begin().lineColumn().map(lc -> " at " + lc).orElse("");
+        return fail("unexpected lexem " + token.getClass().getSimpleName() + at, token);
+    }
+
+    private AstParser.JsonParseError unexpected(Token<S> token, List<Class<?>> expect) {
+        var at = token.begin().lineColumn().map(LineColumn::toString).orElseGet(() -> token.begin().toString());
+        return fail(
+            "unexpected lexem " + token + " at " + at + ", was expect the following lexemes " + expect,
+            token
+        );
+    }
+
+    private List<Class<?>> startTokens() {
+        List<Class<?>> tokens = new ArrayList<>();
+        tokens.add(BigIntToken.class);
+        tokens.add(LongToken.class);
+        tokens.add(IntToken.class);
+        tokens.add(DoubleToken.class);
+        if (options.identAtRoot()) tokens.add(IdentifierToken.class);
+        tokens.add(StringToken.class);
+        tokens.add(FalseToken.class);
+        tokens.add(TrueToken.class);
+        tokens.add(NullToken.class);
+        if (options.singleLineComment()) tokens.add(SLComment.class);
+        if (options.multiLineComment()) tokens.add(MLComment.class);
+        tokens.add(OpenParentheses.class);
+        tokens.add(OpenSquare.class);
+        tokens.add(Whitespace.class);
+        return tokens;
+    }
+
+    private List<Class<?>> keyTokens() {
+        List<Class<?>> tokens = new ArrayList<>();
+        if (options.identInObjectKey()) tokens.add(IdentifierToken.class);
+        tokens.add(StringToken.class);
+        tokens.add(SLComment.class);
+        tokens.add(MLComment.class);
+        tokens.add(Whitespace.class);
+        tokens.add(CloseParentheses.class);
+        return tokens;
+    }
+
+    private List<Class<?>> afterKeyTokens() {
+        List<Class<?>> tokens = new ArrayList<>();
+        tokens.add(Colon.class);
+        if (options.singleLineComment()) tokens.add(SLComment.class);
+        if (options.multiLineComment()) tokens.add(MLComment.class);
+        tokens.add(Whitespace.class);
+        return tokens;
+    }
+
+    private List<Class<?>> objectValueTokens() {
+        List<Class<?>> tokens = new ArrayList<>();
+        tokens.add(BigIntToken.class);
+        tokens.add(LongToken.class);
+        tokens.add(IntToken.class);
+        tokens.add(DoubleToken.class);
+        if (options.identInObjectValue()) tokens.add(IdentifierToken.class);
+        tokens.add(StringToken.class);
+        tokens.add(FalseToken.class);
+        tokens.add(TrueToken.class);
+        tokens.add(NullToken.class);
+        if (options.singleLineComment()) tokens.add(SLComment.class);
+        if (options.multiLineComment()) tokens.add(MLComment.class);
+        tokens.add(OpenParentheses.class);
+        tokens.add(OpenSquare.class);
+        tokens.add(Whitespace.class);
+        return tokens;
+    }
+
+    private List<Class<?>> arrayValueTokens() {
+        List<Class<?>> tokens = new ArrayList<>();
+        tokens.add(BigIntToken.class);
+        tokens.add(LongToken.class);
+        tokens.add(IntToken.class);
+        tokens.add(DoubleToken.class);
+        tokens.add(IdentifierToken.class);
+        tokens.add(StringToken.class);
+        tokens.add(FalseToken.class);
+        tokens.add(TrueToken.class);
+        tokens.add(NullToken.class);
+        tokens.add(SLComment.class);
+        tokens.add(MLComment.class);
+        tokens.add(Whitespace.class);
+        tokens.add(OpenSquare.class);
+        tokens.add(OpenParentheses.class);
+        return tokens;
+    }
+
+    //endregion
+
+    /**
+     * Парсинг json, лексемы запрашиваются по одной до получения результата.
+     * Оставшиеся лексемы не запрашиваются.
+     *
+     * @param tokens лексемы
+     * @return результат парсинга
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       лексемы закончились раньше значения
+     */
+    public Ast<S> parse(Iterator<? extends Token<S>> tokens) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        reset();
+
+        while (tokens.hasNext()) {
+            var res = input(tokens.next());
+            if (res.isPresent()) return res.get();
+        }
+
+        throw new AstParser.NoResult(new AstParser.Error<S>("unexpected end of input, nested level " + depth));
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @param <S>     тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(S source, AstParser.ParserOptions options) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        Tokenizer<S> tokenizer = options.configure(Tokenizer.<S>defaultTokenizer());
+        return new AstStackParser<S>(options).parse(tokenizer.iterator(source));
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<StringPointer> parse(String source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return parse(new StringPointer(source, 0), new AstParser.ParserOptions());
+    }
+}
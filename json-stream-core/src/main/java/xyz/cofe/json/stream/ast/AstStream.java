@@ -0,0 +1,246 @@
+package xyz.cofe.json.stream.ast;
+
+import xyz.cofe.json.stream.token.ByteTokenizer;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.ReaderPointer;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.StructuralIndex;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.Utf8Pointer;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Последовательность значений json верхнего уровня: NDJSON (по значению на строку) или просто значения подряд.
+ *
+ * <pre>
+ * try (var reader = Files.newBufferedReader(log)) {
+ *     AstStream.of(reader).asts().forEach(ast -&gt; ...);
+ * }
+ * </pre>
+ *
+ * <p>
+ * Каждое значение отдается сразу после его завершения, лексемы после него еще не прочитаны.
+ * Прочитанные значения не накапливаются: при чтении из {@link Reader} в памяти остается только
+ * текущее значение (и те, на которые ссылается получатель).
+ * </p>
+ *
+ * <p>
+ * Для каждого значения известно смещение его начала и конца в исходнике ({@link Document}),
+ * по смещению конца можно продолжить обработку после перезапуска.
+ * </p>
+ *
+ * @param <S> тип исходника
+ */
+public final class AstStream<S extends CharPointer<S>> implements Iterator<AstStream.Document<S>> {
+    /**
+     * Значение верхнего уровня
+     *
+     * @param ast    значение
+     * @param offset смещение начала значения в исходнике
+     * @param end    смещение конца значения, с него начинается следующее значение
+     * @param <S>    тип исходника
+     */
+    public record Document<S extends CharPointer<S>>(Ast<S> ast, long offset, long end) {}
+
+    private final Iterator<? extends Token<S>> tokens;
+    private final AstStackParser<S> parser;
+    private final ToLongFunction<S> offsetOf;
+    private final UnaryOperator<S> afterTrivia;
+    private Document<S> next;
+
+    /**
+     * Конец последней лексемы, до первой лексемы - начало исходника
+     */
+    private S last;
+
+    /**
+     * Конструктор, конец лексем считается концом исходника
+     *
+     * @param tokens   лексемы
+     * @param options  настройки парсера
+     * @param offsetOf смещение указателя от начала исходника
+     */
+    public AstStream(Iterator<? extends Token<S>> tokens, AstParser.ParserOptions options, ToLongFunction<S> offsetOf) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        if (offsetOf == null) throw new IllegalArgumentException("offsetOf==null");
+        this.tokens = tokens;
+        this.parser = new AstStackParser<>(options);
+        this.offsetOf = offsetOf;
+        this.afterTrivia = null;
+    }
+
+    /**
+     * Конструктор.
+     *
+     * <p>
+     * Лексемы заканчиваются и в конце исходника, и на символе, который лексический анализатор не распознал.
+     * Когда лексемы закончились, после пробелов и комментариев должен быть конец исходника,
+     * иначе - {@link AstParser.JsonParseError}, а не молча оборванный поток значений.
+     * </p>
+     *
+     * @param tokens      лексемы
+     * @param options     настройки парсера
+     * @param offsetOf    смещение указателя от начала исходника
+     * @param source      начало исходника
+     * @param afterTrivia пропуск пробелов и комментариев, которые пропускает лексический анализатор,
+     *                    см {@link Tokenizer#afterTrivia(CharPointer)}
+     */
+    public AstStream(Iterator<? extends Token<S>> tokens, AstParser.ParserOptions options, ToLongFunction<S> offsetOf, S source, UnaryOperator<S> afterTrivia) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        if (offsetOf == null) throw new IllegalArgumentException("offsetOf==null");
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (afterTrivia == null) throw new IllegalArgumentException("afterTrivia==null");
+        this.tokens = tokens;
+        this.parser = new AstStackParser<>(options);
+        this.offsetOf = offsetOf;
+        this.afterTrivia = afterTrivia;
+        this.last = source;
+    }
+
+    /**
+     * Значения из строки, смещения в символах
+     *
+     * @param source исходник
+     * @return значения
+     */
+    public static AstStream<StringPointer> of(String source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var options = new AstParser.ParserOptions();
+        Tokenizer<StringPointer> tokenizer = options.configure(Tokenizer.<StringPointer>defaultTokenizer());
+        var start = new StringPointer(source, 0);
+        return new AstStream<>(tokenizer.iterator(start), options, p -> p.offset, start, tokenizer::afterTrivia);
+    }
+
+    /**
+     * Значения из потока символов, поток читается порциями, смещения в символах
+     *
+     * @param source исходник
+     * @return значения
+     */
+    public static AstStream<ReaderPointer> of(Reader source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var options = new AstParser.ParserOptions();
+        Tokenizer<ReaderPointer> tokenizer = options.configure(Tokenizer.<ReaderPointer>defaultTokenizer());
+        var start = new ReaderPointer(source);
+        return new AstStream<>(tokenizer.iterator(start), options, ReaderPointer::offset, start, tokenizer::afterTrivia);
+    }
+
+    /**
+     * Значения из потока байтов в кодировке UTF-8, смещения в символах
+     *
+     * @param source исходник
+     * @return значения
+     */
+    public static AstStream<ReaderPointer> of(InputStream source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return of(new InputStreamReader(source, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Значения из json в кодировке UTF-8, лексемы строятся по {@link StructuralIndex}, смещения в байтах
+     *
+     * @param source исходник
+     * @return значения
+     */
+    public static AstStream<Utf8Pointer> of(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var trivia = new ByteTokenizer().skipTrivia(true, true);
+        return new AstStream<>(StructuralIndex.of(source).tokens(), new AstParser.ParserOptions(), Utf8Pointer::position, Utf8Pointer.of(source), trivia::afterTrivia);
+    }
+
+    /**
+     * Значения из файла в кодировке UTF-8, файл отображается в память и не копируется в кучу, смещения в байтах
+     *
+     * @param file исходник
+     * @return значения
+     */
+    public static AstStream<Utf8Pointer> of(Path file) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        var options = new AstParser.ParserOptions();
+        var tokenizer = options.configure(new ByteTokenizer());
+        var start = Utf8Pointer.map(file);
+        return new AstStream<>(tokenizer.iterator(start), options, Utf8Pointer::position, start, tokenizer::afterTrivia);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       исходник закончился внутри значения
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) return true;
+
+        while (tokens.hasNext()) {
+            var token = tokens.next();
+            last = token.end();
+            var res = parser.input(token);
+            if (res.isPresent() && parser.getNestedLevel() == 0) {
+                var ast = res.get();
+                next = new Document<>(ast, offsetOf.applyAsLong(ast.sourceBegin()), offsetOf.applyAsLong(ast.sourceEnd()));
+                return true;
+            }
+        }
+
+        if (afterTrivia != null) {
+            var rest = afterTrivia.apply(last);
+            if (rest.charAt(0) >= 0) {
+                var at = rest.lineColumn().map(lc -> " at " + lc).orElse("");
+                throw new AstParser.JsonParseError(
+                    new AstParser.Error<>("can't parse lexem, offset " + offsetOf.applyAsLong(rest) + at, rest)
+                );
+            }
+        }
+
+        if (parser.getNestedLevel() > 0) {
+            throw new AstParser.NoResult(new AstParser.Error<S>("unexpected end of input, nested level " + parser.getNestedLevel()));
+        }
+        return false;
+    }
+
+    @Override
+    public Document<S> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        var doc = next;
+        next = null;
+        return doc;
+    }
+
+    /**
+     * Значения со смещениями
+     *
+     * @return поток значений
+     */
+    public Stream<Document<S>> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    /**
+     * Значения
+     *
+     * @return поток значений
+     */
+    public Stream<Ast<S>> asts() {
+        return stream().map(Document::ast);
+    }
+}
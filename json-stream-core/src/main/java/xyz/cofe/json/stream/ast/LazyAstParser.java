@@ -0,0 +1,203 @@
+package xyz.cofe.json.stream.ast;
+
+import xyz.cofe.json.stream.token.BracketScanner;
+import xyz.cofe.json.stream.token.ByteTokenizer;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.Utf8Pointer;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Ленивый парсер: объекты и массивы разбираются при первом обращении к содержимому.
+ *
+ * <pre>
+ * var ast = LazyAstParser.parse(Path.of("big.json"));
+ * var name = new QuerySetFin&lt;&gt;(ast).get("user").get("name").firstString();
+ * </pre>
+ *
+ * <p>
+ * Для объекта/массива запоминаются только открывающая и закрывающая скобки,
+ * закрывающая ищется быстрым пропуском {@link BracketScanner#closing(CharPointer)} без разбора на лексемы.
+ * Содержимое разбирается при первом вызове {@link Ast.ObjectAst#values()}, {@link Ast.ObjectAst#get(String)},
+ * {@link Ast.ArrayAst#values()} (а значит и при навигации {@link xyz.cofe.json.stream.query.QuerySet},
+ * {@link xyz.cofe.json.stream.rec.RecMapper}, {@link AstWriter}) и запоминается, см {@link LazyValues}.
+ * Вложенные объекты/массивы при этом снова откладываются.
+ * </p>
+ *
+ * <p>
+ * Ошибки синтаксиса внутри объекта/массива обнаруживаются только при его разборе:
+ * {@link AstParser.JsonParseError} выбрасывается из <code>values()</code>.
+ * Исходник должен оставаться доступным, пока дерево используется.
+ * </p>
+ *
+ * <p>
+ * {@link AstParser.ParserOptions#returnNestedValue()} не учитывается
+ * </p>
+ *
+ * @param <S> тип исходника
+ */
+public final class LazyAstParser<S extends CharPointer<S>> {
+    private final Function<S, ? extends Iterator<? extends Token<S>>> tokens;
+    private final AstParser.ParserOptions options;
+
+    /**
+     * Конструктор
+     *
+     * @param tokens  лексемы начиная с указанной позиции
+     * @param options настройки парсера
+     */
+    public LazyAstParser(Function<S, ? extends Iterator<? extends Token<S>>> tokens, AstParser.ParserOptions options) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        this.tokens = tokens;
+        this.options = new AstParser.ParserOptions(
+            options.identAtRoot(),
+            options.identInObjectKey(),
+            options.identInObjectValue(),
+            options.identInArrayValue(),
+            false,
+            options.singleLineComment(),
+            options.multiLineComment(),
+            options.skipTrivia()
+        );
+    }
+
+    /**
+     * Парсинг json, разбирается только значение верхнего уровня
+     *
+     * @param source исходник
+     * @return результат парсинга
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       исходник закончился раньше значения
+     */
+    public Ast<S> parse(S source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return read(source, 0);
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @param <S>     тип исходника
+     * @return результат парсинга
+     */
+    public static <S extends CharPointer<S>> Ast<S> parse(S source, AstParser.ParserOptions options) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        Tokenizer<S> tokenizer = options.configure(Tokenizer.<S>defaultTokenizer());
+        return new LazyAstParser<S>(tokenizer::iterator, options).parse(source);
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<StringPointer> parse(String source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return parse(new StringPointer(source, 0), new AstParser.ParserOptions());
+    }
+
+    /**
+     * Парсинг json в кодировке UTF-8
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<Utf8Pointer> parse(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return parseUtf8(Utf8Pointer.of(source));
+    }
+
+    /**
+     * Парсинг json файла в кодировке UTF-8, файл отображается в память и не копируется в кучу
+     *
+     * @param file исходник
+     * @return результат парсинга
+     */
+    public static Ast<Utf8Pointer> parse(Path file) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        return parseUtf8(Utf8Pointer.map(file));
+    }
+
+    private static Ast<Utf8Pointer> parseUtf8(Utf8Pointer source) {
+        var options = new AstParser.ParserOptions();
+        var tokenizer = options.configure(new ByteTokenizer());
+        return new LazyAstParser<Utf8Pointer>(tokenizer::iterator, options).parse(source);
+    }
+
+    /**
+     * Разбор значения
+     *
+     * @param from      начало
+     * @param lazyLevel уровень вложенности, на котором объекты/массивы откладываются:
+     *                  0 - значение верхнего уровня, 1 - элементы разбираемого объекта/массива
+     */
+    private Ast<S> read(S from, int lazyLevel) {
+        var parser = new AstStackParser<S>(options);
+        Iterator<? extends Token<S>> it = tokens.apply(from);
+
+        while (it.hasNext()) {
+            Token<S> token = it.next();
+
+            Optional<Ast<S>> res;
+            if (parser.getNestedLevel() == lazyLevel && (token instanceof OpenParentheses<S> || token instanceof OpenSquare<S>)) {
+                // допустимость скобки в этом месте проверяет парсер
+                parser.input(token);
+                var nested = lazy(token);
+                res = parser.replaceOpened(nested);
+                if (res.isEmpty()) it = tokens.apply(nested.sourceEnd());
+            } else {
+                res = parser.input(token);
+            }
+
+            if (res.isPresent()) return res.get();
+        }
+
+        throw new AstParser.NoResult(new AstParser.Error<S>("unexpected end of input, nested level " + parser.getNestedLevel()));
+    }
+
+    /**
+     * Отложенный объект/массив
+     */
+    private Ast<S> lazy(Token<S> open) {
+        var close = BracketScanner.closing(open.end()).orElseThrow(() ->
+            new AstParser.NoResult(new AstParser.Error<S>("unexpected end of input, bracket is not closed", open.begin()))
+        );
+
+        var closeChar = close.charAt(0);
+        if (open instanceof OpenParentheses<S> o) {
+            if (closeChar != '}') throw mismatch(close);
+            return Ast.ObjectAst.lazy(
+                new LazyValues<>(() -> ((Ast.ObjectAst<S>) read(open.begin(), 1)).values()),
+                o,
+                new CloseParentheses<>(close, close.move(1))
+            );
+        }
+
+        if (closeChar != ']') throw mismatch(close);
+        return Ast.ArrayAst.lazy(
+            new LazyValues<>(() -> ((Ast.ArrayAst<S>) read(open.begin(), 1)).values()),
+            (OpenSquare<S>) open,
+            new CloseSquare<>(close, close.move(1))
+        );
+    }
+
+    private AstParser.JsonParseError mismatch(S close) {
+        var at = close.lineColumn().map(lc -> " at " + lc).orElse("");
+        return new AstParser.JsonParseError(new AstParser.Error<>("bracket mismatch" + at, close));
+    }
+}
@@ -0,0 +1,64 @@
+package xyz.cofe.json.stream.ast;
+
+import xyz.cofe.coll.im.ImList;
+
+import java.util.function.Supplier;
+
+/**
+ * Отложенное содержимое {@link Ast.ObjectAst} / {@link Ast.ArrayAst}:
+ * разбирается при первом обращении и запоминается.
+ *
+ * <p>Потокобезопасен, разбор выполняется один раз</p>
+ *
+ * @param <A> тип элемента
+ * @see LazyAstParser
+ */
+public final class LazyValues<A> {
+    private Supplier<ImList<A>> parse;
+    private volatile ImList<A> values;
+
+    /**
+     * Конструктор
+     *
+     * @param parse разбор содержимого
+     */
+    public LazyValues(Supplier<ImList<A>> parse) {
+        if (parse == null) throw new IllegalArgumentException("parse==null");
+        this.parse = parse;
+    }
+
+    /**
+     * Содержимое, при первом обращении выполняется разбор
+     *
+     * @return содержимое
+     * @throws AstParser.JsonParseError ошибка синтаксиса в отложенном участке
+     */
+    public ImList<A> get() {
+        var res = values;
+        if (res != null) return res;
+
+        synchronized (this) {
+            if (values == null) {
+                var parsed = parse.get();
+                if (parsed == null) throw new IllegalStateException("parsed==null");
+                values = parsed;
+                parse = null;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Проверка, что содержимое уже разобрано
+     *
+     * @return true - разобрано
+     */
+    public boolean isParsed() {
+        return values != null;
+    }
+
+    @Override
+    public String toString() {
+        return values != null ? "LazyValues(parsed)" : "LazyValues(not parsed)";
+    }
+}
@@ -0,0 +1,320 @@
+package xyz.cofe.json.stream.ast;
+
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.token.BracketScanner;
+import xyz.cofe.json.stream.token.ByteTokenizer;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.MLComment;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.SLComment;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.Utf8Pointer;
+import xyz.cofe.json.stream.token.Whitespace;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Параллельный парсинг большого массива верхнего уровня в кодировке UTF-8
+ *
+ * <pre>
+ * var items = ParallelArrayParser.of(Path.of("items.json"))
+ *     .map(ast -&gt; mapper.parse(ast, Item.class));
+ * </pre>
+ *
+ * <p>
+ * Сначала один быстрый проход ({@link BracketScanner#elements(Utf8Pointer)}) находит границы элементов:
+ * запятые первого уровня вложенности, учитываются только скобки, строки и комментарии.
+ * Затем участки элементов разбираются в {@link ForkJoinPool}, порядок элементов сохраняется.
+ * </p>
+ *
+ * <p>
+ * Синтаксис - как у {@link AstParser} с теми же {@link AstParser.ParserOptions},
+ * результат {@link #parse()} совпадает с {@link AstParser#parse(byte[])}.
+ * </p>
+ */
+public final class ParallelArrayParser {
+    private final Utf8Pointer source;
+    private final AstParser.ParserOptions options;
+    private final OpenSquare<Utf8Pointer> open;
+    private final CloseSquare<Utf8Pointer> close;
+
+    /**
+     * Позиции запятых первого уровня, последний элемент - позиция <code>]</code>
+     */
+    private final long[] bounds;
+
+    private ParallelArrayParser(Utf8Pointer source, AstParser.ParserOptions options, OpenSquare<Utf8Pointer> open, long[] bounds) {
+        this.source = source;
+        this.options = options;
+        this.open = open;
+        this.bounds = bounds;
+
+        var end = bounds[bounds.length - 1];
+        this.close = new CloseSquare<>(source.at(end), source.at(end + 1));
+    }
+
+    /**
+     * Поиск границ элементов массива
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @return парсер
+     * @throws AstParser.JsonParseError исходник не массив или массив не закрыт
+     */
+    public static ParallelArrayParser of(Utf8Pointer source, AstParser.ParserOptions options) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+
+        var tokens = options.configure(new ByteTokenizer()).iterator(source);
+        Token<Utf8Pointer> first = null;
+        while (tokens.hasNext()) {
+            first = tokens.next();
+            if (!trivia(first)) break;
+        }
+        if (!(first instanceof OpenSquare<Utf8Pointer> open)) {
+            throw new AstParser.JsonParseError(new AstParser.Error<>("expected array", first != null ? first.begin() : source));
+        }
+
+        var bounds = BracketScanner.elements(open.end()).orElseThrow(() ->
+            new AstParser.JsonParseError(new AstParser.Error<>("array is not closed", open.begin()))
+        );
+        return new ParallelArrayParser(source, options, open, bounds);
+    }
+
+    /**
+     * Поиск границ элементов массива, настройки парсера по умолчанию
+     *
+     * @param source исходник
+     * @return парсер
+     */
+    public static ParallelArrayParser of(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return of(Utf8Pointer.of(source), new AstParser.ParserOptions());
+    }
+
+    /**
+     * Поиск границ элементов массива в файле, файл отображается в память и не копируется в кучу
+     *
+     * @param file исходник
+     * @return парсер
+     */
+    public static ParallelArrayParser of(Path file) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        return of(Utf8Pointer.map(file), new AstParser.ParserOptions());
+    }
+
+    /**
+     * Кол-во участков между запятыми, включая пустой участок после завершающей запятой
+     *
+     * @return кол-во участков
+     */
+    public int size() {
+        return bounds.length;
+    }
+
+    /**
+     * Парсинг в {@link ForkJoinPool#commonPool()}
+     *
+     * @return массив
+     */
+    public Ast.ArrayAst<Utf8Pointer> parse() {
+        return parse(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Парсинг
+     *
+     * @param pool пул потоков
+     * @return массив
+     */
+    public Ast.ArrayAst<Utf8Pointer> parse(ForkJoinPool pool) {
+        return new Ast.ArrayAst<>(ImList.from(this.<Ast<Utf8Pointer>>map(Function.identity(), pool)), open, close);
+    }
+
+    /**
+     * Парсинг и преобразование элементов в {@link ForkJoinPool#commonPool()}
+     *
+     * @param mapper преобразование элемента, например {@link xyz.cofe.json.stream.rec.StdMapper#parse(Ast, Class)}
+     * @param <T>    тип результата
+     * @return элементы в исходном порядке
+     */
+    public <T> List<T> map(Function<? super Ast<Utf8Pointer>, ? extends T> mapper) {
+        return map(mapper, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Парсинг и преобразование элементов.
+     * Преобразование выполняется в том же потоке, что и парсинг элемента, дерево элемента после него не хранится.
+     *
+     * @param mapper преобразование элемента, вызывается из разных потоков
+     * @param pool   пул потоков
+     * @param <T>    тип результата
+     * @return элементы в исходном порядке
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> map(Function<? super Ast<Utf8Pointer>, ? extends T> mapper, ForkJoinPool pool) {
+        if (mapper == null) throw new IllegalArgumentException("mapper==null");
+        if (pool == null) throw new IllegalArgumentException("pool==null");
+
+        var out = new Object[bounds.length];
+        var grain = Math.max(1, bounds.length / (pool.getParallelism() * 8));
+        pool.invoke(new Task<>(0, bounds.length, grain, out, mapper));
+
+        // пустой последний участок - завершающая запятая или пустой массив
+        var size = out.length > 0 && out[out.length - 1] == EMPTY ? out.length - 1 : out.length;
+        var res = new ArrayList<T>(size);
+        for (var i = 0; i < size; i++) res.add((T) out[i]);
+        return res;
+    }
+
+    private static final Object EMPTY = new Object();
+
+    private final class Task<T> extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Object[] out;
+        private final Function<? super Ast<Utf8Pointer>, ? extends T> mapper;
+
+        Task(int from, int to, int grain, Object[] out, Function<? super Ast<Utf8Pointer>, ? extends T> mapper) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.out = out;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                var tokenizer = options.configure(new ByteTokenizer());
+                var parser = new AstStackParser<Utf8Pointer>(options);
+                for (var i = from; i < to; i++) {
+                    var ast = element(tokenizer, parser, i);
+                    out[i] = ast != null ? mapper.apply(ast) : EMPTY;
+                }
+                return;
+            }
+
+            var mid = (from + to) >>> 1;
+            invokeAll(new Task<>(from, mid, grain, out, mapper), new Task<>(mid, to, grain, out, mapper));
+        }
+    }
+
+    /**
+     * Разбор участка между запятыми
+     *
+     * @return элемент или null для пустого последнего участка
+     */
+    private Ast<Utf8Pointer> element(ByteTokenizer tokenizer, AstStackParser<Utf8Pointer> parser, int i) {
+        var begin = (i == 0 ? open.end().position() : bounds[i - 1] + 1);
+        var end = bounds[i];
+        var tokens = new Range(tokenizer.iterator(source.at(begin)), end);
+
+        parser.reset();
+        Ast<Utf8Pointer> value = null;
+        while (tokens.hasNext()) {
+            var token = tokens.next();
+            if (value != null) {
+                if (token instanceof Whitespace<Utf8Pointer>) continue;
+                if (trivia(token)) {
+                    // допустимость комментария проверяет парсер
+                    parser.input(token);
+                    continue;
+                }
+                throw new AstParser.JsonParseError(new AstParser.Error<>(
+                    "expected , or ] after array element" + token.begin().lineColumn().map(lc -> " at " + lc).orElse(""),
+                    token.begin()
+                ));
+            }
+
+            var res = parser.input(token);
+            if (res.isPresent() && parser.getNestedLevel() == 0) value = res.get();
+        }
+
+        var stopped = tokens.stopped();
+        if (stopped != null) {
+            var at = tokenizer.afterTrivia(stopped);
+            throw new AstParser.JsonParseError(new AstParser.Error<>(
+                "can't parse lexem" + at.lineColumn().map(lc -> " at " + lc).orElse(""),
+                at
+            ));
+        }
+
+        if (value == null) {
+            if (i == bounds.length - 1 && parser.getNestedLevel() == 0) return null;
+
+            var at = source.at(begin);
+            throw new AstParser.JsonParseError(new AstParser.Error<>(
+                "empty array element" + at.lineColumn().map(lc -> " at " + lc).orElse(""),
+                at
+            ));
+        }
+        return value;
+    }
+
+    private static boolean trivia(Token<Utf8Pointer> token) {
+        return token instanceof Whitespace<Utf8Pointer>
+            || token instanceof SLComment<Utf8Pointer>
+            || token instanceof MLComment<Utf8Pointer>;
+    }
+
+    /**
+     * Лексемы, которые начинаются до заданной позиции
+     */
+    private static final class Range implements Iterator<Token<Utf8Pointer>> {
+        private final Tokenizer.TokenIterator<Utf8Pointer> tokens;
+        private final long end;
+        private Token<Utf8Pointer> next;
+        private boolean done;
+        private boolean stopped;
+
+        Range(Tokenizer.TokenIterator<Utf8Pointer> tokens, long end) {
+            this.tokens = tokens;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (done || stopped) return false;
+            if (!tokens.hasNext()) {
+                stopped = true;
+                return false;
+            }
+
+            var t = tokens.next();
+            if (t.begin().position() >= end) {
+                done = true;
+                return false;
+            }
+            next = t;
+            return true;
+        }
+
+        @Override
+        public Token<Utf8Pointer> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            var t = next;
+            next = null;
+            return t;
+        }
+
+        /**
+         * Лексемы закончились раньше заданной позиции - символ не распознан
+         *
+         * @return позиция после последней лексемы или null, если лексемы дошли до заданной позиции
+         */
+        Utf8Pointer stopped() {
+            return stopped ? tokens.pointer() : null;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package xyz.cofe.json.stream.event;
+
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.DummyCharPointer;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Построение {@link Ast} без расположения в исходнике по событиям {@link JsonEventParser}.
+ *
+ * <pre>
+ * Ast&lt;DummyCharPointer&gt; ast = AstBuilder.parse(bytes);
+ * </pre>
+ *
+ * <p>
+ * Узлы создаются фабриками <code>create(...)</code> ({@link Ast.StringAst#create(String)}, {@link Ast.ObjectAst#create(ImList)}, ...),
+ * как и в {@link xyz.cofe.json.stream.rec.RecMapper#toAst(Object)}: лексемы и указатели исходника не хранятся,
+ * скобки, <code>null</code>, <code>true</code>/<code>false</code> и небольшие целые числа - общие экземпляры,
+ * одинаковые ключи объектов тоже не дублируются.
+ * Дерево не ссылается на исходник и подходит для долгого хранения или передачи дальше.
+ * </p>
+ *
+ * <p>
+ * Ключи-идентификаторы становятся строками ({@link Ast.StringAst}).
+ * </p>
+ *
+ * <p>Не потокобезопасен</p>
+ */
+public final class AstBuilder implements JsonEventHandler {
+    /**
+     * Сколько разных ключей запоминается
+     */
+    private static final int KEY_CACHE_SIZE = 1024;
+
+    private List<Object>[] values = newValues(16);
+    private boolean[] objects = new boolean[16];
+    private String[] keys = new String[16];
+    private int depth;
+    private Ast<DummyCharPointer> result;
+    private final Map<String, Ast.StringAst<DummyCharPointer>> keyCache = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private static List<Object>[] newValues(int size) {
+        return (List<Object>[]) new List<?>[size];
+    }
+
+    /**
+     * Результат - последнее завершенное значение верхнего уровня
+     *
+     * @return значение
+     * @throws IllegalStateException значение еще не завершено
+     */
+    public Ast<DummyCharPointer> result() {
+        if (result == null) throw new IllegalStateException("no result");
+        return result;
+    }
+
+    /**
+     * Сброс незавершенного значения и результата
+     */
+    public void reset() {
+        while (depth > 0) {
+            values[depth].clear();
+            keys[depth] = null;
+            depth--;
+        }
+        result = null;
+    }
+
+    private void push(boolean object) {
+        if (depth + 1 == objects.length) {
+            var size = objects.length * 2;
+            values = Arrays.copyOf(values, size);
+            objects = Arrays.copyOf(objects, size);
+            keys = Arrays.copyOf(keys, size);
+        }
+
+        depth++;
+        objects[depth] = object;
+        if (values[depth] == null) values[depth] = new ArrayList<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> ImList<A> pop() {
+        var res = ImList.from((List<A>) (List<?>) values[depth]);
+        values[depth].clear();
+        keys[depth] = null;
+        depth--;
+        return res;
+    }
+
+    private void add(Ast<DummyCharPointer> value) {
+        if (depth == 0) {
+            result = value;
+        } else if (objects[depth]) {
+            values[depth].add(Ast.KeyValue.create(cachedKey(keys[depth]), value));
+        } else {
+            values[depth].add(value);
+        }
+    }
+
+    private Ast.StringAst<DummyCharPointer> cachedKey(String key) {
+        var cached = keyCache.get(key);
+        if (cached != null) return cached;
+
+        var res = Ast.StringAst.create(key);
+        if (keyCache.size() < KEY_CACHE_SIZE) keyCache.put(key, res);
+        return res;
+    }
+
+    @Override
+    public void startObject() {
+        push(true);
+    }
+
+    @Override
+    public void key(String key) {
+        keys[depth] = key;
+    }
+
+    @Override
+    public void endObject() {
+        add(Ast.ObjectAst.create(this.<Ast.KeyValue<DummyCharPointer>>pop()));
+    }
+
+    @Override
+    public void startArray() {
+        push(false);
+    }
+
+    @Override
+    public void endArray() {
+        add(Ast.ArrayAst.create(this.<Ast<DummyCharPointer>>pop()));
+    }
+
+    @Override
+    public void value(String value) {
+        add(Ast.StringAst.create(value));
+    }
+
+    @Override
+    public void value(int value) {
+        add(Ast.NumberAst.IntAst.create(value));
+    }
+
+    @Override
+    public void value(long value) {
+        add(Ast.NumberAst.LongAst.create(value));
+    }
+
+    @Override
+    public void value(BigInteger value) {
+        add(Ast.NumberAst.BigIntAst.create(value));
+    }
+
+    @Override
+    public void value(double value) {
+        add(Ast.NumberAst.DoubleAst.create(value));
+    }
+
+    @Override
+    public void value(boolean value) {
+        add(Ast.BooleanAst.create(value));
+    }
+
+    @Override
+    public void nullValue() {
+        add(Ast.NullAst.create());
+    }
+
+    @Override
+    public void identifier(String value) {
+        add(Ast.IdentAst.create(value));
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @param <S>     тип исходника
+     * @return результат парсинга
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       исходник закончился раньше значения
+     */
+    public static <S extends CharPointer<S>> Ast<DummyCharPointer> parse(S source, AstParser.ParserOptions options) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        var builder = new AstBuilder();
+        JsonEventParser.parse(source, options, builder);
+        return builder.result();
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<DummyCharPointer> parse(String source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var builder = new AstBuilder();
+        JsonEventParser.parse(source, builder);
+        return builder.result();
+    }
+
+    /**
+     * Парсинг json в кодировке UTF-8
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Ast<DummyCharPointer> parse(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var builder = new AstBuilder();
+        JsonEventParser.parse(source, builder);
+        return builder.result();
+    }
+}
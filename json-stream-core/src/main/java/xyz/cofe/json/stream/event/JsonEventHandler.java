@@ -0,0 +1,118 @@
+package xyz.cofe.json.stream.event;
+
+import java.math.BigInteger;
+
+/**
+ * Получатель событий разбора json (в духе SAX), дерево {@link xyz.cofe.json.stream.ast.Ast} не строится.
+ *
+ * <p>
+ * Все методы по умолчанию ничего не делают, достаточно переопределить нужные.
+ * Числа передаются без упаковки, в методы с примитивными типами.
+ * Целые числа по умолчанию передаются в более широкий метод: <code>int</code> - в {@link #value(long)},
+ * <code>long</code> - в {@link #value(double)}.
+ * </p>
+ *
+ * <pre>
+ * var sum = new long[1];
+ * JsonEventParser.parse("[1, 2, 3]", new JsonEventHandler() {
+ *     &#64;Override
+ *     public void value(int value) {
+ *         sum[0] += value;
+ *     }
+ * });
+ * </pre>
+ */
+public interface JsonEventHandler {
+    /**
+     * Начало объекта <code>{</code>
+     */
+    default void startObject() {}
+
+    /**
+     * Ключ свойства объекта, за ним следует значение свойства
+     *
+     * @param key ключ
+     */
+    default void key(String key) {}
+
+    /**
+     * Конец объекта <code>}</code>
+     */
+    default void endObject() {}
+
+    /**
+     * Начало массива <code>[</code>
+     */
+    default void startArray() {}
+
+    /**
+     * Конец массива <code>]</code>
+     */
+    default void endArray() {}
+
+    /**
+     * Строковое значение
+     *
+     * @param value значение
+     */
+    default void value(String value) {}
+
+    /**
+     * Целое число (32 бит), по умолчанию передается в {@link #value(long)}
+     *
+     * @param value значение
+     */
+    default void value(int value) {
+        value((long) value);
+    }
+
+    /**
+     * Целое число (64 бит), по умолчанию передается в {@link #value(double)}
+     *
+     * @param value значение
+     */
+    default void value(long value) {
+        value((double) value);
+    }
+
+    /**
+     * Большое целое число
+     *
+     * @param value значение
+     */
+    default void value(BigInteger value) {}
+
+    /**
+     * Дробное число
+     *
+     * @param value значение
+     */
+    default void value(double value) {}
+
+    /**
+     * Логическое значение
+     *
+     * @param value значение
+     */
+    default void value(boolean value) {}
+
+    /**
+     * Значение <code>null</code>
+     */
+    default void nullValue() {}
+
+    /**
+     * Идентификатор в качестве значения, если допускается {@link xyz.cofe.json.stream.ast.AstParser.ParserOptions}.
+     * По умолчанию передается как строка.
+     *
+     * @param value идентификатор
+     */
+    default void identifier(String value) {
+        value(value);
+    }
+
+    /**
+     * Завершено значение верхнего уровня
+     */
+    default void endValue() {}
+}
@@ -0,0 +1,317 @@
+package xyz.cofe.json.stream.event;
+
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.token.BigIntToken;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.Colon;
+import xyz.cofe.json.stream.token.Comma;
+import xyz.cofe.json.stream.token.DoubleToken;
+import xyz.cofe.json.stream.token.FalseToken;
+import xyz.cofe.json.stream.token.IdentifierToken;
+import xyz.cofe.json.stream.token.IntToken;
+import xyz.cofe.json.stream.token.LongToken;
+import xyz.cofe.json.stream.token.MLComment;
+import xyz.cofe.json.stream.token.NullToken;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.SLComment;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.StringToken;
+import xyz.cofe.json.stream.token.StructuralIndex;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.TrueToken;
+import xyz.cofe.json.stream.token.Utf8Pointer;
+import xyz.cofe.json.stream.token.Whitespace;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Разбор json с передачей событий в {@link JsonEventHandler}, лексемы передаются напрямую получателю,
+ * узлы {@link xyz.cofe.json.stream.ast.Ast} не создаются.
+ *
+ * <p>
+ * Синтаксис (идентификаторы, комментарии, завершающие запятые) - тот же, что и у {@link AstParser}
+ * с теми же {@link AstParser.ParserOptions}. Ошибки синтаксиса - {@link AstParser.JsonParseError}.
+ * </p>
+ *
+ * <p>
+ * Отличие: выключенные в настройках комментарии запрещены везде.
+ * {@link AstParser} после элемента массива принимает комментарий независимо от настроек,
+ * здесь <code>[ 1 /* c *&#47; ]</code> без {@link AstParser.ParserOptions#multiLineComment()} - ошибка.
+ * </p>
+ *
+ * <p>Не потокобезопасен</p>
+ *
+ * @param <S> тип исходника
+ */
+public final class JsonEventParser<S extends CharPointer<S>> {
+    private static final int ROOT = 0;
+    private static final int OBJECT_KEY = 1;
+    private static final int OBJECT_AFTER_KEY = 2;
+    private static final int OBJECT_VALUE = 3;
+    private static final int OBJECT_AFTER_VALUE = 4;
+    private static final int ARRAY_VALUE = 5;
+    private static final int ARRAY_AFTER_VALUE = 6;
+
+    private final AstParser.ParserOptions options;
+    private final JsonEventHandler handler;
+
+    private int[] states = new int[16];
+    private int depth;
+    private AstParser.Error<S> error;
+
+    /**
+     * Конструктор
+     *
+     * @param options настройки парсера
+     * @param handler получатель событий
+     */
+    public JsonEventParser(AstParser.ParserOptions options, JsonEventHandler handler) {
+        if (options == null) throw new IllegalArgumentException("options==null");
+        if (handler == null) throw new IllegalArgumentException("handler==null");
+        this.options = options;
+        this.handler = handler;
+    }
+
+    /**
+     * Конструктор с настройками по умолчанию
+     *
+     * @param handler получатель событий
+     */
+    public JsonEventParser(JsonEventHandler handler) {
+        this(new AstParser.ParserOptions(), handler);
+    }
+
+    /**
+     * Уровень вложенности, 0 - между значениями верхнего уровня
+     *
+     * @return уровень вложенности
+     */
+    public int getNestedLevel() {
+        return depth;
+    }
+
+    /**
+     * Сброс незавершенного значения и ошибки
+     */
+    public void reset() {
+        depth = 0;
+        error = null;
+    }
+
+    /**
+     * Очередная лексема
+     *
+     * @param token лексема
+     * @return true - лексема завершила значение верхнего уровня
+     * @throws AstParser.JsonParseError ошибка синтаксиса, повторяется для следующих лексем до {@link #reset()}
+     */
+    public boolean input(Token<S> token) {
+        if (token == null) throw new IllegalArgumentException("token==null");
+        if (error != null) throw new AstParser.JsonParseError(error);
+
+        if (token instanceof Whitespace<S>) return false;
+        if (token instanceof SLComment<S>) {
+            if (!options.singleLineComment()) throw unexpected(token);
+            return false;
+        }
+        if (token instanceof MLComment<S>) {
+            if (!options.multiLineComment()) throw unexpected(token);
+            return false;
+        }
+
+        switch (states[depth]) {
+            case ROOT -> {
+                if (token instanceof IdentifierToken<S> t) {
+                    if (!options.identAtRoot()) throw unexpected(token);
+                    handler.identifier(t.value());
+                    return valueDone();
+                }
+                return value(token);
+            }
+            case OBJECT_KEY -> {
+                if (token instanceof StringToken<S> t) {
+                    handler.key(t.value());
+                    states[depth] = OBJECT_AFTER_KEY;
+                    return false;
+                }
+                if (token instanceof IdentifierToken<S> t) {
+                    if (!options.identInObjectKey()) throw unexpected(token);
+                    handler.key(t.value());
+                    states[depth] = OBJECT_AFTER_KEY;
+                    return false;
+                }
+                if (token instanceof CloseParentheses<S>) return close(false);
+                throw unexpected(token);
+            }
+            case OBJECT_AFTER_KEY -> {
+                if (!(token instanceof Colon<S>)) throw unexpected(token);
+                states[depth] = OBJECT_VALUE;
+                return false;
+            }
+            case OBJECT_VALUE -> {
+                if (token instanceof IdentifierToken<S> t) {
+                    if (!options.identInObjectValue()) throw unexpected(token);
+                    handler.identifier(t.value());
+                    return valueDone();
+                }
+                return value(token);
+            }
+            case OBJECT_AFTER_VALUE -> {
+                if (token instanceof Comma<S>) {
+                    states[depth] = OBJECT_KEY;
+                    return false;
+                }
+                if (token instanceof CloseParentheses<S>) return close(false);
+                throw unexpected(token);
+            }
+            case ARRAY_VALUE -> {
+                if (token instanceof IdentifierToken<S> t) {
+                    if (!options.identInArrayValue()) throw unexpected(token);
+                    handler.identifier(t.value());
+                    return valueDone();
+                }
+                if (token instanceof CloseSquare<S>) return close(true);
+                return value(token);
+            }
+            default -> {
+                if (token instanceof Comma<S>) {
+                    states[depth] = ARRAY_VALUE;
+                    return false;
+                }
+                if (token instanceof CloseSquare<S>) return close(true);
+                throw unexpected(token);
+            }
+        }
+    }
+
+    /**
+     * Значение: скаляр или начало объекта/массива
+     */
+    private boolean value(Token<S> token) {
+        if (token instanceof StringToken<S> t) {
+            handler.value(t.value());
+        } else if (token instanceof IntToken<S> t) {
+            handler.value(t.value());
+        } else if (token instanceof DoubleToken<S> t) {
+            handler.value(t.value());
+        } else if (token instanceof LongToken<S> t) {
+            handler.value(t.value());
+        } else if (token instanceof BigIntToken<S> t) {
+            handler.value(t.value());
+        } else if (token instanceof TrueToken<S>) {
+            handler.value(true);
+        } else if (token instanceof FalseToken<S>) {
+            handler.value(false);
+        } else if (token instanceof NullToken<S>) {
+            handler.nullValue();
+        } else if (token instanceof OpenParentheses<S>) {
+            push(OBJECT_KEY);
+            handler.startObject();
+            return false;
+        } else if (token instanceof OpenSquare<S>) {
+            push(ARRAY_VALUE);
+            handler.startArray();
+            return false;
+        } else {
+            throw unexpected(token);
+        }
+        return valueDone();
+    }
+
+    private void push(int state) {
+        if (depth + 1 == states.length) states = Arrays.copyOf(states, states.length * 2);
+        states[++depth] = state;
+    }
+
+    private boolean close(boolean array) {
+        depth--;
+        if (array) {
+            handler.endArray();
+        } else {
+            handler.endObject();
+        }
+        return valueDone();
+    }
+
+    /**
+     * Значение завершено, переход в состояние после значения
+     */
+    private boolean valueDone() {
+        switch (states[depth]) {
+            case OBJECT_VALUE -> states[depth] = OBJECT_AFTER_VALUE;
+            case ARRAY_VALUE -> states[depth] = ARRAY_AFTER_VALUE;
+            default -> {
+                handler.endValue();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AstParser.JsonParseError unexpected(Token<S> token) {
+        var at = token.begin().lineColumn().map(lc -> " at " + lc).orElse("");
+        error = new AstParser.Error<>("unexpected lexem " + token.getClass().getSimpleName() + at, token.begin());
+        return new AstParser.JsonParseError(error);
+    }
+
+    /**
+     * Разбор одного значения верхнего уровня, лексемы после значения не запрашиваются
+     *
+     * @param tokens лексемы
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       лексемы закончились раньше значения
+     */
+    public void parse(Iterator<? extends Token<S>> tokens) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        reset();
+
+        while (tokens.hasNext()) {
+            if (input(tokens.next())) return;
+        }
+
+        throw new AstParser.NoResult(new AstParser.Error<S>("unexpected end of input, nested level " + depth));
+    }
+
+    /**
+     * Разбор одного значения верхнего уровня
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @param handler получатель событий
+     * @param <S>     тип исходника
+     */
+    public static <S extends CharPointer<S>> void parse(S source, AstParser.ParserOptions options, JsonEventHandler handler) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        if (handler == null) throw new IllegalArgumentException("handler==null");
+        Tokenizer<S> tokenizer = options.configure(Tokenizer.<S>defaultTokenizer());
+        new JsonEventParser<S>(options, handler).parse(tokenizer.iterator(source));
+    }
+
+    /**
+     * Разбор одного значения верхнего уровня
+     *
+     * @param source  исходник
+     * @param handler получатель событий
+     */
+    public static void parse(String source, JsonEventHandler handler) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        parse(new StringPointer(source, 0), new AstParser.ParserOptions(), handler);
+    }
+
+    /**
+     * Разбор одного значения верхнего уровня в кодировке UTF-8, лексемы строятся по {@link StructuralIndex}
+     *
+     * @param source  исходник
+     * @param handler получатель событий
+     */
+    public static void parse(byte[] source, JsonEventHandler handler) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        new JsonEventParser<Utf8Pointer>(handler).parse(StructuralIndex.of(source).tokens());
+    }
+}
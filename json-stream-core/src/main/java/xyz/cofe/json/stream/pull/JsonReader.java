@@ -0,0 +1,530 @@
+package xyz.cofe.json.stream.pull;
+
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.token.BigIntToken;
+import xyz.cofe.json.stream.token.BracketScanner;
+import xyz.cofe.json.stream.token.ByteTokenizer;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.Colon;
+import xyz.cofe.json.stream.token.Comma;
+import xyz.cofe.json.stream.token.DoubleToken;
+import xyz.cofe.json.stream.token.FalseToken;
+import xyz.cofe.json.stream.token.IdentifierToken;
+import xyz.cofe.json.stream.token.IntToken;
+import xyz.cofe.json.stream.token.LongToken;
+import xyz.cofe.json.stream.token.MLComment;
+import xyz.cofe.json.stream.token.NullToken;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.ReaderPointer;
+import xyz.cofe.json.stream.token.SLComment;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.StringToken;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.TrueToken;
+import xyz.cofe.json.stream.token.Utf8Pointer;
+import xyz.cofe.json.stream.token.Whitespace;
+
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Курсор по json (в духе StAX): значения читаются по одному, по запросу вызывающего кода
+ *
+ * <pre>
+ * var reader = JsonReader.of("{ \"id\": 1, \"items\": [ ... ], \"name\": \"abc\" }");
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     switch (reader.nextKey()) {
+ *         case "id" -&gt; id = reader.nextInt();
+ *         case "name" -&gt; name = reader.nextString();
+ *         default -&gt; reader.skipValue();
+ *     }
+ * }
+ * reader.endObject();
+ * </pre>
+ *
+ * <p>
+ * {@link #skipValue()} пропускает вложенные объекты и массивы по скобкам ({@link BracketScanner}),
+ * не разбирая их на лексемы и не декодируя строки и числа.
+ * </p>
+ *
+ * <p>
+ * Синтаксис (идентификаторы, комментарии, завершающие запятые) - как у {@link AstParser}
+ * с теми же {@link AstParser.ParserOptions}. Ошибки синтаксиса и несоответствие типа значения -
+ * {@link AstParser.JsonParseError}.
+ * </p>
+ *
+ * <p>Не потокобезопасен</p>
+ *
+ * @param <S> тип исходника
+ */
+public final class JsonReader<S extends CharPointer<S>> {
+    /**
+     * Вид очередного элемента
+     */
+    public enum Kind {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        KEY,
+        STRING,
+        IDENTIFIER,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private interface Lexer<S extends CharPointer<S>> {
+        Optional<? extends Token<S>> next(S ptr);
+
+        /**
+         * Указатель после пробелов и комментариев, которые пропускает {@link #next(CharPointer)}
+         */
+        S afterTrivia(S ptr);
+    }
+
+    private static final int ROOT = 0;
+    private static final int ARRAY_FIRST = 1;
+    private static final int ARRAY_NEXT = 2;
+    private static final int OBJECT_FIRST = 3;
+    private static final int OBJECT_NEXT = 4;
+    private static final int OBJECT_COLON = 5;
+
+    private final AstParser.ParserOptions options;
+    private final Lexer<S> lexer;
+    private S ptr;
+
+    private int[] states = new int[16];
+    private int depth;
+
+    private Kind kind;
+    private Token<S> token;
+
+    private JsonReader(S source, AstParser.ParserOptions options, Lexer<S> lexer) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        this.ptr = source;
+        this.options = options;
+        this.lexer = lexer;
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param source  исходник
+     * @param options настройки синтаксиса
+     */
+    public JsonReader(S source, AstParser.ParserOptions options) {
+        this(source, options, lexer(options));
+    }
+
+    /**
+     * Конструктор, синтаксис по умолчанию
+     *
+     * @param source исходник
+     */
+    public JsonReader(S source) {
+        this(source, new AstParser.ParserOptions());
+    }
+
+    private static <S extends CharPointer<S>> Lexer<S> lexer(AstParser.ParserOptions options) {
+        if (options == null) throw new IllegalArgumentException("options==null");
+        Tokenizer<S> tokenizer = options.configure(Tokenizer.<S>defaultTokenizer());
+        return new Lexer<>() {
+            @Override
+            public Optional<? extends Token<S>> next(S ptr) {
+                return tokenizer.next(ptr);
+            }
+
+            @Override
+            public S afterTrivia(S ptr) {
+                return tokenizer.afterTrivia(ptr);
+            }
+        };
+    }
+
+    private static Lexer<Utf8Pointer> lexer(ByteTokenizer tokenizer) {
+        return new Lexer<>() {
+            @Override
+            public Optional<? extends Token<Utf8Pointer>> next(Utf8Pointer ptr) {
+                return tokenizer.next(ptr);
+            }
+
+            @Override
+            public Utf8Pointer afterTrivia(Utf8Pointer ptr) {
+                return tokenizer.afterTrivia(ptr);
+            }
+        };
+    }
+
+    /**
+     * Курсор по строке
+     *
+     * @param source исходник
+     * @return курсор
+     */
+    public static JsonReader<StringPointer> of(String source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return new JsonReader<>(new StringPointer(source, 0));
+    }
+
+    /**
+     * Курсор по потоку символов, поток читается порциями
+     *
+     * @param source исходник
+     * @return курсор
+     */
+    public static JsonReader<ReaderPointer> of(Reader source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return new JsonReader<>(new ReaderPointer(source));
+    }
+
+    /**
+     * Курсор по json в кодировке UTF-8, лексемы распознаются {@link ByteTokenizer}
+     *
+     * @param source исходник
+     * @return курсор
+     */
+    public static JsonReader<Utf8Pointer> of(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var options = new AstParser.ParserOptions();
+        return new JsonReader<>(Utf8Pointer.of(source), options, lexer(options.configure(new ByteTokenizer())));
+    }
+
+    /**
+     * Уровень вложенности
+     *
+     * @return уровень вложенности, 0 - верхний уровень
+     */
+    public int getNestedLevel() {
+        return depth;
+    }
+
+    /**
+     * Текущее расположение: начало очередного элемента, если он уже был просмотрен {@link #peek()}
+     *
+     * @return указатель
+     */
+    public S pointer() {
+        return token != null ? token.begin() : ptr;
+    }
+
+    //region просмотр
+
+    /**
+     * Вид очередного элемента, элемент не извлекается
+     *
+     * @return вид элемента
+     */
+    public Kind peek() {
+        if (kind != null) return kind;
+
+        var t = lex();
+        switch (states[depth]) {
+            case ROOT -> {
+                if (t == null) return peeked(Kind.END_DOCUMENT, null);
+                return value(t, options.identAtRoot());
+            }
+            case ARRAY_FIRST -> {
+                if (need(t) instanceof CloseSquare<S>) return peeked(Kind.END_ARRAY, t);
+                return value(t, options.identInArrayValue());
+            }
+            case ARRAY_NEXT -> {
+                if (need(t) instanceof CloseSquare<S>) return peeked(Kind.END_ARRAY, t);
+                if (!(t instanceof Comma<S>)) throw unexpected(t);
+                t = need(lex());
+                if (t instanceof CloseSquare<S>) return peeked(Kind.END_ARRAY, t);
+                return value(t, options.identInArrayValue());
+            }
+            case OBJECT_FIRST -> {
+                if (need(t) instanceof CloseParentheses<S>) return peeked(Kind.END_OBJECT, t);
+                return key(t);
+            }
+            case OBJECT_NEXT -> {
+                if (need(t) instanceof CloseParentheses<S>) return peeked(Kind.END_OBJECT, t);
+                if (!(t instanceof Comma<S>)) throw unexpected(t);
+                t = need(lex());
+                if (t instanceof CloseParentheses<S>) return peeked(Kind.END_OBJECT, t);
+                return key(t);
+            }
+            default -> {
+                if (!(need(t) instanceof Colon<S>)) throw unexpected(t);
+                return value(need(lex()), options.identInObjectValue());
+            }
+        }
+    }
+
+    /**
+     * Есть еще элементы в текущем объекте/массиве (или значения верхнего уровня)
+     *
+     * @return true - есть элементы
+     */
+    public boolean hasNext() {
+        var k = peek();
+        return k != Kind.END_OBJECT && k != Kind.END_ARRAY && k != Kind.END_DOCUMENT;
+    }
+
+    private Kind peeked(Kind kind, Token<S> token) {
+        this.kind = kind;
+        this.token = token;
+        return kind;
+    }
+
+    private Kind value(Token<S> t, boolean ident) {
+        if (t instanceof StringToken<S>) return peeked(Kind.STRING, t);
+        if (t instanceof IntToken<S> || t instanceof LongToken<S> || t instanceof DoubleToken<S> || t instanceof BigIntToken<S>) {
+            return peeked(Kind.NUMBER, t);
+        }
+        if (t instanceof TrueToken<S> || t instanceof FalseToken<S>) return peeked(Kind.BOOLEAN, t);
+        if (t instanceof NullToken<S>) return peeked(Kind.NULL, t);
+        if (t instanceof OpenParentheses<S>) return peeked(Kind.BEGIN_OBJECT, t);
+        if (t instanceof OpenSquare<S>) return peeked(Kind.BEGIN_ARRAY, t);
+        if (ident && t instanceof IdentifierToken<S>) return peeked(Kind.IDENTIFIER, t);
+        throw unexpected(t);
+    }
+
+    private Kind key(Token<S> t) {
+        if (t instanceof StringToken<S>) return peeked(Kind.KEY, t);
+        if (options.identInObjectKey() && t instanceof IdentifierToken<S>) return peeked(Kind.KEY, t);
+        throw unexpected(t);
+    }
+
+    /**
+     * Очередная значащая лексема или null в конце исходника
+     */
+    private Token<S> lex() {
+        while (true) {
+            var t = lexer.next(ptr);
+            if (t.isEmpty()) {
+                // пусто и после пропущенных пробелов и комментариев ничего нет - конец исходника
+                var rest = lexer.afterTrivia(ptr);
+                if (rest.charAt(0) >= 0) throw error("can't parse lexem", rest);
+                return null;
+            }
+
+            Token<S> tok = t.get();
+            ptr = tok.end();
+            if (tok instanceof Whitespace<S>) continue;
+            if (tok instanceof SLComment<S>) {
+                if (!options.singleLineComment()) throw unexpected(tok);
+                continue;
+            }
+            if (tok instanceof MLComment<S>) {
+                if (!options.multiLineComment()) throw unexpected(tok);
+                continue;
+            }
+            return tok;
+        }
+    }
+
+    private Token<S> need(Token<S> t) {
+        if (t == null) throw error("unexpected end of input", ptr);
+        return t;
+    }
+
+    //endregion
+    //region извлечение
+
+    private Token<S> take(Kind expect) {
+        var k = peek();
+        if (k != expect) throw error("expected " + expect + " but was " + k, pointer());
+        var t = token;
+        kind = null;
+        token = null;
+        return t;
+    }
+
+    /**
+     * Значение извлечено, переход к следующему элементу текущего уровня
+     */
+    private void consumed() {
+        switch (states[depth]) {
+            case ARRAY_FIRST -> states[depth] = ARRAY_NEXT;
+            case OBJECT_COLON -> states[depth] = OBJECT_NEXT;
+            default -> {
+            }
+        }
+    }
+
+    private void push(int state) {
+        consumed();
+        if (depth + 1 == states.length) states = Arrays.copyOf(states, states.length * 2);
+        states[++depth] = state;
+    }
+
+    /**
+     * Начало объекта <code>{</code>
+     */
+    public void beginObject() {
+        take(Kind.BEGIN_OBJECT);
+        push(OBJECT_FIRST);
+    }
+
+    /**
+     * Конец объекта <code>}</code>
+     */
+    public void endObject() {
+        take(Kind.END_OBJECT);
+        depth--;
+    }
+
+    /**
+     * Начало массива <code>[</code>
+     */
+    public void beginArray() {
+        take(Kind.BEGIN_ARRAY);
+        push(ARRAY_FIRST);
+    }
+
+    /**
+     * Конец массива <code>]</code>
+     */
+    public void endArray() {
+        take(Kind.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Ключ свойства объекта
+     *
+     * @return ключ
+     */
+    public String nextKey() {
+        var t = take(Kind.KEY);
+        states[depth] = OBJECT_COLON;
+        return t instanceof StringToken<S> s ? s.value() : ((IdentifierToken<S>) t).value();
+    }
+
+    /**
+     * Строка или идентификатор
+     *
+     * @return значение
+     */
+    public String nextString() {
+        if (peek() == Kind.IDENTIFIER) {
+            var t = (IdentifierToken<S>) take(Kind.IDENTIFIER);
+            consumed();
+            return t.value();
+        }
+        var t = (StringToken<S>) take(Kind.STRING);
+        consumed();
+        return t.value();
+    }
+
+    /**
+     * Число
+     *
+     * @return {@link Integer}, {@link Long}, {@link Double} или {@link BigInteger}
+     */
+    public Number nextNumber() {
+        var t = take(Kind.NUMBER);
+        consumed();
+        if (t instanceof IntToken<S> n) return n.value();
+        if (t instanceof LongToken<S> n) return n.value();
+        if (t instanceof DoubleToken<S> n) return n.value();
+        return ((BigIntToken<S>) t).value();
+    }
+
+    /**
+     * Целое число (32 бит)
+     *
+     * @return значение
+     */
+    public int nextInt() {
+        var begin = peek() == Kind.NUMBER ? token.begin() : pointer();
+        var n = nextNumber();
+        if (n instanceof Integer i) return i;
+        if (n instanceof Long l && l == l.intValue()) return l.intValue();
+        throw error("expected int but was " + n, begin);
+    }
+
+    /**
+     * Целое число (64 бит)
+     *
+     * @return значение
+     */
+    public long nextLong() {
+        var begin = peek() == Kind.NUMBER ? token.begin() : pointer();
+        var n = nextNumber();
+        if (n instanceof Integer || n instanceof Long) return n.longValue();
+        if (n instanceof BigInteger b && b.bitLength() < 64) return b.longValue();
+        throw error("expected long but was " + n, begin);
+    }
+
+    /**
+     * Дробное число
+     *
+     * @return значение
+     */
+    public double nextDouble() {
+        return nextNumber().doubleValue();
+    }
+
+    /**
+     * Логическое значение
+     *
+     * @return значение
+     */
+    public boolean nextBoolean() {
+        var t = take(Kind.BOOLEAN);
+        consumed();
+        return t instanceof TrueToken<S>;
+    }
+
+    /**
+     * Значение <code>null</code>
+     */
+    public void nextNull() {
+        take(Kind.NULL);
+        consumed();
+    }
+
+    /**
+     * Пропуск очередного значения. Для ключа пропускается ключ и его значение.
+     *
+     * <p>
+     * Вложенные объекты и массивы пропускаются по скобкам, без разбора на лексемы;
+     * синтаксис внутри пропущенного значения не проверяется.
+     * </p>
+     */
+    public void skipValue() {
+        var k = peek();
+        switch (k) {
+            case KEY -> {
+                nextKey();
+                skipValue();
+            }
+            case BEGIN_OBJECT, BEGIN_ARRAY -> {
+                var begin = token;
+                kind = null;
+                token = null;
+                ptr = BracketScanner.skipNested(begin.end()).orElseThrow(() -> error("unexpected end of input", begin.begin()));
+                consumed();
+            }
+            case END_OBJECT, END_ARRAY, END_DOCUMENT -> throw error("can't skip " + k, pointer());
+            default -> {
+                take(k);
+                consumed();
+            }
+        }
+    }
+
+    //endregion
+
+    private AstParser.JsonParseError unexpected(Token<S> token) {
+        return error("unexpected lexem " + token.getClass().getSimpleName(), token.begin());
+    }
+
+    private AstParser.JsonParseError error(String message, S position) {
+        var at = position.lineColumn().map(lc -> " at " + lc).orElse("");
+        return new AstParser.JsonParseError(new AstParser.Error<>(message + at, position));
+    }
+}
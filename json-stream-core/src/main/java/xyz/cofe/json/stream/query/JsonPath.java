@@ -0,0 +1,249 @@
+package xyz.cofe.json.stream.query;
+
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.token.CharPointer;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Путь к значениям в json, подмножество JSONPath:
+ *
+ * <ul>
+ *     <li><code>$</code> - корень</li>
+ *     <li><code>.name</code>, <code>['name']</code>, <code>["name"]</code> - свойство объекта</li>
+ *     <li><code>[2]</code> - элемент массива</li>
+ *     <li><code>.*</code>, <code>[*]</code> - все свойства объекта или все элементы массива</li>
+ * </ul>
+ *
+ * <pre>
+ * var ids = JsonPath.compile("$.items[*].id");
+ * </pre>
+ *
+ * <p>
+ * Каждый шаг - ровно один уровень вложенности, рекурсивный спуск <code>..</code> и фильтры не поддерживаются.
+ * </p>
+ *
+ * @param steps шаги пути
+ * @see PathParser
+ */
+public record JsonPath(ImList<Step> steps) {
+    public JsonPath {
+        if (steps == null) throw new IllegalArgumentException("steps==null");
+    }
+
+    /**
+     * Шаг пути
+     */
+    public sealed interface Step {
+        /**
+         * Свойство объекта
+         *
+         * @param name имя свойства
+         */
+        record Key(String name) implements Step {
+            public Key {
+                if (name == null) throw new IllegalArgumentException("name==null");
+            }
+
+            @Override
+            public String toString() {
+                return "['" + name.replace("\\", "\\\\").replace("'", "\\'") + "']";
+            }
+        }
+
+        /**
+         * Элемент массива
+         *
+         * @param index индекс
+         */
+        record Index(int index) implements Step {
+            public Index {
+                if (index < 0) throw new IllegalArgumentException("index<0");
+            }
+
+            @Override
+            public String toString() {
+                return "[" + index + "]";
+            }
+        }
+
+        /**
+         * Любое свойство или элемент
+         */
+        record Any() implements Step {
+            @Override
+            public String toString() {
+                return "[*]";
+            }
+        }
+
+        /**
+         * Проверка свойства объекта
+         *
+         * @param key имя свойства
+         * @return true - подходит
+         */
+        default boolean matchKey(String key) {
+            return this instanceof Any || (this instanceof Key k && k.name().equals(key));
+        }
+
+        /**
+         * Проверка элемента массива
+         *
+         * @param index индекс
+         * @return true - подходит
+         */
+        default boolean matchIndex(int index) {
+            return this instanceof Any || (this instanceof Index i && i.index() == index);
+        }
+    }
+
+    /**
+     * Разбор пути
+     *
+     * @param path путь, например <code>$.items[*].id</code>
+     * @return путь
+     * @throws IllegalArgumentException ошибка синтаксиса пути
+     */
+    public static JsonPath compile(String path) {
+        if (path == null) throw new IllegalArgumentException("path==null");
+
+        var p = path.trim();
+        if (!p.startsWith("$")) throw bad(path, 0, "expected $");
+
+        var steps = new ArrayList<Step>();
+        var i = 1;
+        while (i < p.length()) {
+            var c = p.charAt(i);
+            if (c == '.') {
+                i++;
+                if (i < p.length() && p.charAt(i) == '.') throw bad(path, i, "recursive descent (..) is not supported");
+                if (i < p.length() && p.charAt(i) == '*') {
+                    steps.add(new Step.Any());
+                    i++;
+                    continue;
+                }
+
+                var from = i;
+                while (i < p.length() && p.charAt(i) != '.' && p.charAt(i) != '[') i++;
+                if (from == i) throw bad(path, from, "expected name");
+                steps.add(new Step.Key(p.substring(from, i)));
+            } else if (c == '[') {
+                i++;
+                if (i >= p.length()) throw bad(path, i, "expected ]");
+
+                var n = p.charAt(i);
+                if (n == '*') {
+                    steps.add(new Step.Any());
+                    i++;
+                } else if (n == '\'' || n == '"') {
+                    var name = new StringBuilder();
+                    i++;
+                    while (true) {
+                        if (i >= p.length()) throw bad(path, i, "string not closed");
+                        var s = p.charAt(i);
+                        if (s == n) break;
+                        if (s == '\\' && i + 1 < p.length()) {
+                            i++;
+                            s = p.charAt(i);
+                        }
+                        name.append(s);
+                        i++;
+                    }
+                    i++;
+                    steps.add(new Step.Key(name.toString()));
+                } else if (n >= '0' && n <= '9') {
+                    var from = i;
+                    while (i < p.length() && p.charAt(i) >= '0' && p.charAt(i) <= '9') i++;
+                    try {
+                        steps.add(new Step.Index(Integer.parseInt(p.substring(from, i))));
+                    } catch (NumberFormatException e) {
+                        throw bad(path, from, "index too large");
+                    }
+                } else {
+                    throw bad(path, i, "expected index, * or quoted name");
+                }
+
+                if (i >= p.length() || p.charAt(i) != ']') throw bad(path, i, "expected ]");
+                i++;
+            } else {
+                throw bad(path, i, "expected . or [");
+            }
+        }
+
+        return new JsonPath(ImList.from(steps));
+    }
+
+    private static IllegalArgumentException bad(String path, int at, String message) {
+        return new IllegalArgumentException("bad json path \"" + path + "\" at " + at + ": " + message);
+    }
+
+    /**
+     * Кол-во шагов
+     *
+     * @return кол-во шагов, 0 - корень
+     */
+    public int length() {
+        return steps.size();
+    }
+
+    /**
+     * Шаг пути
+     *
+     * @param index индекс шага
+     * @return шаг
+     */
+    public Step step(int index) {
+        return steps.get(index).orElseThrow(() -> new IndexOutOfBoundsException(index));
+    }
+
+    /**
+     * Выбор значений из готового дерева
+     *
+     * @param ast дерево
+     * @param <S> тип исходника
+     * @return значения в порядке следования в дереве
+     */
+    public <S extends CharPointer<S>> ImList<Ast<S>> select(Ast<S> ast) {
+        if (ast == null) throw new IllegalArgumentException("ast==null");
+        var res = new ArrayList<Ast<S>>();
+        select(ast, 0, res::add);
+        return ImList.from(res);
+    }
+
+    /**
+     * Выбор значений из поддерева, которое соответствует первым шагам пути
+     *
+     * @param ast      поддерево
+     * @param from     кол-во пройденных шагов
+     * @param consumer получатель значений
+     */
+    <S extends CharPointer<S>> void select(Ast<S> ast, int from, Consumer<? super Ast<S>> consumer) {
+        if (from == length()) {
+            consumer.accept(ast);
+            return;
+        }
+
+        var step = step(from);
+        if (ast instanceof Ast.ObjectAst<S> obj) {
+            for (var kv : obj.values()) {
+                if (step.matchKey(kv.key().value())) select(kv.value(), from + 1, consumer);
+            }
+        } else if (ast instanceof Ast.ArrayAst<S> arr) {
+            var index = 0;
+            for (var item : arr.values()) {
+                if (step.matchIndex(index)) select(item, from + 1, consumer);
+                index++;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder("$");
+        for (var step : steps) sb.append(step);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,373 @@
+package xyz.cofe.json.stream.query;
+
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.ast.AstStackParser;
+import xyz.cofe.json.stream.token.BigIntToken;
+import xyz.cofe.json.stream.token.BracketScanner;
+import xyz.cofe.json.stream.token.ByteTokenizer;
+import xyz.cofe.json.stream.token.CharPointer;
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.Colon;
+import xyz.cofe.json.stream.token.Comma;
+import xyz.cofe.json.stream.token.DoubleToken;
+import xyz.cofe.json.stream.token.FalseToken;
+import xyz.cofe.json.stream.token.IdentifierToken;
+import xyz.cofe.json.stream.token.IntToken;
+import xyz.cofe.json.stream.token.LongToken;
+import xyz.cofe.json.stream.token.MLComment;
+import xyz.cofe.json.stream.token.NullToken;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+import xyz.cofe.json.stream.token.SLComment;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.StringToken;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+import xyz.cofe.json.stream.token.TrueToken;
+import xyz.cofe.json.stream.token.Utf8Pointer;
+import xyz.cofe.json.stream.token.Whitespace;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Парсинг только тех значений, которые выбраны путями {@link JsonPath}.
+ *
+ * <pre>
+ * var ids = PathParser.query(json, "$.items[*].id").toIntList();
+ * </pre>
+ *
+ * <p>
+ * Объекты и массивы, в которые может вести хотя бы один путь, разбираются по лексемам без построения {@link Ast},
+ * остальные пропускаются быстрым поиском парной скобки ({@link BracketScanner}).
+ * {@link Ast} строится ({@link AstStackParser}) только для выбранных значений.
+ * </p>
+ *
+ * <p>
+ * Синтаксис пропущенных значений не проверяется.
+ * </p>
+ *
+ * <p>Не потокобезопасен</p>
+ *
+ * @param <S> тип исходника
+ */
+public final class PathParser<S extends CharPointer<S>> {
+    private final Function<S, ? extends Iterator<? extends Token<S>>> tokens;
+    private final AstParser.ParserOptions options;
+    private final JsonPath[] paths;
+
+    /**
+     * Пути длиной в заданное кол-во шагов, битовая маска по индексу пути
+     */
+    private final long[] complete;
+
+    private final AstStackParser<S> parser;
+    private Iterator<? extends Token<S>> it;
+
+    /**
+     * Конструктор
+     *
+     * @param tokens  лексемы начиная с указанной позиции
+     * @param options настройки парсера
+     * @param paths   пути, не более 64
+     */
+    public PathParser(Function<S, ? extends Iterator<? extends Token<S>>> tokens, AstParser.ParserOptions options, Iterable<JsonPath> paths) {
+        if (tokens == null) throw new IllegalArgumentException("tokens==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        if (paths == null) throw new IllegalArgumentException("paths==null");
+
+        var list = new ArrayList<JsonPath>();
+        for (var p : paths) {
+            if (p == null) throw new IllegalArgumentException("paths contains null");
+            list.add(p);
+        }
+        if (list.isEmpty()) throw new IllegalArgumentException("paths is empty");
+        if (list.size() > 64) throw new IllegalArgumentException("too many paths, max 64");
+
+        this.tokens = tokens;
+        this.options = new AstParser.ParserOptions(
+            options.identAtRoot(),
+            options.identInObjectKey(),
+            options.identInObjectValue(),
+            options.identInArrayValue(),
+            false,
+            options.singleLineComment(),
+            options.multiLineComment(),
+            options.skipTrivia()
+        );
+        this.paths = list.toArray(new JsonPath[0]);
+
+        var maxLength = 0;
+        for (var p : this.paths) maxLength = Math.max(maxLength, p.length());
+        this.complete = new long[maxLength + 1];
+        for (var i = 0; i < this.paths.length; i++) complete[this.paths[i].length()] |= 1L << i;
+
+        this.parser = new AstStackParser<>(this.options);
+    }
+
+    /**
+     * Парсинг, выбранные значения передаются получателю в порядке следования в исходнике
+     *
+     * @param source   исходник
+     * @param consumer получатель значений
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       исходник закончился раньше значения
+     */
+    public void parse(S source, Consumer<? super Ast<S>> consumer) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (consumer == null) throw new IllegalArgumentException("consumer==null");
+
+        it = tokens.apply(source);
+        try {
+            var all = paths.length == 64 ? -1L : (1L << paths.length) - 1;
+            value(next(), all, 0, true, consumer);
+        } finally {
+            it = null;
+        }
+    }
+
+    /**
+     * Парсинг
+     *
+     * @param source исходник
+     * @return выбранные значения в порядке следования в исходнике
+     */
+    public ImList<Ast<S>> parse(S source) {
+        var res = new ArrayList<Ast<S>>();
+        parse(source, res::add);
+        return ImList.from(res);
+    }
+
+    /**
+     * Парсинг
+     *
+     * @param source исходник
+     * @return выбранные значения
+     */
+    public QuerySetFin<S> query(S source) {
+        return new QuerySetFin<>(parse(source));
+    }
+
+    private static ImList<JsonPath> compile(String... paths) {
+        if (paths == null) throw new IllegalArgumentException("paths==null");
+        var res = new ArrayList<JsonPath>();
+        for (var p : paths) res.add(JsonPath.compile(p));
+        return ImList.from(res);
+    }
+
+    /**
+     * Выбор значений из json
+     *
+     * @param source исходник
+     * @param paths  пути, например <code>$.items[*].id</code>
+     * @return выбранные значения
+     */
+    public static QuerySetFin<StringPointer> query(String source, String... paths) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var options = new AstParser.ParserOptions();
+        Tokenizer<StringPointer> tokenizer = options.configure(Tokenizer.<StringPointer>defaultTokenizer());
+        return new PathParser<StringPointer>(tokenizer::iterator, options, compile(paths)).query(new StringPointer(source, 0));
+    }
+
+    /**
+     * Выбор значений из json в кодировке UTF-8
+     *
+     * @param source исходник
+     * @param paths  пути
+     * @return выбранные значения
+     */
+    public static QuerySetFin<Utf8Pointer> query(byte[] source, String... paths) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return queryUtf8(Utf8Pointer.of(source), paths);
+    }
+
+    /**
+     * Выбор значений из json файла в кодировке UTF-8, файл отображается в память и не копируется в кучу
+     *
+     * @param file  исходник
+     * @param paths пути
+     * @return выбранные значения
+     */
+    public static QuerySetFin<Utf8Pointer> query(Path file, String... paths) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        return queryUtf8(Utf8Pointer.map(file), paths);
+    }
+
+    private static QuerySetFin<Utf8Pointer> queryUtf8(Utf8Pointer source, String... paths) {
+        var options = new AstParser.ParserOptions();
+        var tokenizer = options.configure(new ByteTokenizer());
+        return new PathParser<Utf8Pointer>(tokenizer::iterator, options, compile(paths)).query(source);
+    }
+
+    //region обход
+
+    /**
+     * Значение
+     *
+     * @param first    первая лексема значения
+     * @param mask     пути, первые depth шагов которых ведут к этому значению
+     * @param depth    уровень вложенности
+     * @param inObject значение свойства объекта (иначе элемент массива или корень)
+     */
+    private void value(Token<S> first, long mask, int depth, boolean inObject, Consumer<? super Ast<S>> consumer) {
+        var full = depth < complete.length ? mask & complete[depth] : 0L;
+        if (full != 0) {
+            var ast = build(first, depth, inObject);
+            consumer.accept(ast);
+
+            // более длинные пути, ведущие внутрь выбранного значения
+            var rest = mask & ~full;
+            for (var i = 0; rest != 0; i++, rest >>>= 1) {
+                if ((rest & 1) != 0) paths[i].select(ast, depth, consumer);
+            }
+            return;
+        }
+
+        if (first instanceof OpenParentheses<S> open) {
+            if (mask == 0) {
+                skip(open);
+            } else {
+                object(mask, depth, consumer);
+            }
+        } else if (first instanceof OpenSquare<S> open) {
+            if (mask == 0) {
+                skip(open);
+            } else {
+                array(mask, depth, consumer);
+            }
+        } else if (!scalar(first, depth, inObject)) {
+            throw unexpected(first);
+        }
+    }
+
+    private void object(long mask, int depth, Consumer<? super Ast<S>> consumer) {
+        while (true) {
+            var t = next();
+            if (t instanceof CloseParentheses<S>) return;
+
+            String key;
+            if (t instanceof StringToken<S> s) {
+                key = s.value();
+            } else if (t instanceof IdentifierToken<S> id && options.identInObjectKey()) {
+                key = id.value();
+            } else {
+                throw unexpected(t);
+            }
+
+            var colon = next();
+            if (!(colon instanceof Colon<S>)) throw unexpected(colon);
+
+            var childMask = 0L;
+            for (long m = mask, i = 0; m != 0; i++, m >>>= 1) {
+                if ((m & 1) != 0 && paths[(int) i].step(depth).matchKey(key)) childMask |= 1L << i;
+            }
+            value(next(), childMask, depth + 1, true, consumer);
+
+            var sep = next();
+            if (sep instanceof CloseParentheses<S>) return;
+            if (!(sep instanceof Comma<S>)) throw unexpected(sep);
+        }
+    }
+
+    private void array(long mask, int depth, Consumer<? super Ast<S>> consumer) {
+        var index = 0;
+        while (true) {
+            var t = next();
+            if (t instanceof CloseSquare<S>) return;
+
+            var childMask = 0L;
+            for (long m = mask, i = 0; m != 0; i++, m >>>= 1) {
+                if ((m & 1) != 0 && paths[(int) i].step(depth).matchIndex(index)) childMask |= 1L << i;
+            }
+            value(t, childMask, depth + 1, false, consumer);
+            index++;
+
+            var sep = next();
+            if (sep instanceof CloseSquare<S>) return;
+            if (!(sep instanceof Comma<S>)) throw unexpected(sep);
+        }
+    }
+
+    /**
+     * Построение выбранного значения
+     */
+    private Ast<S> build(Token<S> first, int depth, boolean inObject) {
+        if (first instanceof IdentifierToken<S> id) {
+            if (!identAllowed(depth, inObject)) throw unexpected(first);
+            return new Ast.IdentAst<>(id);
+        }
+        if (!(first instanceof OpenParentheses<S> || first instanceof OpenSquare<S> || scalar(first, depth, inObject))) {
+            throw unexpected(first);
+        }
+
+        parser.reset();
+        var res = parser.input(first);
+        while (res.isEmpty()) {
+            if (!it.hasNext()) throw endOfInput();
+            res = parser.input(it.next());
+        }
+        return res.get();
+    }
+
+    private void skip(Token<S> open) {
+        var after = BracketScanner.skipNested(open.end()).orElseThrow(this::endOfInput);
+        it = tokens.apply(after);
+    }
+
+    /**
+     * Проверка скалярного значения
+     */
+    private boolean scalar(Token<S> token, int depth, boolean inObject) {
+        if (token instanceof IdentifierToken<S>) return identAllowed(depth, inObject);
+        return token instanceof StringToken<S>
+            || token instanceof IntToken<S>
+            || token instanceof LongToken<S>
+            || token instanceof BigIntToken<S>
+            || token instanceof DoubleToken<S>
+            || token instanceof TrueToken<S>
+            || token instanceof FalseToken<S>
+            || token instanceof NullToken<S>;
+    }
+
+    private boolean identAllowed(int depth, boolean inObject) {
+        if (depth == 0) return options.identAtRoot();
+        return inObject ? options.identInObjectValue() : options.identInArrayValue();
+    }
+
+    /**
+     * Очередная значимая лексема
+     */
+    private Token<S> next() {
+        while (it.hasNext()) {
+            Token<S> t = it.next();
+            if (t instanceof Whitespace<S>) continue;
+            if (t instanceof SLComment<S>) {
+                if (!options.singleLineComment()) throw unexpected(t);
+                continue;
+            }
+            if (t instanceof MLComment<S>) {
+                if (!options.multiLineComment()) throw unexpected(t);
+                continue;
+            }
+            return t;
+        }
+        throw endOfInput();
+    }
+
+    private AstParser.NoResult endOfInput() {
+        return new AstParser.NoResult(new AstParser.Error<S>("unexpected end of input"));
+    }
+
+    private AstParser.JsonParseError unexpected(Token<S> token) {
+        var at = token.begin().lineColumn().map(lc -> " at " + lc).orElse("");
+        return new AstParser.JsonParseError(new AstParser.Error<>("unexpected lexem " + token.getClass().getSimpleName() + at, token.begin()));
+    }
+
+    //endregion
+}
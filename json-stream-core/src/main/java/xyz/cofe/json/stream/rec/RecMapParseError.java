@@ -1,6 +1,10 @@
 package xyz.cofe.json.stream.rec;
 
 import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.token.LineColumn;
+
+import java.util.Optional;
 
 public class RecMapParseError extends RecMapError {
     private final ImList<RecMapper.ParseStack> stack;
@@ -38,4 +42,45 @@ public class RecMapParseError extends RecMapError {
         super(cause);
         this.stack = stack==null ? ImList.of() : stack;
     }
+
+    private static Ast<?> astOf(RecMapper.ParseStack item) {
+        if (item instanceof RecMapper.ParseStack.parseAstType s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.imListParse<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.listParse<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.optionalParse<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.tryParse<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.parseAstClass<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.parseSealedInterface<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.parseSubclass<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.parseRecord<?> s) return s.objAst();
+        if (item instanceof RecMapper.ParseStack.parseEnum<?> s) return s.ast();
+        if (item instanceof RecMapper.ParseStack.fieldDeserialization s) return s.ast();
+        return null;
+    }
+
+    /**
+     * Строка и колонка ближайшего к ошибке узла json, вычисляются по требованию
+     *
+     * @return строка и колонка или пусто, если исходник не известен
+     */
+    public Optional<LineColumn> lineColumn() {
+        for (var item : stack) {
+            var ast = astOf(item);
+            if (ast == null) continue;
+
+            var begin = ast.sourceBegin();
+            if (begin == null) continue;
+
+            var lc = begin.lineColumn();
+            if (lc.isPresent()) return lc;
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String getMessage() {
+        var message = super.getMessage();
+        var lc = lineColumn();
+        return lc.isPresent() ? message + " at " + lc.get() : message;
+    }
 }
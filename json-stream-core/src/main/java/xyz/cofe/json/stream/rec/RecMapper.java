@@ -5,10 +5,14 @@ import xyz.cofe.coll.im.ImList;
 import xyz.cofe.coll.im.Result;
 import xyz.cofe.json.stream.ast.Ast;
 import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.ast.AstStream;
 import xyz.cofe.json.stream.ast.AstWriter;
+import xyz.cofe.json.stream.event.AstBuilder;
 import xyz.cofe.json.stream.token.CharPointer;
 import xyz.cofe.json.stream.token.DummyCharPointer;
+import xyz.cofe.json.stream.token.ReaderPointer;
 
+import java.io.Reader;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
@@ -20,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static xyz.cofe.coll.im.Result.error;
 import static xyz.cofe.coll.im.Result.ok;
@@ -542,6 +547,7 @@ public class RecMapper {
     public sealed interface ParseStack {
         record parseAstType(Ast<?> ast, Type type) implements ParseStack {}
         record parseStringType(String json, Type type) implements ParseStack {}
+        record parseReaderType(Reader json, Type type) implements ParseStack {}
         record imListParse<T>(Ast.ArrayAst<?> ast, BiFunction<Ast<?>, ImList<ParseStack>, T> itemParse)
             implements ParseStack {}
         record listParse<T>(Ast.ArrayAst<?> ast, BiFunction<Ast<?>, ImList<ParseStack>, T> itemParse)
@@ -553,6 +559,7 @@ public class RecMapper {
         record parseSealedInterface<T>(Ast<?> ast, Class<T> cls) implements ParseStack {}
         record parseSubclass<T>(Ast<?> ast, Class<T> subClass) implements ParseStack {}
         record parseRecord<T>(Ast.ObjectAst<?> objAst, Class<T> recordClass) implements ParseStack {}
+        record objectIndex(Ast.ObjectAst.Index<?> index) implements ParseStack {}
         record parseEnum<T>(Ast<?> ast, Class<T> enumCls) implements ParseStack {}
         record parserOf(Type type) implements ParseStack {}
         record fieldDeserialization(Ast<?> ast, RecordComponent field) implements ParseStack {}
@@ -612,6 +619,64 @@ public class RecMapper {
         return parse(jsnObj, type, stack);
     }
 
+    /**
+     * Парсинг json из потока символов, поток читается порциями.
+     * Промежуточное дерево строится без расположения в исходнике ({@link AstBuilder}),
+     * поэтому прочитанные порции потока не удерживаются.
+     *
+     * @param json поток json
+     * @param type целевой тип
+     * @param <T>  результат парсинга
+     * @return результат парсинга
+     */
+    public <T> T parse(Reader json, Type type) {
+        return parse(json, type, ImList.of());
+    }
+
+    protected <T> T parse(Reader json, Type type, ImList<ParseStack> stack) {
+        if (json == null) throw new IllegalArgumentException("json==null");
+        if (type == null) throw new IllegalArgumentException("type==null");
+        if (stack == null) throw new IllegalArgumentException("stack==null");
+
+        stack = stack.prepend(new ParseStack.parseReaderType(json, type));
+
+        var jsnObj = AstBuilder.parse(new ReaderPointer(json), new AstParser.ParserOptions());
+        return parse(jsnObj, type, stack);
+    }
+
+    /**
+     * Парсинг последовательности значений json (NDJSON или значения подряд), поток читается порциями.
+     * Очередное значение преобразуется, как только оно прочитано, прочитанные значения не накапливаются.
+     *
+     * @param json поток json
+     * @param type целевой тип значений
+     * @param <T>  результат парсинга
+     * @return значения
+     */
+    public <T> Stream<T> parseStream(Reader json, Type type) {
+        if (json == null) throw new IllegalArgumentException("json==null");
+        if (type == null) throw new IllegalArgumentException("type==null");
+
+        var stack = ImList.<ParseStack>of(new ParseStack.parseReaderType(json, type));
+        return AstStream.of(json).asts().map(ast -> this.<T>parse(ast, type, stack));
+    }
+
+    /**
+     * Парсинг последовательности значений json (NDJSON или значения подряд)
+     *
+     * @param json строка json
+     * @param type целевой тип значений
+     * @param <T>  результат парсинга
+     * @return значения
+     */
+    public <T> Stream<T> parseStream(String json, Type type) {
+        if (json == null) throw new IllegalArgumentException("json==null");
+        if (type == null) throw new IllegalArgumentException("type==null");
+
+        var stack = ImList.<ParseStack>of(new ParseStack.parseStringType(json, type));
+        return AstStream.of(json).asts().map(ast -> this.<T>parse(ast, type, stack));
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     protected <T> Optional<BiFunction<Ast<?>, ImList<ParseStack>, T>> parserOf(Type type, ImList<ParseStack> stack) {
         stack = stack.prepend(new ParseStack.parserOf(type));
@@ -896,7 +961,10 @@ public class RecMapper {
         Ast.ObjectAst<?> objectAst,
         RecordComponent field,
         ImList<ParseStack> stack) {
-        var ast = objectAst.get(field.getName());
+        Optional<? extends Ast<?>> ast =
+            stack.head().orElse(null) instanceof ParseStack.objectIndex ix && ix.index().object() == objectAst
+                ? ix.index().get(field.getName())
+                : objectAst.get(field.getName());
         if (ast.isEmpty()) {
             return error(new RequiredFiled(ImList.of(field.getName())));
         } else {
@@ -944,6 +1012,11 @@ public class RecMapper {
         var recComponentClasses = new Class<?>[recComponents.length];
         var recValues = new Object[recComponents.length];
 
+        // поиск каждого поля по ключу - через индекс, а не перебором пар, см resolveFieldOf
+        if (recComponents.length >= Ast.ObjectAst.INDEX_THRESHOLD) {
+            stack = stack.prepend(new ParseStack.objectIndex(objAst.indexed()));
+        }
+
         for (var ri = 0; ri < recComponents.length; ri++) {
             var recClass = recComponents[ri].getType();
             recComponentClasses[ri] = recClass;
@@ -9,6 +9,7 @@ import xyz.cofe.json.stream.rec.spi.StdMapperAdHocConfig;
 import xyz.cofe.json.stream.rec.spi.StdMapperConfigure;
 import xyz.cofe.json.stream.token.DummyCharPointer;
 
+import java.io.Reader;
 import java.lang.reflect.RecordComponent;
 import java.lang.reflect.Type;
 import java.util.HashMap;
@@ -732,6 +733,18 @@ public class StdMapper extends RecMapper {
         return super.parse(json, type, stack);
     }
 
+    @Override
+    public <T> T parse(Reader json, Type type) {
+        adHoc(type);
+        return super.parse(json, type);
+    }
+
+    @Override
+    protected <T> T parse(Reader json, Type type, ImList<ParseStack> stack) {
+        adHoc(type);
+        return super.parse(json, type, stack);
+    }
+
     @Override
     public <T> T parse(Ast<?> ast, Class<T> cls) {
         adHoc(cls);
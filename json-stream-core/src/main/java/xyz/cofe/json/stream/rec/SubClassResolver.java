@@ -6,17 +6,36 @@ import xyz.cofe.json.stream.ast.Ast;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 public interface SubClassResolver {
     record Resolved(Ast<?> body, Class<?> klass) {}
 
     Result<Resolved, String> resolve(Ast<?> ast, Class<?> parentClass, Class<?>[] subClasses, ImList<RecMapper.ParseStack> stack);
 
+    /**
+     * Поиск по ключам объекта на время одного вызова {@link #resolve(Ast, Class, Class[], ImList)}:
+     * для большого объекта или большого кол-ва искомых ключей - через индекс ({@link Ast.ObjectAst#indexed()}),
+     * иначе линейный поиск ({@link Ast.ObjectAst#get(String)})
+     *
+     * @param objAst объект
+     * @param keys   кол-во искомых ключей
+     * @return поиск значения по ключу
+     */
+    private static Function<String, Optional<? extends Ast<?>>> keys(Ast.ObjectAst<?> objAst, int keys) {
+        if (keys >= Ast.ObjectAst.INDEX_THRESHOLD || objAst.values().size() >= Ast.ObjectAst.INDEX_THRESHOLD) {
+            var index = objAst.indexed();
+            return index::get;
+        }
+        return objAst::get;
+    }
+
     static SubClassResolver defaultResolver() {
         return (ast, parentClass, subclasses, stack) -> {
             if (ast instanceof Ast.ObjectAst<?> objAst) {
+                var keys = keys(objAst, subclasses.length);
                 for (var subCls : subclasses) {
-                    var bodyOpt = objAst.get(subCls.getSimpleName());
+                    var bodyOpt = keys.apply(subCls.getSimpleName());
                     if (bodyOpt.isPresent()) {
                         return Result.ok(new Resolved(bodyOpt.get(), subCls));
                     }
@@ -34,8 +53,9 @@ public interface SubClassResolver {
         if (predefinedMap == null) throw new IllegalArgumentException("predefinedMap==null");
         return (ast, parentClass, subclasses, stack) -> {
             if (ast instanceof Ast.ObjectAst<?> objAst) {
+                var keys = keys(objAst, predefinedMap.size());
                 for (var en : predefinedMap.entrySet()) {
-                    var bodyOpt = objAst.get(en.getKey());
+                    var bodyOpt = keys.apply(en.getKey());
                     if (bodyOpt.isPresent()) {
                         return Result.ok(new Resolved(bodyOpt.get(), en.getValue()));
                     }
@@ -55,7 +75,7 @@ public interface SubClassResolver {
         return (ast, parentClass, subClasses, stack) -> {
             if (ast instanceof Ast.ObjectAst<?> objAst) {
                 return Result.from(
-                    objAst.get(propertyName).flatMap(Ast::asString),
+                    keys(objAst, 1).apply(propertyName).flatMap(Ast::asString),
                     () -> "@type not found"
                 ).fmap(typeName -> {
                     for (var subCls : subClasses) {
@@ -78,7 +98,7 @@ public interface SubClassResolver {
         return (ast, parentClass, subClasses, stack) -> {
             if (ast instanceof Ast.ObjectAst<?> objAst) {
                 return Result.from(
-                    objAst.get(propertyName).flatMap(Ast::asString),
+                    keys(objAst, 1).apply(propertyName).flatMap(Ast::asString),
                     () -> "type property not found: " + propertyName
                 ).fmap(typeName -> {
                     return Result.from(
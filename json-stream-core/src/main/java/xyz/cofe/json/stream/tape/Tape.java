@@ -0,0 +1,588 @@
+package xyz.cofe.json.stream.tape;
+
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.LazyValues;
+import xyz.cofe.json.stream.query.QuerySetFin;
+import xyz.cofe.json.stream.token.CloseParentheses;
+import xyz.cofe.json.stream.token.CloseSquare;
+import xyz.cofe.json.stream.token.DummyCharPointer;
+import xyz.cofe.json.stream.token.OpenParentheses;
+import xyz.cofe.json.stream.token.OpenSquare;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+
+/**
+ * Компактное представление json документа - "лента" (в духе simdjson):
+ * весь документ - один массив <code>long[]</code> и общий буфер символов для строк.
+ * Лента и буфер могут быть вне кучи ({@link #offHeap()}).
+ *
+ * <pre>
+ * Tape tape = TapeBuilder.parse(bytes);
+ * var c = tape.cursor();
+ * if (c.field("items") &amp;&amp; c.down()) {
+ *     do {
+ *         if (c.field("id")) {
+ *             sum += c.intValue();
+ *             c.up();
+ *         }
+ *     } while (c.next());
+ * }
+ * </pre>
+ *
+ * <p>
+ * Каждый элемент ленты - старшие 8 бит вид значения, остальные 56 бит:
+ * </p>
+ * <ul>
+ *     <li><code>{</code>, <code>[</code> - кол-во элементов (24 бит) и позиция после закрывающей скобки (32 бит),
+ *     вложенное значение пропускается за O(1)</li>
+ *     <li><code>}</code>, <code>]</code> - позиция открывающей скобки</li>
+ *     <li>строка, идентификатор, ключ - смещение в буфере символов, перед строкой - ее длина (2 символа)</li>
+ *     <li>int, true, false, null - значение в самом элементе</li>
+ *     <li>long, double - значение в следующем элементе ленты</li>
+ *     <li>большое целое - индекс в отдельном массиве</li>
+ * </ul>
+ * <p>
+ * В объекте за каждым ключом (строка) следует значение.
+ * </p>
+ *
+ * <p>
+ * Позиция значения в ленте (<code>int</code>) - курсор: навигация и чтение чисел
+ * ({@link #field(int, String)}, {@link #element(int, int)}, {@link #skip(int)}, {@link #intValue(int)}, ...)
+ * не создают объектов. Удобная обертка над позицией - {@link TapeCursor}.
+ * При необходимости документ или его часть доступны как {@link Ast} - {@link #toAst()}, {@link #query()}.
+ * </p>
+ *
+ * <p>
+ * Документ, который разобран один раз и долго используется, можно перенести вне кучи - {@link #offHeap()}:
+ * в куче остается только этот объект, сборщик мусора не просматривает и не копирует содержимое.
+ * Память освобождается, когда объект становится недостижим.
+ * </p>
+ *
+ * <p>Неизменяем, потокобезопасен</p>
+ *
+ * @see TapeBuilder
+ */
+public final class Tape {
+    /**
+     * Вид значения
+     */
+    public enum Kind {
+        OBJECT, ARRAY, STRING, IDENTIFIER, INT, LONG, BIG_INT, DOUBLE, TRUE, FALSE, NULL
+    }
+
+    static final int OBJECT_BEGIN = '{';
+    static final int OBJECT_END = '}';
+    static final int ARRAY_BEGIN = '[';
+    static final int ARRAY_END = ']';
+    static final int STRING = '"';
+    static final int IDENTIFIER = 'i';
+    static final int INT = 'n';
+    static final int LONG = 'l';
+    static final int BIG_INT = 'b';
+    static final int DOUBLE = 'd';
+    static final int TRUE = 't';
+    static final int FALSE = 'f';
+    static final int NULL = 'z';
+
+    static final int TAG_SHIFT = 56;
+    static final long PAYLOAD_MASK = (1L << TAG_SHIFT) - 1;
+
+    /**
+     * Максимальное кол-во элементов в заголовке объекта/массива, при большем кол-ве - пересчет по ленте
+     */
+    static final int MAX_COUNT = 0xFFFFFF;
+
+    /**
+     * Наибольшее кол-во элементов ленты вне кучи
+     */
+    static final int MAX_OFF_HEAP_TAPE = Integer.MAX_VALUE / Long.BYTES;
+
+    /**
+     * Наибольший размер буфера строк вне кучи, в символах
+     */
+    static final int MAX_OFF_HEAP_CHARS = Integer.MAX_VALUE / Character.BYTES;
+
+    private final LongBuffer tape;
+    private final CharBuffer chars;
+    private final BigInteger[] bigInts;
+
+    /**
+     * Конструктор
+     *
+     * @param tape    лента
+     * @param chars   буфер строк
+     * @param bigInts большие целые числа
+     */
+    Tape(LongBuffer tape, CharBuffer chars, BigInteger[] bigInts) {
+        if (tape == null) throw new IllegalArgumentException("tape==null");
+        if (chars == null) throw new IllegalArgumentException("chars==null");
+        if (bigInts == null) throw new IllegalArgumentException("bigInts==null");
+        if (tape.capacity() == 0) throw new IllegalArgumentException("tape is empty");
+        this.tape = tape;
+        this.chars = chars;
+        this.bigInts = bigInts;
+    }
+
+    /**
+     * Размер ленты
+     *
+     * @return кол-во элементов ленты
+     */
+    public int length() {
+        return tape.capacity();
+    }
+
+    /**
+     * Размер буфера строк
+     *
+     * @return кол-во символов
+     */
+    public int charsLength() {
+        return chars.capacity();
+    }
+
+    /**
+     * Проверка, что лента и буфер строк расположены вне кучи
+     *
+     * @return true - вне кучи
+     */
+    public boolean isOffHeap() {
+        return tape.isDirect() && chars.isDirect();
+    }
+
+    /**
+     * Копия документа вне кучи (direct {@link ByteBuffer}).
+     * Большие целые числа (<code>BigInteger</code>) остаются в куче.
+     *
+     * <p>
+     * Размер direct буфера - не более 2 ГБ, т.е. до {@value #MAX_OFF_HEAP_TAPE} элементов ленты
+     * и до {@value #MAX_OFF_HEAP_CHARS} символов строк, что меньше, чем допускают позиции <code>int</code>.
+     * </p>
+     *
+     * @return копия или этот документ, если он уже вне кучи
+     * @throws IllegalArgumentException документ не помещается в direct буфер
+     */
+    public Tape offHeap() {
+        if (isOffHeap()) return this;
+        return new Tape(offHeap(tape), offHeap(chars), bigInts);
+    }
+
+    /**
+     * Копия буфера (от 0 до limit) вне кучи
+     */
+    static LongBuffer offHeap(LongBuffer source) {
+        var res = ByteBuffer.allocateDirect(directBytes(source.limit(), Long.BYTES, "tape words")).order(ByteOrder.nativeOrder()).asLongBuffer();
+        res.put(0, source, 0, source.limit());
+        return res;
+    }
+
+    static CharBuffer offHeap(CharBuffer source) {
+        var res = ByteBuffer.allocateDirect(directBytes(source.limit(), Character.BYTES, "chars")).order(ByteOrder.nativeOrder()).asCharBuffer();
+        res.put(0, source, 0, source.limit());
+        return res;
+    }
+
+    /**
+     * Размер direct буфера в байтах
+     *
+     * @param count кол-во элементов
+     * @param unit  размер элемента
+     * @param what  что хранится, для сообщения об ошибке
+     */
+    static int directBytes(int count, int unit, String what) {
+        try {
+            return Math.multiplyExact(count, unit);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                "document too large for off-heap tape: " + count + " " + what + ", limit " + Integer.MAX_VALUE / unit, e
+            );
+        }
+    }
+
+    /**
+     * Позиция корневого значения
+     *
+     * @return позиция
+     */
+    public int root() {
+        return 0;
+    }
+
+    /**
+     * Курсор на корневое значение
+     *
+     * @return курсор
+     */
+    public TapeCursor cursor() {
+        return new TapeCursor(this);
+    }
+
+    private int tag(int at) {
+        return (int) (tape.get(at) >>> TAG_SHIFT);
+    }
+
+    private long payload(int at) {
+        return tape.get(at) & PAYLOAD_MASK;
+    }
+
+    private IllegalArgumentException expected(int at, String expected) {
+        return new IllegalArgumentException("expected " + expected + " at " + at + ", actual " + (char) tag(at));
+    }
+
+    /**
+     * Проверка, что позиция - закрывающая скобка, т.е. элементы контейнера закончились
+     *
+     * @param at позиция
+     * @return true - <code>}</code> или <code>]</code>
+     */
+    boolean isEnd(int at) {
+        var t = tag(at);
+        return t == OBJECT_END || t == ARRAY_END;
+    }
+
+    /**
+     * Вид значения
+     *
+     * @param at позиция значения
+     * @return вид
+     */
+    public Kind kind(int at) {
+        return switch (tag(at)) {
+            case OBJECT_BEGIN -> Kind.OBJECT;
+            case ARRAY_BEGIN -> Kind.ARRAY;
+            case STRING -> Kind.STRING;
+            case IDENTIFIER -> Kind.IDENTIFIER;
+            case INT -> Kind.INT;
+            case LONG -> Kind.LONG;
+            case BIG_INT -> Kind.BIG_INT;
+            case DOUBLE -> Kind.DOUBLE;
+            case TRUE -> Kind.TRUE;
+            case FALSE -> Kind.FALSE;
+            case NULL -> Kind.NULL;
+            default -> throw expected(at, "value");
+        };
+    }
+
+    /**
+     * Позиция после значения (следующий ключ, элемент или закрывающая скобка)
+     *
+     * @param at позиция значения
+     * @return позиция после значения
+     */
+    public int skip(int at) {
+        return switch (tag(at)) {
+            case OBJECT_BEGIN, ARRAY_BEGIN -> (int) payload(at);
+            case LONG, DOUBLE -> at + 2;
+            case OBJECT_END, ARRAY_END -> throw expected(at, "value");
+            default -> at + 1;
+        };
+    }
+
+    /**
+     * Кол-во свойств объекта или элементов массива
+     *
+     * @param at позиция объекта/массива
+     * @return кол-во
+     */
+    public int count(int at) {
+        var t = tag(at);
+        if (t != OBJECT_BEGIN && t != ARRAY_BEGIN) throw expected(at, "object or array");
+
+        var cnt = (int) (payload(at) >>> 32);
+        if (cnt < MAX_COUNT) return cnt;
+
+        cnt = 0;
+        for (var i = first(at); i >= 0; i = next(at, i)) cnt++;
+        return cnt;
+    }
+
+    /**
+     * Позиция первого значения объекта или массива, для объекта ключ значения на предыдущей позиции
+     *
+     * @param at позиция объекта/массива
+     * @return позиция или -1, если пустой
+     */
+    public int first(int at) {
+        var t = tag(at);
+        if (t == OBJECT_BEGIN) return isEnd(at + 1) ? -1 : at + 2;
+        if (t == ARRAY_BEGIN) return isEnd(at + 1) ? -1 : at + 1;
+        throw expected(at, "object or array");
+    }
+
+    /**
+     * Позиция следующего значения объекта или массива
+     *
+     * @param container позиция объекта/массива
+     * @param at        позиция текущего значения
+     * @return позиция или -1, если значения закончились
+     */
+    public int next(int container, int at) {
+        var n = skip(at);
+        if (isEnd(n)) return -1;
+        return tag(container) == OBJECT_BEGIN ? n + 1 : n;
+    }
+
+    /**
+     * Поиск свойства объекта, при повторе ключа - первое
+     *
+     * @param at  позиция объекта
+     * @param key ключ
+     * @return позиция значения или -1
+     */
+    public int field(int at, String key) {
+        if (key == null) throw new IllegalArgumentException("key==null");
+        if (tag(at) != OBJECT_BEGIN) throw expected(at, "object");
+
+        var i = at + 1;
+        while (!isEnd(i)) {
+            if (stringEquals(i, key)) return i + 1;
+            i = skip(i + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Элемент массива
+     *
+     * @param at    позиция массива
+     * @param index индекс элемента
+     * @return позиция элемента или -1
+     */
+    public int element(int at, int index) {
+        if (tag(at) != ARRAY_BEGIN) throw expected(at, "array");
+        if (index < 0) return -1;
+
+        var i = at + 1;
+        while (!isEnd(i)) {
+            if (index == 0) return i;
+            index--;
+            i = skip(i);
+        }
+        return -1;
+    }
+
+    private int length(int off) {
+        return (chars.get(off) << 16) | chars.get(off + 1);
+    }
+
+    private int stringOffset(int at) {
+        var t = tag(at);
+        if (t != STRING && t != IDENTIFIER) throw expected(at, "string");
+        return (int) payload(at);
+    }
+
+    /**
+     * Длина строки
+     *
+     * @param at позиция строки, идентификатора или ключа
+     * @return кол-во символов
+     */
+    public int stringLength(int at) {
+        var off = stringOffset(at);
+        return length(off);
+    }
+
+    /**
+     * Строка, идентификатор или ключ
+     *
+     * @param at позиция строки
+     * @return строка
+     */
+    public String string(int at) {
+        var off = stringOffset(at);
+        var len = length(off);
+        if (chars.hasArray()) return new String(chars.array(), chars.arrayOffset() + off + 2, len);
+
+        var buf = new char[len];
+        chars.get(off + 2, buf);
+        return new String(buf);
+    }
+
+    /**
+     * Сравнение строки без ее создания
+     *
+     * @param at   позиция строки, идентификатора или ключа
+     * @param text с чем сравнить
+     * @return true - совпадает
+     */
+    public boolean stringEquals(int at, CharSequence text) {
+        if (text == null) throw new IllegalArgumentException("text==null");
+        var off = stringOffset(at);
+        var len = length(off);
+        if (len != text.length()) return false;
+
+        off += 2;
+        for (var i = 0; i < len; i++) {
+            if (chars.get(off + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ключ свойства объекта
+     *
+     * @param at позиция значения свойства
+     * @return ключ
+     */
+    public String key(int at) {
+        return string(at - 1);
+    }
+
+    /**
+     * Целое число
+     *
+     * @param at позиция числа
+     * @return значение
+     * @throws IllegalArgumentException не int
+     */
+    public int intValue(int at) {
+        if (tag(at) != INT) throw expected(at, "int");
+        return (int) tape.get(at);
+    }
+
+    /**
+     * Целое число
+     *
+     * @param at позиция числа
+     * @return значение
+     * @throws IllegalArgumentException не int/long
+     */
+    public long longValue(int at) {
+        return switch (tag(at)) {
+            case INT -> (int) tape.get(at);
+            case LONG -> tape.get(at + 1);
+            default -> throw expected(at, "int or long");
+        };
+    }
+
+    /**
+     * Число
+     *
+     * @param at позиция числа
+     * @return значение
+     * @throws IllegalArgumentException не число
+     */
+    public double doubleValue(int at) {
+        return switch (tag(at)) {
+            case INT -> (int) tape.get(at);
+            case LONG -> tape.get(at + 1);
+            case DOUBLE -> Double.longBitsToDouble(tape.get(at + 1));
+            case BIG_INT -> bigInts[(int) payload(at)].doubleValue();
+            default -> throw expected(at, "number");
+        };
+    }
+
+    /**
+     * Целое число
+     *
+     * @param at позиция числа
+     * @return значение
+     * @throws IllegalArgumentException не целое
+     */
+    public BigInteger bigIntValue(int at) {
+        return switch (tag(at)) {
+            case INT -> BigInteger.valueOf((int) tape.get(at));
+            case LONG -> BigInteger.valueOf(tape.get(at + 1));
+            case BIG_INT -> bigInts[(int) payload(at)];
+            default -> throw expected(at, "integer");
+        };
+    }
+
+    /**
+     * Логическое значение
+     *
+     * @param at позиция значения
+     * @return значение
+     * @throws IllegalArgumentException не true/false
+     */
+    public boolean booleanValue(int at) {
+        return switch (tag(at)) {
+            case TRUE -> true;
+            case FALSE -> false;
+            default -> throw expected(at, "boolean");
+        };
+    }
+
+    /**
+     * Проверка на <code>null</code>
+     *
+     * @param at позиция значения
+     * @return true - null
+     */
+    public boolean isNull(int at) {
+        return tag(at) == NULL;
+    }
+
+    private static final OpenParentheses<DummyCharPointer> open = new OpenParentheses<>(DummyCharPointer.instance, DummyCharPointer.instance);
+    private static final CloseParentheses<DummyCharPointer> close = new CloseParentheses<>(DummyCharPointer.instance, DummyCharPointer.instance);
+    private static final OpenSquare<DummyCharPointer> openSquare = new OpenSquare<>(DummyCharPointer.instance, DummyCharPointer.instance);
+    private static final CloseSquare<DummyCharPointer> closeSquare = new CloseSquare<>(DummyCharPointer.instance, DummyCharPointer.instance);
+
+    /**
+     * Документ в виде {@link Ast}
+     *
+     * @return дерево
+     * @see #toAst(int)
+     */
+    public Ast<DummyCharPointer> toAst() {
+        return toAst(root());
+    }
+
+    /**
+     * Значение в виде {@link Ast} без расположения в исходнике.
+     * Содержимое объектов и массивов создается при первом обращении ({@link LazyValues}).
+     *
+     * @param at позиция значения
+     * @return дерево
+     */
+    public Ast<DummyCharPointer> toAst(int at) {
+        return switch (tag(at)) {
+            case OBJECT_BEGIN -> Ast.ObjectAst.lazy(new LazyValues<>(() -> keyValues(at)), open, close);
+            case ARRAY_BEGIN -> Ast.ArrayAst.lazy(new LazyValues<>(() -> elements(at)), openSquare, closeSquare);
+            case STRING -> Ast.StringAst.create(string(at));
+            case IDENTIFIER -> Ast.IdentAst.create(string(at));
+            case INT -> Ast.NumberAst.IntAst.create((int) tape.get(at));
+            case LONG -> Ast.NumberAst.LongAst.create(tape.get(at + 1));
+            case DOUBLE -> Ast.NumberAst.DoubleAst.create(Double.longBitsToDouble(tape.get(at + 1)));
+            case BIG_INT -> Ast.NumberAst.BigIntAst.create(bigInts[(int) payload(at)]);
+            case TRUE -> Ast.BooleanAst.create(true);
+            case FALSE -> Ast.BooleanAst.create(false);
+            case NULL -> Ast.NullAst.create();
+            default -> throw expected(at, "value");
+        };
+    }
+
+    /**
+     * Запрос к документу, см {@link #toAst()}
+     *
+     * @return запрос
+     */
+    public QuerySetFin<DummyCharPointer> query() {
+        return new QuerySetFin<>(toAst());
+    }
+
+    private ImList<Ast.KeyValue<DummyCharPointer>> keyValues(int at) {
+        var res = new ArrayList<Ast.KeyValue<DummyCharPointer>>();
+        for (var i = first(at); i >= 0; i = next(at, i)) {
+            res.add(Ast.KeyValue.create(Ast.StringAst.create(string(i - 1)), toAst(i)));
+        }
+        return ImList.from(res);
+    }
+
+    private ImList<Ast<DummyCharPointer>> elements(int at) {
+        var res = new ArrayList<Ast<DummyCharPointer>>();
+        for (var i = first(at); i >= 0; i = next(at, i)) res.add(toAst(i));
+        return ImList.from(res);
+    }
+
+    @Override
+    public String toString() {
+        return "Tape(length=" + tape.capacity() + ", chars=" + chars.capacity() + (isOffHeap() ? ", off heap" : "") + ")";
+    }
+}
@@ -0,0 +1,298 @@
+package xyz.cofe.json.stream.tape;
+
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.event.JsonEventHandler;
+import xyz.cofe.json.stream.event.JsonEventParser;
+import xyz.cofe.json.stream.token.CharPointer;
+
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Построение {@link Tape} по событиям {@link JsonEventParser}.
+ *
+ * <pre>
+ * Tape tape = TapeBuilder.parse(bytes);
+ * </pre>
+ *
+ * <p>
+ * Вместо узла {@link xyz.cofe.json.stream.ast.Ast} на каждое значение -
+ * элемент ленты и символы строки в общем буфере. Одинаковые ключи объектов хранятся в буфере один раз.
+ * Ключи-идентификаторы становятся строками.
+ * </p>
+ *
+ * <p>
+ * Результат можно сразу разместить вне кучи - {@link #TapeBuilder(boolean)}, {@link #parseOffHeap(byte[])}.
+ * Разбор идет в буферах в куче, вне кучи копируется только завершенный документ.
+ * </p>
+ *
+ * <p>Не потокобезопасен</p>
+ */
+public final class TapeBuilder implements JsonEventHandler {
+    /**
+     * Сколько разных ключей запоминается
+     */
+    private static final int KEY_CACHE_SIZE = 1024;
+
+    private long[] tape = new long[256];
+    private int size;
+    private char[] chars = new char[1024];
+    private int charsSize;
+    private final List<BigInteger> bigInts = new ArrayList<>();
+
+    private int[] opened = new int[16];
+    private int[] counts = new int[16];
+    private int depth;
+
+    private final Map<String, Integer> keyCache = new HashMap<>();
+    private final boolean offHeap;
+    private Tape result;
+
+    /**
+     * Конструктор
+     *
+     * @param offHeap true - результат вне кучи, см {@link Tape#offHeap()}
+     */
+    public TapeBuilder(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Конструктор, результат в куче
+     */
+    public TapeBuilder() {
+        this(false);
+    }
+
+    /**
+     * Результат - последнее завершенное значение верхнего уровня
+     *
+     * @return документ
+     * @throws IllegalStateException значение еще не завершено
+     */
+    public Tape result() {
+        if (result == null) throw new IllegalStateException("no result");
+        return result;
+    }
+
+    /**
+     * Сброс незавершенного значения и результата
+     */
+    public void reset() {
+        clear();
+        result = null;
+    }
+
+    private void clear() {
+        size = 0;
+        charsSize = 0;
+        depth = 0;
+        bigInts.clear();
+        keyCache.clear();
+    }
+
+    private void append(long word) {
+        if (size == tape.length) tape = Arrays.copyOf(tape, size * 2);
+        tape[size++] = word;
+    }
+
+    private static long word(int tag, long payload) {
+        return ((long) tag << Tape.TAG_SHIFT) | (payload & Tape.PAYLOAD_MASK);
+    }
+
+    private void added() {
+        if (depth > 0) counts[depth - 1]++;
+    }
+
+    private int appendChars(String text) {
+        var len = text.length();
+        if (charsSize + len + 2 > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charsSize + len + 2));
+        }
+
+        var off = charsSize;
+        chars[off] = (char) (len >>> 16);
+        chars[off + 1] = (char) len;
+        text.getChars(0, len, chars, off + 2);
+        charsSize += len + 2;
+        return off;
+    }
+
+    private void string(int tag, String text) {
+        append(word(tag, appendChars(text)));
+        added();
+    }
+
+    private void begin(int tag) {
+        added();
+        if (depth == opened.length) {
+            opened = Arrays.copyOf(opened, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+        }
+        opened[depth] = size;
+        counts[depth] = 0;
+        depth++;
+        append(word(tag, 0));
+    }
+
+    private void end(int beginTag, int endTag) {
+        depth--;
+        var begin = opened[depth];
+        append(word(endTag, begin));
+
+        var count = Math.min(counts[depth], Tape.MAX_COUNT);
+        tape[begin] = word(beginTag, ((long) count << 32) | size);
+    }
+
+    @Override
+    public void startObject() {
+        begin(Tape.OBJECT_BEGIN);
+    }
+
+    @Override
+    public void key(String key) {
+        var off = keyCache.get(key);
+        if (off == null) {
+            off = appendChars(key);
+            if (keyCache.size() < KEY_CACHE_SIZE) keyCache.put(key, off);
+        }
+        append(word(Tape.STRING, off));
+    }
+
+    @Override
+    public void endObject() {
+        end(Tape.OBJECT_BEGIN, Tape.OBJECT_END);
+    }
+
+    @Override
+    public void startArray() {
+        begin(Tape.ARRAY_BEGIN);
+    }
+
+    @Override
+    public void endArray() {
+        end(Tape.ARRAY_BEGIN, Tape.ARRAY_END);
+    }
+
+    @Override
+    public void value(String value) {
+        string(Tape.STRING, value);
+    }
+
+    @Override
+    public void identifier(String value) {
+        string(Tape.IDENTIFIER, value);
+    }
+
+    @Override
+    public void value(int value) {
+        append(word(Tape.INT, value & 0xFFFFFFFFL));
+        added();
+    }
+
+    @Override
+    public void value(long value) {
+        append(word(Tape.LONG, 0));
+        append(value);
+        added();
+    }
+
+    @Override
+    public void value(BigInteger value) {
+        append(word(Tape.BIG_INT, bigInts.size()));
+        bigInts.add(value);
+        added();
+    }
+
+    @Override
+    public void value(double value) {
+        append(word(Tape.DOUBLE, 0));
+        append(Double.doubleToRawLongBits(value));
+        added();
+    }
+
+    @Override
+    public void value(boolean value) {
+        append(word(value ? Tape.TRUE : Tape.FALSE, 0));
+        added();
+    }
+
+    @Override
+    public void nullValue() {
+        append(word(Tape.NULL, 0));
+        added();
+    }
+
+    @Override
+    public void endValue() {
+        var big = bigInts.toArray(new BigInteger[0]);
+        result = offHeap
+            ? new Tape(Tape.offHeap(LongBuffer.wrap(tape, 0, size)), Tape.offHeap(CharBuffer.wrap(chars, 0, charsSize)), big)
+            : new Tape(LongBuffer.wrap(Arrays.copyOf(tape, size)), CharBuffer.wrap(Arrays.copyOf(chars, charsSize)), big);
+        clear();
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source  исходник
+     * @param options настройки парсера
+     * @param <S>     тип исходника
+     * @return результат парсинга
+     * @throws AstParser.JsonParseError ошибка синтаксиса
+     * @throws AstParser.NoResult       исходник закончился раньше значения
+     */
+    public static <S extends CharPointer<S>> Tape parse(S source, AstParser.ParserOptions options) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        if (options == null) throw new IllegalArgumentException("options==null");
+        var builder = new TapeBuilder();
+        JsonEventParser.parse(source, options, builder);
+        return builder.result();
+    }
+
+    /**
+     * Парсинг json
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Tape parse(String source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var builder = new TapeBuilder();
+        JsonEventParser.parse(source, builder);
+        return builder.result();
+    }
+
+    /**
+     * Парсинг json в кодировке UTF-8
+     *
+     * @param source исходник
+     * @return результат парсинга
+     */
+    public static Tape parse(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var builder = new TapeBuilder();
+        JsonEventParser.parse(source, builder);
+        return builder.result();
+    }
+
+    /**
+     * Парсинг json в кодировке UTF-8, результат вне кучи
+     *
+     * @param source исходник
+     * @return результат парсинга
+     * @see Tape#offHeap()
+     */
+    public static Tape parseOffHeap(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        var builder = new TapeBuilder(true);
+        JsonEventParser.parse(source, builder);
+        return builder.result();
+    }
+}
@@ -0,0 +1,282 @@
+package xyz.cofe.json.stream.tape;
+
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.token.DummyCharPointer;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Курсор по {@link Tape}: текущая позиция и стек позиций объемлющих объектов/массивов.
+ *
+ * <p>
+ * Переходы ({@link #down()}, {@link #next()}, {@link #up()}, {@link #field(String)}, {@link #element(int)})
+ * и чтение чисел не создают объектов. Неудачный переход (нет свойства, элемента и т.д.) курсор не сдвигает.
+ * </p>
+ *
+ * <p>Не потокобезопасен, для каждого потока - свой курсор</p>
+ */
+public final class TapeCursor {
+    private final Tape tape;
+    private int position;
+    private int[] parents = new int[16];
+    private int depth;
+
+    /**
+     * Конструктор
+     *
+     * @param tape документ
+     */
+    public TapeCursor(Tape tape) {
+        if (tape == null) throw new IllegalArgumentException("tape==null");
+        this.tape = tape;
+        this.position = tape.root();
+    }
+
+    /**
+     * Документ
+     *
+     * @return документ
+     */
+    public Tape tape() {
+        return tape;
+    }
+
+    /**
+     * Текущая позиция в ленте
+     *
+     * @return позиция
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Уровень вложенности, 0 - корень
+     *
+     * @return уровень
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Переход к корню
+     */
+    public void reset() {
+        position = tape.root();
+        depth = 0;
+    }
+
+    /**
+     * Вид текущего значения
+     *
+     * @return вид
+     */
+    public Tape.Kind kind() {
+        return tape.kind(position);
+    }
+
+    private void push(int at) {
+        if (depth == parents.length) parents = Arrays.copyOf(parents, depth * 2);
+        parents[depth++] = position;
+        position = at;
+    }
+
+    /**
+     * Переход к первому значению текущего объекта/массива
+     *
+     * @return true - переход выполнен, false - не объект/массив или он пустой
+     */
+    public boolean down() {
+        var k = kind();
+        if (k != Tape.Kind.OBJECT && k != Tape.Kind.ARRAY) return false;
+
+        var at = tape.first(position);
+        if (at < 0) return false;
+        push(at);
+        return true;
+    }
+
+    /**
+     * Переход к следующему значению объемлющего объекта/массива
+     *
+     * @return true - переход выполнен, false - значения закончились или это корень
+     */
+    public boolean next() {
+        if (depth == 0) return false;
+
+        var at = tape.next(parents[depth - 1], position);
+        if (at < 0) return false;
+        position = at;
+        return true;
+    }
+
+    /**
+     * Переход к объемлющему объекту/массиву
+     *
+     * @return true - переход выполнен, false - это корень
+     */
+    public boolean up() {
+        if (depth == 0) return false;
+        position = parents[--depth];
+        return true;
+    }
+
+    /**
+     * Переход к свойству текущего объекта
+     *
+     * @param key ключ
+     * @return true - переход выполнен, false - не объект или нет свойства
+     */
+    public boolean field(String key) {
+        if (key == null) throw new IllegalArgumentException("key==null");
+        if (kind() != Tape.Kind.OBJECT) return false;
+
+        var at = tape.field(position, key);
+        if (at < 0) return false;
+        push(at);
+        return true;
+    }
+
+    /**
+     * Переход к элементу текущего массива
+     *
+     * @param index индекс элемента
+     * @return true - переход выполнен, false - не массив или нет элемента
+     */
+    public boolean element(int index) {
+        if (kind() != Tape.Kind.ARRAY) return false;
+
+        var at = tape.element(position, index);
+        if (at < 0) return false;
+        push(at);
+        return true;
+    }
+
+    /**
+     * Проверка, что текущее значение - свойство объекта
+     *
+     * @return true - свойство объекта
+     */
+    public boolean hasKey() {
+        return depth > 0 && tape.kind(parents[depth - 1]) == Tape.Kind.OBJECT;
+    }
+
+    /**
+     * Ключ текущего свойства
+     *
+     * @return ключ
+     * @throws IllegalStateException значение не в объекте
+     */
+    public String key() {
+        if (!hasKey()) throw new IllegalStateException("not in object");
+        return tape.key(position);
+    }
+
+    /**
+     * Сравнение ключа текущего свойства без создания строки
+     *
+     * @param key ключ
+     * @return true - совпадает
+     */
+    public boolean keyEquals(CharSequence key) {
+        return hasKey() && tape.stringEquals(position - 1, key);
+    }
+
+    /**
+     * Кол-во свойств текущего объекта или элементов массива
+     *
+     * @return кол-во
+     */
+    public int count() {
+        return tape.count(position);
+    }
+
+    /**
+     * Строка или идентификатор
+     *
+     * @return значение
+     */
+    public String stringValue() {
+        return tape.string(position);
+    }
+
+    /**
+     * Сравнение строки без ее создания
+     *
+     * @param text с чем сравнить
+     * @return true - совпадает
+     */
+    public boolean stringEquals(CharSequence text) {
+        return tape.stringEquals(position, text);
+    }
+
+    /**
+     * Целое число
+     *
+     * @return значение
+     */
+    public int intValue() {
+        return tape.intValue(position);
+    }
+
+    /**
+     * Целое число
+     *
+     * @return значение
+     */
+    public long longValue() {
+        return tape.longValue(position);
+    }
+
+    /**
+     * Число
+     *
+     * @return значение
+     */
+    public double doubleValue() {
+        return tape.doubleValue(position);
+    }
+
+    /**
+     * Целое число
+     *
+     * @return значение
+     */
+    public BigInteger bigIntValue() {
+        return tape.bigIntValue(position);
+    }
+
+    /**
+     * Логическое значение
+     *
+     * @return значение
+     */
+    public boolean booleanValue() {
+        return tape.booleanValue(position);
+    }
+
+    /**
+     * Проверка на <code>null</code>
+     *
+     * @return true - null
+     */
+    public boolean isNull() {
+        return tape.isNull(position);
+    }
+
+    /**
+     * Текущее значение в виде {@link Ast}
+     *
+     * @return дерево
+     */
+    public Ast<DummyCharPointer> toAst() {
+        return tape.toAst(position);
+    }
+
+    @Override
+    public String toString() {
+        return "TapeCursor(position=" + position + ", depth=" + depth + ")";
+    }
+}
@@ -0,0 +1,197 @@
+package xyz.cofe.json.stream.token;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Быстрый пропуск вложенного объекта/массива без разбора на лексемы.
+ *
+ * <p>
+ * Учитываются только скобки <code>{ } [ ]</code>, строки в двойных и одинарных кавычках (чтобы скобки внутри строк
+ * не считались) и комментарии <code>//</code>, <code>/* *&#47;</code>.
+ * Строки и числа не декодируются, синтаксис внутри пропускаемого значения не проверяется.
+ * </p>
+ */
+public final class BracketScanner {
+    private BracketScanner() {}
+
+    /**
+     * Через сколько символов указатель сдвигается вперед, чтобы смещение для {@link CharPointer#charAt(int)} оставалось небольшим
+     */
+    private static final int WINDOW = 4096;
+
+    /**
+     * Пропуск до парной закрывающей скобки
+     *
+     * @param ptr указатель сразу после открывающей скобки <code>{</code> или <code>[</code>
+     * @param <S> тип исходника
+     * @return указатель сразу после парной закрывающей скобки или пусто, если исходник закончился раньше
+     */
+    public static <S extends CharPointer<S>> Optional<S> skipNested(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        return closing(ptr).map(p -> p.move(1));
+    }
+
+    /**
+     * Поиск парной закрывающей скобки
+     *
+     * @param ptr указатель сразу после открывающей скобки <code>{</code> или <code>[</code>
+     * @param <S> тип исходника
+     * @return указатель на парную закрывающую скобку или пусто, если исходник закончился раньше
+     */
+    @SuppressWarnings("unchecked")
+    public static <S extends CharPointer<S>> Optional<S> closing(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        if (ptr instanceof Utf8Pointer u) return (Optional<S>) closing(u);
+
+        var p = ptr;
+        var i = 0;
+        var depth = 1;
+        var quote = 0;
+        var escaped = false;
+        var comment = 0;
+
+        while (true) {
+            if (i >= WINDOW) {
+                p = p.move(i);
+                i = 0;
+            }
+
+            var c = p.charAt(i);
+            if (c < 0) return Optional.empty();
+
+            if (quote != 0) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (comment == '/') {
+                if (c == '\n' || c == '\r') comment = 0;
+            } else if (comment == '*') {
+                if (c == '*' && p.charAt(i + 1) == '/') {
+                    comment = 0;
+                    i++;
+                }
+            } else {
+                switch (c) {
+                    case '"', '\'' -> quote = c;
+                    case '/' -> {
+                        var n = p.charAt(i + 1);
+                        if (n == '/' || n == '*') {
+                            comment = n;
+                            i++;
+                        }
+                    }
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> {
+                        depth--;
+                        if (depth == 0) return Optional.of(p.move(i));
+                    }
+                    default -> {
+                    }
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Пропуск по байтам: все учитываемые символы - ASCII, а байты многобайтовых последовательностей UTF-8 с ASCII не совпадают
+     */
+    private static Optional<Utf8Pointer> closing(Utf8Pointer ptr) {
+        var close = scan(ptr, null);
+        return close < 0 ? Optional.empty() : Optional.of(ptr.at(close));
+    }
+
+    /**
+     * Границы элементов массива: позиции запятых первого уровня вложенности
+     *
+     * @param ptr указатель сразу после открывающей скобки массива <code>[</code>
+     * @return позиции запятых (в байтах), последний элемент - позиция закрывающей скобки <code>]</code>;
+     * пусто, если исходник закончился раньше
+     */
+    public static Optional<long[]> elements(Utf8Pointer ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        var commas = new Positions();
+        var close = scan(ptr, commas);
+        if (close < 0) return Optional.empty();
+
+        commas.accept(close);
+        return Optional.of(Arrays.copyOf(commas.items, commas.size));
+    }
+
+    private static final class Positions implements LongConsumer {
+        private long[] items = new long[1024];
+        private int size;
+
+        @Override
+        public void accept(long pos) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = pos;
+        }
+    }
+
+    /**
+     * Сканирование до парной закрывающей скобки
+     *
+     * @param commas получатель позиций запятых первого уровня или null
+     * @return позиция закрывающей скобки или -1
+     */
+    private static long scan(Utf8Pointer ptr, LongConsumer commas) {
+        var src = ptr.source();
+        var size = src.size();
+        var pos = ptr.position();
+        var depth = 1;
+        var quote = 0;
+        var escaped = false;
+        var comment = 0;
+
+        for (; pos < size; pos++) {
+            var c = src.byteAt(pos);
+
+            if (quote != 0) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (comment == '/') {
+                if (c == '\n' || c == '\r') comment = 0;
+            } else if (comment == '*') {
+                if (c == '*' && pos + 1 < size && src.byteAt(pos + 1) == '/') {
+                    comment = 0;
+                    pos++;
+                }
+            } else {
+                switch (c) {
+                    case '"', '\'' -> quote = c;
+                    case '/' -> {
+                        var n = pos + 1 < size ? src.byteAt(pos + 1) : 0;
+                        if (n == '/' || n == '*') {
+                            comment = n;
+                            pos++;
+                        }
+                    }
+                    case ',' -> {
+                        if (depth == 1 && commas != null) commas.accept(pos);
+                    }
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> {
+                        depth--;
+                        if (depth == 0) return pos;
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,373 @@
+package xyz.cofe.json.stream.token;
+
+import xyz.cofe.coll.im.ImList;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Парсинг лексем непосредственно из байтов в кодировке UTF-8
+ *
+ * <p>
+ * Структурные лексемы, ключевые слова, пробелы, ASCII идентификаторы, комментарии
+ * и строки без escape последовательностей распознаются по байтам, без декодирования в символы.
+ * В строку декодируются только значения лексем (строки, идентификаторы, комментарии).
+ * </p>
+ *
+ * <p>
+ * Числа, строки с escape последовательностями и лексемы, начинающиеся не с ASCII символа,
+ * распознаются парсерами {@link Tokenizer#defaultTokenizer()} поверх {@link Utf8Pointer},
+ * поэтому результат совпадает с {@link Tokenizer}.
+ * </p>
+ */
+public class ByteTokenizer {
+    private final NumberParser<Utf8Pointer> numberParser = new NumberParser<>();
+    private final Whitespace.Parser<Utf8Pointer> whitespaceParser = new Whitespace.Parser<>();
+    private final StringToken.Parser<Utf8Pointer> stringParser;
+    private final IdentifierToken.Parser<Utf8Pointer> identifierParser;
+    private final Tokenizer<Utf8Pointer> charTokenizer;
+    private final StringCache cache;
+    private final boolean skipWhitespace;
+    private final boolean skipComments;
+
+    /**
+     * Конструктор
+     */
+    public ByteTokenizer() {
+        this.cache = null;
+        this.stringParser = new StringToken.Parser<>();
+        this.identifierParser = new IdentifierToken.Parser<>();
+        this.charTokenizer = Tokenizer.defaultTokenizer();
+        this.skipWhitespace = false;
+        this.skipComments = false;
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param cache кэш строк, см {@link Tokenizer#defaultTokenizer(StringCache)}
+     */
+    public ByteTokenizer(StringCache cache) {
+        if (cache == null) throw new IllegalArgumentException("cache==null");
+        this.cache = cache;
+        this.stringParser = new StringToken.Parser<>(cache);
+        this.identifierParser = new IdentifierToken.Parser<>(cache);
+        this.charTokenizer = Tokenizer.defaultTokenizer(cache);
+        this.skipWhitespace = false;
+        this.skipComments = false;
+    }
+
+    private ByteTokenizer(ByteTokenizer sample, boolean skipWhitespace, boolean skipComments) {
+        this.cache = sample.cache;
+        this.stringParser = sample.stringParser;
+        this.identifierParser = sample.identifierParser;
+        this.charTokenizer = sample.charTokenizer.skipTrivia(skipWhitespace, skipComments);
+        this.skipWhitespace = skipWhitespace;
+        this.skipComments = skipComments;
+    }
+
+    /**
+     * Пропуск пробелов и комментариев на месте, без создания лексем,
+     * см {@link Tokenizer#skipTrivia(boolean, boolean)}
+     *
+     * @param whitespace пропускать пробелы
+     * @param comments   пропускать комментарии
+     * @return Лексический анализатор
+     */
+    public ByteTokenizer skipTrivia(boolean whitespace, boolean comments) {
+        return new ByteTokenizer(this, whitespace, comments);
+    }
+
+    /**
+     * Пропуск пробелов и комментариев, которые пропускает {@link #next(Utf8Pointer)},
+     * см {@link Tokenizer#afterTrivia(CharPointer)}
+     *
+     * @param ptr указатель
+     * @return указатель после пропущенных пробелов и комментариев
+     */
+    public Utf8Pointer afterTrivia(Utf8Pointer ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        if (!skipWhitespace && !skipComments) return ptr;
+
+        while (true) {
+            var pos = trivia(ptr.source(), ptr.position());
+            if (pos != ptr.position()) ptr = ptr.at(pos);
+
+            var next = charTokenizer.afterTrivia(ptr);
+            if (next.position() == ptr.position()) return ptr;
+            ptr = next;
+        }
+    }
+
+    /**
+     * Пропуск ASCII пробелов и комментариев,
+     * пробелы за пределами ASCII пропускает {@link #charTokenizer}
+     *
+     * @return позиция после пропущенного
+     */
+    private long trivia(Utf8Pointer.Source src, long pos) {
+        var size = src.size();
+        while (pos < size) {
+            var b = src.byteAt(pos);
+            if (skipWhitespace && isWhitespace(b)) {
+                pos++;
+                continue;
+            }
+
+            if (skipComments && b == '/' && pos + 1 < size) {
+                var b1 = src.byteAt(pos + 1);
+                if (b1 == '/') {
+                    pos += 2;
+                    while (pos < size && src.byteAt(pos) != '\n') pos++;
+                    if (pos < size) pos++;
+                    continue;
+                }
+                if (b1 == '*') {
+                    pos += 2;
+                    while (pos < size && !(src.byteAt(pos) == '*' && pos + 1 < size && src.byteAt(pos + 1) == '/')) pos++;
+                    pos = Math.min(pos + 2, size);
+                    continue;
+                }
+            }
+
+            return pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Значение лексемы, ключи объектов через кэш
+     *
+     * @param next позиция после лексемы
+     */
+    private String text(Utf8Pointer.Source src, long from, long to, long next) {
+        return cache != null && StringCache.isKey(src, next) ? cache.get(src, from, to) : src.decode(from, to);
+    }
+
+    /**
+     * Парсинг
+     *
+     * @param ptr начало
+     * @return лексемы
+     */
+    public Tokenizer.Parsed<Utf8Pointer> parse(Utf8Pointer ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        ImList<Token<Utf8Pointer>> tokens = ImList.of();
+
+        while (true) {
+            var tokOpt = next(ptr);
+            if (tokOpt.isEmpty()) break;
+
+            Token<Utf8Pointer> tok = tokOpt.get();
+            tokens = tokens.prepend(tok);
+            ptr = tok.end();
+        }
+
+        return new Tokenizer.Parsed<>(tokens.reverse(), ptr);
+    }
+
+    /**
+     * Ленивый просмотр лексем
+     *
+     * @param ptr начало
+     * @return лексемы
+     */
+    public Tokenizer.TokenIterator<Utf8Pointer> iterator(Utf8Pointer ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        return new Tokenizer.TokenIterator<>(this::next, ptr);
+    }
+
+    /**
+     * Парсинг
+     *
+     * @param source исходник
+     * @return лексемы
+     */
+    public static Tokenizer.Parsed<Utf8Pointer> parse(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return new ByteTokenizer().parse(Utf8Pointer.of(source));
+    }
+
+    /**
+     * Парсинг
+     *
+     * @param source исходник
+     * @return лексемы
+     */
+    public static Tokenizer.Parsed<Utf8Pointer> parse(ByteBuffer source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return new ByteTokenizer().parse(Utf8Pointer.of(source));
+    }
+
+    /**
+     * Парсинг файла, файл отображается в память
+     *
+     * @param file исходник
+     * @return лексемы
+     */
+    public static Tokenizer.Parsed<Utf8Pointer> parse(Path file) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        return new ByteTokenizer().parse(Utf8Pointer.map(file));
+    }
+
+    /**
+     * Распознание очередной лексемы
+     *
+     * @param ptr указатель
+     * @return лексема или пусто, если лексема не распознана или достигнут конец
+     */
+    public Optional<? extends Token<Utf8Pointer>> next(Utf8Pointer ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+
+        var src = ptr.source();
+        var pos = ptr.position();
+        if (skipWhitespace || skipComments) {
+            var skip = trivia(src, pos);
+            if (skip != pos) {
+                pos = skip;
+                ptr = ptr.at(pos);
+            }
+        }
+        if (pos >= src.size()) return Optional.empty();
+
+        int b = src.byteAt(pos);
+        switch (b) {
+            case '{':
+                return Optional.of(new OpenParentheses<>(ptr, ptr.at(pos + 1)));
+            case '}':
+                return Optional.of(new CloseParentheses<>(ptr, ptr.at(pos + 1)));
+            case '[':
+                return Optional.of(new OpenSquare<>(ptr, ptr.at(pos + 1)));
+            case ']':
+                return Optional.of(new CloseSquare<>(ptr, ptr.at(pos + 1)));
+            case ',':
+                return Optional.of(new Comma<>(ptr, ptr.at(pos + 1)));
+            case ':':
+                return Optional.of(new Colon<>(ptr, ptr.at(pos + 1)));
+            case 'n':
+                if (expect(src, pos, NULL)) return Optional.of(new NullToken<>(ptr, ptr.at(pos + NULL.length)));
+                return identifier(ptr);
+            case 't':
+                if (expect(src, pos, TRUE)) return Optional.of(new TrueToken<>(ptr, ptr.at(pos + TRUE.length)));
+                return identifier(ptr);
+            case 'f':
+                if (expect(src, pos, FALSE)) return Optional.of(new FalseToken<>(ptr, ptr.at(pos + FALSE.length)));
+                return identifier(ptr);
+            case '"':
+            case '\'':
+                return string(ptr, (byte) b);
+            case '/':
+                return comment(ptr);
+            case '-':
+            case '.':
+            case '0': case '1': case '2': case '3': case '4':
+            case '5': case '6': case '7': case '8': case '9': {
+                var num = numberParser.parse(ptr);
+                if (num.isPresent()) return num;
+                return fallback(ptr);
+            }
+            default:
+                if (isWhitespace(b)) return whitespace(ptr);
+                if (isIdentChar(b)) return identifier(ptr);
+                return fallback(ptr);
+        }
+    }
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static boolean expect(Utf8Pointer.Source src, long pos, byte[] bytes) {
+        if (pos + bytes.length > src.size()) return false;
+        for (var i = 0; i < bytes.length; i++) {
+            if (src.byteAt(pos + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Проверка ASCII пробела, совпадает с {@link Character#isWhitespace(char)}
+     */
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+
+    private static boolean isIdentChar(int b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_' || b == '$';
+    }
+
+    private Optional<? extends Token<Utf8Pointer>> fallback(Utf8Pointer ptr) {
+        return charTokenizer.next(ptr);
+    }
+
+    private Optional<? extends Token<Utf8Pointer>> whitespace(Utf8Pointer ptr) {
+        var src = ptr.source();
+        var pos = ptr.position();
+        var end = pos;
+        while (end < src.size() && isWhitespace(src.byteAt(end))) end++;
+
+        if (end < src.size() && src.byteAt(end) < 0) return whitespaceParser.parse(ptr);
+        return Optional.of(new Whitespace<>(src.decode(pos, end), ptr, ptr.at(end)));
+    }
+
+    private Optional<? extends Token<Utf8Pointer>> identifier(Utf8Pointer ptr) {
+        var src = ptr.source();
+        var pos = ptr.position();
+        var end = pos;
+        while (end < src.size() && isIdentChar(src.byteAt(end))) end++;
+
+        if (end < src.size() && src.byteAt(end) < 0) return identifierParser.parse(ptr);
+        return Optional.of(new IdentifierToken<>(text(src, pos, end, end), ptr, ptr.at(end)));
+    }
+
+    private Optional<? extends Token<Utf8Pointer>> string(Utf8Pointer ptr, byte quote) {
+        var src = ptr.source();
+        var pos = ptr.position();
+        var end = pos + 1;
+        while (end < src.size()) {
+            var b = src.byteAt(end);
+            if (b == quote) {
+                return Optional.of(new StringToken<>(text(src, pos + 1, end, end + 1), ptr, ptr.at(end + 1)));
+            }
+            if (b == '\\') break;
+            end++;
+        }
+        return stringParser.parse(ptr);
+    }
+
+    private Optional<? extends Token<Utf8Pointer>> comment(Utf8Pointer ptr) {
+        var src = ptr.source();
+        var pos = ptr.position();
+        if (pos + 1 >= src.size()) return fallback(ptr);
+
+        var b1 = src.byteAt(pos + 1);
+        if (b1 == '/') {
+            var end = pos + 2;
+            while (end < src.size()) {
+                var b = src.byteAt(end);
+                if (b == '\n') {
+                    return Optional.of(new SLComment<>(src.decode(pos, end), ptr, ptr.at(end + 1)));
+                }
+                if (b == '\r' && end + 1 < src.size() && src.byteAt(end + 1) == '\n') {
+                    return Optional.of(new SLComment<>(src.decode(pos, end), ptr, ptr.at(end + 2)));
+                }
+                end++;
+            }
+            return Optional.of(new SLComment<>(src.decode(pos, end), ptr, ptr.at(end)));
+        }
+
+        if (b1 == '*') {
+            var end = pos + 2;
+            while (end < src.size()) {
+                if (src.byteAt(end) == '*' && end + 1 < src.size() && src.byteAt(end + 1) == '/') {
+                    return Optional.of(new MLComment<>(src.decode(pos, end + 2), ptr, ptr.at(end + 2)));
+                }
+                end++;
+            }
+            return Optional.of(new MLComment<>(src.decode(pos, end), ptr, ptr.at(end)));
+        }
+
+        return fallback(ptr);
+    }
+}
@@ -1,9 +1,44 @@
 package xyz.cofe.json.stream.token;
 
+import java.util.Optional;
+
 /**
  * Указатель на символы строки
  * @param <SELF> "Собственный" тип
  */
 public interface CharPointer<SELF extends SourcePointer<Character, SELF>> extends SourcePointer<Character,SELF>
 {
+    /**
+     * Получение символа относительно указателя, без упаковки в {@link Character} и {@link java.util.Optional}
+     * @param offset смещение относительно указателя
+     * @return символ или -1, если за пределами исходника
+     */
+    default int charAt(int offset) {
+        return get(offset).map(c -> (int) c).orElse(-1);
+    }
+
+    /**
+     * Получение текста относительно указателя
+     * @param from начало (включительно), смещение относительно указателя
+     * @param to конец (исключительно), смещение относительно указателя
+     * @return текст
+     */
+    default String substring(int from, int to) {
+        if (to < from) throw new IllegalArgumentException("to<from");
+        var chars = new char[to - from];
+        for (var i = 0; i < chars.length; i++) {
+            var c = charAt(from + i);
+            if (c < 0) throw new IndexOutOfBoundsException(from + i);
+            chars[i] = (char) c;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Строка и колонка указателя, вычисляются по требованию (см {@link LineIndex})
+     * @return строка и колонка или пусто, если исходник не поддерживает
+     */
+    default Optional<LineColumn> lineColumn() {
+        return Optional.empty();
+    }
 }
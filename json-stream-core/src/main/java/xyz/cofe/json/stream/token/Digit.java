@@ -4,6 +4,17 @@ package xyz.cofe.json.stream.token;
  * Функция преобразования символа в число
  */
 public class Digit {
+    /**
+     * Преобразование символа в число
+     * @param c символ, см {@link CharPointer#charAt(int)}
+     * @param base система счисления
+     * @return число или -1
+     */
+    public static int digit(int c, int base) {
+        if (c < 0 || c > Character.MAX_VALUE) return -1;
+        return digit((char) c, base);
+    }
+
     public static int digit(char c, int base) {
         return switch (c) {
             case '0' -> 0;
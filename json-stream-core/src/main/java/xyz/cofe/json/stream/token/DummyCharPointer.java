@@ -16,6 +16,11 @@ public final class DummyCharPointer implements CharPointer<DummyCharPointer> {
         return Optional.empty();
     }
 
+    @Override
+    public int charAt(int offset) {
+        return -1;
+    }
+
     @Override
     public DummyCharPointer move(int offset) {
         return this;
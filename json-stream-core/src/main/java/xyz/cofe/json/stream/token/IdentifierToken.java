@@ -19,27 +19,43 @@ public record IdentifierToken<S extends CharPointer<S>>(
      * @param <S> Тип исходника
      */
     public static class Parser<S extends CharPointer<S>> implements TokenParser<S> {
-        @Override
-        public Optional<? extends Token<S>> parse(S ptr) {
-            if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        private final StringCache cache;
 
-            var begin = ptr;
+        /**
+         * Конструктор
+         */
+        public Parser() {
+            this.cache = null;
+        }
 
-            var first = ptr.get(0).flatMap(c -> Character.isLetter(c) || c == '_' || c == '$' ? Optional.of(c) : Optional.empty());
-            if (first.isEmpty()) return Optional.empty();
+        /**
+         * Конструктор
+         * @param cache кэш ключей объектов
+         */
+        public Parser(StringCache cache) {
+            if (cache == null) throw new IllegalArgumentException("cache==null");
+            this.cache = cache;
+        }
 
-            StringBuilder buff = new StringBuilder();
-            buff.append(first.get());
+        @Override
+        public boolean canStartWith(int c) {
+            return c >= 0 && (Character.isLetter(c) || c == '_' || c == '$');
+        }
+
+        @Override
+        public Optional<? extends Token<S>> parse(S ptr) {
+            if (ptr == null) throw new IllegalArgumentException("ptr==null");
 
-            ptr = ptr.move(1);
+            var len = 0;
             while (true){
-                var secord = ptr.get(0).flatMap(c -> Character.isLetter(c) || c == '_' || c == '$' ? Optional.of(c) : Optional.empty());
-                if( secord.isEmpty() )break;
-                buff.append(secord.get());
-                ptr = ptr.move(1);
+                var c = ptr.charAt(len);
+                if( c<0 || !(Character.isLetter(c) || c == '_' || c == '$') )break;
+                len++;
             }
+            if( len==0 )return Optional.empty();
 
-            return Optional.of(new IdentifierToken<>(buff.toString(), begin, ptr));
+            var value = cache != null && StringCache.isKey(ptr, len) ? cache.get(ptr, 0, len) : ptr.substring(0, len);
+            return Optional.of(new IdentifierToken<>(value, ptr, ptr.move(len)));
         }
     }
 }
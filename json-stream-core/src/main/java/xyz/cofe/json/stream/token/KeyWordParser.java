@@ -1,7 +1,6 @@
 package xyz.cofe.json.stream.token;
 
 import java.util.Optional;
-import java.util.function.Function;
 
 /**
  * Парсер ключевых слов:
@@ -12,45 +11,36 @@ import java.util.function.Function;
  * @param <S> Тип исходника
  */
 public class KeyWordParser<S extends CharPointer<S>> implements TokenParser<S> {
-    private Function<S,Optional<? extends Token<S>>> nullKeyword = ptr -> TokenParsers.expect(ptr,"null",false).map(r -> new NullToken<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> falseKeyword = ptr -> TokenParsers.expect(ptr,"false",false).map(r -> new FalseToken<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> trueKeyword = ptr -> TokenParsers.expect(ptr,"true",false).map(r -> new TrueToken<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> openParentheses = ptr -> TokenParsers.expect(ptr,"{",false).map(r -> new OpenParentheses<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> closeParentheses = ptr -> TokenParsers.expect(ptr,"}",false).map(r -> new CloseParentheses<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> openSquare = ptr -> TokenParsers.expect(ptr,"[",false).map(r -> new OpenSquare<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> closeSquare = ptr -> TokenParsers.expect(ptr,"]",false).map(r -> new CloseSquare<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> comma = ptr -> TokenParsers.expect(ptr,",",false).map(r -> new Comma<>(ptr, r._2()));
-    private Function<S,Optional<? extends Token<S>>> colon = ptr -> TokenParsers.expect(ptr,":",false).map(r -> new Colon<>(ptr, r._2()));
+    @Override
+    public boolean canStartWith(int c) {
+        return switch (c) {
+            case 'n', 'f', 't', '{', '}', '[', ']', ',', ':' -> true;
+            default -> false;
+        };
+    }
 
     @Override
     public Optional<? extends Token<S>> parse(S ptr) {
         if( ptr==null ) throw new IllegalArgumentException("ptr==null");
 
-        var r = nullKeyword.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = falseKeyword.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = trueKeyword.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = openParentheses.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = closeParentheses.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = openSquare.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = closeSquare.apply(ptr);
-        if( r.isPresent())return r;
-
-        r = comma.apply(ptr);
-        if( r.isPresent())return r;
+        return switch (ptr.charAt(0)) {
+            case 'n' -> expect(ptr, "null") ? Optional.of(new NullToken<>(ptr, ptr.move(4))) : Optional.empty();
+            case 'f' -> expect(ptr, "false") ? Optional.of(new FalseToken<>(ptr, ptr.move(5))) : Optional.empty();
+            case 't' -> expect(ptr, "true") ? Optional.of(new TrueToken<>(ptr, ptr.move(4))) : Optional.empty();
+            case '{' -> Optional.of(new OpenParentheses<>(ptr, ptr.move(1)));
+            case '}' -> Optional.of(new CloseParentheses<>(ptr, ptr.move(1)));
+            case '[' -> Optional.of(new OpenSquare<>(ptr, ptr.move(1)));
+            case ']' -> Optional.of(new CloseSquare<>(ptr, ptr.move(1)));
+            case ',' -> Optional.of(new Comma<>(ptr, ptr.move(1)));
+            case ':' -> Optional.of(new Colon<>(ptr, ptr.move(1)));
+            default -> Optional.empty();
+        };
+    }
 
-        r = colon.apply(ptr);
-        return r;
+    private static <S extends CharPointer<S>> boolean expect(S ptr, String keyword) {
+        for (var i = 1; i < keyword.length(); i++) {
+            if (ptr.charAt(i) != keyword.charAt(i)) return false;
+        }
+        return true;
     }
 }
@@ -0,0 +1,19 @@
+package xyz.cofe.json.stream.token;
+
+/**
+ * Строка и колонка в исходнике
+ *
+ * @param line   номер строки, начиная с 1
+ * @param column номер колонки (символа в строке), начиная с 1
+ */
+public record LineColumn(long line, int column) {
+    public LineColumn {
+        if (line < 1) throw new IllegalArgumentException("line<1");
+        if (column < 1) throw new IllegalArgumentException("column<1");
+    }
+
+    @Override
+    public String toString() {
+        return "line " + line + ", column " + column;
+    }
+}
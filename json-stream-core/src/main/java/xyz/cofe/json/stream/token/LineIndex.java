@@ -0,0 +1,124 @@
+package xyz.cofe.json.stream.token;
+
+import java.util.Arrays;
+
+/**
+ * Индекс начала строк исходника
+ *
+ * <p>
+ * Индекс строится при первом обращении одним проходом по исходнику,
+ * затем строка по смещению определяется двоичным поиском.
+ * Лексический анализ индекс не затрагивает.
+ * </p>
+ *
+ * <p>
+ * Строки разделяются символами <code>\n</code>, <code>\r</code> или парой <code>\r\n</code>.
+ * Смещения - в единицах исходника: символах для {@link #of(String)}, байтах для {@link Utf8Pointer}.
+ * </p>
+ */
+public final class LineIndex {
+    /**
+     * Поиск перевода строки
+     */
+    interface NewLines {
+        /**
+         * Поиск следующего перевода строки
+         *
+         * @param from смещение, с которого начинается поиск
+         * @return смещение начала следующей строки (после <code>\n</code>, <code>\r</code> или <code>\r\n</code>) или -1
+         */
+        long find(long from);
+    }
+
+    private final NewLines newLines;
+
+    /**
+     * Смещения начала строк, кроме первой
+     */
+    private volatile long[] starts;
+
+    LineIndex(NewLines newLines) {
+        this.newLines = newLines;
+    }
+
+    /**
+     * Индекс строк для текста
+     *
+     * @param text текст
+     * @return индекс, строится при первом обращении
+     */
+    public static LineIndex of(String text) {
+        if (text == null) throw new IllegalArgumentException("text==null");
+        return new LineIndex(from -> {
+            for (var i = (int) from; i < text.length(); i++) {
+                var c = text.charAt(i);
+                if (c == '\n') return i + 1;
+                if (c == '\r') return i + 1 < text.length() && text.charAt(i + 1) == '\n' ? i + 2 : i + 1;
+            }
+            return -1;
+        });
+    }
+
+    private long[] starts() {
+        var s = starts;
+        if (s != null) return s;
+
+        s = new long[16];
+        var cnt = 0;
+        var pos = newLines.find(0);
+        while (pos >= 0) {
+            if (cnt == s.length) s = Arrays.copyOf(s, cnt * 2);
+            s[cnt++] = pos;
+            pos = newLines.find(pos);
+        }
+
+        s = Arrays.copyOf(s, cnt);
+        starts = s;
+        return s;
+    }
+
+    /**
+     * Номер строки
+     *
+     * @param offset смещение
+     * @return номер строки, начиная с 1
+     */
+    public long line(long offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset<0");
+        var idx = Arrays.binarySearch(starts(), offset);
+        return idx >= 0 ? idx + 2 : -idx;
+    }
+
+    /**
+     * Смещение начала строки
+     *
+     * @param line номер строки, начиная с 1
+     * @return смещение
+     */
+    public long lineStart(long line) {
+        if (line < 1) throw new IllegalArgumentException("line<1");
+        var s = starts();
+        if (line - 2 >= s.length) throw new IllegalArgumentException("line>" + (s.length + 1));
+        return line == 1 ? 0 : s[(int) (line - 2)];
+    }
+
+    /**
+     * Кол-во строк
+     *
+     * @return кол-во строк
+     */
+    public long lines() {
+        return starts().length + 1L;
+    }
+
+    /**
+     * Строка и колонка, колонка считается в единицах исходника
+     *
+     * @param offset смещение
+     * @return строка и колонка
+     */
+    public LineColumn lineColumn(long offset) {
+        var line = line(offset);
+        return new LineColumn(line, Math.toIntExact(offset - lineStart(line) + 1));
+    }
+}
@@ -19,30 +19,30 @@ public record MLComment<S extends CharPointer<S>>(
      * @param <S> Тип исходника
      */
     public static class Parser<S extends CharPointer<S>> implements TokenParser<S> {
+        @Override
+        public boolean canStartWith(int c) {
+            return c == '/';
+        }
+
         @Override
         public Optional<? extends Token<S>> parse(S ptr) {
             if( ptr==null ) throw new IllegalArgumentException("ptr==null");
-            var begin = ptr;
-            var buff = new StringBuilder();
-
-            if( !ptr.get(0).map(c -> c=='/').orElse(false) )return Optional.empty();
-            if( !ptr.get(1).map(c -> c=='*').orElse(false) )return Optional.empty();
 
-            buff.append("/*");
+            if( ptr.charAt(0)!='/' )return Optional.empty();
+            if( ptr.charAt(1)!='*' )return Optional.empty();
 
-            ptr = ptr.move(2);
+            var len = 2;
             while (true){
-                if( ptr.get(0).isEmpty() )break;
-                if( ptr.get(0).map(c -> c=='*').orElse(false) && ptr.get(1).map(c -> c=='/').orElse(false) ){
-                    ptr = ptr.move(2);
-                    buff.append("*/");
+                var c = ptr.charAt(len);
+                if( c<0 )break;
+                if( c=='*' && ptr.charAt(len+1)=='/' ){
+                    len += 2;
                     break;
                 }
-                buff.append(ptr.get(0).get());
-                ptr = ptr.move(1);
+                len++;
             }
 
-            return Optional.of( new MLComment<>(buff.toString(), begin, ptr) );
+            return Optional.of( new MLComment<>(ptr.substring(0, len), ptr, ptr.move(len)) );
         }
     }
 }
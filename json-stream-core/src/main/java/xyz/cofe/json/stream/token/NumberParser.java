@@ -6,11 +6,6 @@ import xyz.cofe.coll.im.Tuple2;
 import java.math.BigInteger;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
-
-import static xyz.cofe.json.stream.token.TokenParsers.expect;
-import static xyz.cofe.json.stream.token.TokenParsers.join;
-import static xyz.cofe.json.stream.token.TokenParsers.or;
 
 /**
  * <pre>
@@ -46,43 +41,208 @@ import static xyz.cofe.json.stream.token.TokenParsers.or;
  * @param <S>
  */
 public class NumberParser<S extends CharPointer<S>> implements TokenParser<S> {
+    @Override
+    public boolean canStartWith(int c) {
+        return c == '-' || c == '.' || (c >= '0' && c <= '9');
+    }
+
     @Override
     public Optional<Token<S>> parse(S ptr) {
         if (ptr == null) throw new IllegalArgumentException("ptr==null");
 
-        var begin = ptr;
+        var negative = ptr.charAt(0) == '-';
+        var start = negative ? 1 : 0;
+
+        if (ptr.charAt(start) == '0') {
+            var base = switch (ptr.charAt(start + 1)) {
+                case 'x', 'X' -> 16;
+                case 'o', 'O' -> 8;
+                case 'b', 'B' -> 2;
+                default -> 0;
+            };
+            if (base > 0 && Digit.digit(ptr.charAt(start + 2), base) >= 0) {
+                return Optional.of(integer(ptr, start + 2, base, negative));
+            }
+        }
 
-        var signTup = sign(ptr).orElse(Tuple2.of(1, ptr));
-        int sign = signTup._1();
-        ptr = signTup._2();
+        return decimal(ptr, start, negative);
+    }
 
-        var rawFloat = floatParse(ptr);
-        if (rawFloat.isPresent()) {
-            return rawFloat.map(
-                rawFloatSTuple2 ->
-                    new DoubleToken<>(rawFloatSTuple2._1().toDouble(), begin, rawFloatSTuple2._2()));
+    /**
+     * Количество значащих цифр мантиссы, которое гарантированно помещается в long
+     */
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    /**
+     * Максимальная мантисса, точно представимая в double
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Степени 10, точно представимые в double
+     */
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22
+    };
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Десятичное целое или число с плавающей точкой, за один проход
+     *
+     * @param ptr      начало лексемы
+     * @param start    смещение первой цифры (или точки)
+     * @param negative признак знака
+     * @return лексема
+     */
+    private Optional<Token<S>> decimal(S ptr, int start, boolean negative) {
+        long mantissa = 0;
+        int significant = 0;
+        int exp10 = 0;
+        boolean exact = true;
+
+        var i = start;
+        while (true) {
+            var c = ptr.charAt(i);
+            if (!isDigit(c)) break;
+            if (significant < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) significant++;
+            } else {
+                exact = false;
+            }
+            i++;
+        }
+        var intEnd = i;
+        var intDigits = intEnd - start;
+
+        if (ptr.charAt(i) != '.' || (intDigits == 0 && !isDigit(ptr.charAt(i + 1)))) {
+            if (intDigits == 0) return Optional.empty();
+            return Optional.of(decimalInteger(ptr, start, intEnd, mantissa, negative));
+        }
+
+        // дробная часть
+        i++;
+        while (true) {
+            var c = ptr.charAt(i);
+            if (!isDigit(c)) break;
+            if (significant < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) significant++;
+                exp10--;
+            } else {
+                exact = false;
+            }
+            i++;
         }
 
-        var pptr = ptr;
-        var rawInt = prefInt(pptr, 8, 'o', 'O')
-            .or(() -> prefInt(pptr, 16, 'x', 'X'))
-            .or(() -> prefInt(pptr, 2, 'b', 'B'))
-            .or(() -> decInt(pptr));
-        if (rawInt.isPresent()) {
-            var end = rawInt.get()._2();
-            var pref = rawInt.get()._1().toPreferenceNumber(sign);
-            if( pref instanceof RawInt.PreferenceNumber.Long lng){
-                return Optional.of(new LongToken<>(lng.number(), begin, end));
-            } else if( pref instanceof RawInt.PreferenceNumber.Int int0){
-                return Optional.of(new IntToken<>(int0.number(), begin, end));
-            } else if( pref instanceof RawInt.PreferenceNumber.Big big){
-                return Optional.of(new BigIntToken<>(big.number(), begin, end));
-            } else if( pref instanceof RawInt.PreferenceNumber.OutOfLong lng2){
-                return Optional.of(new BigIntToken<>(lng2.number(), begin, end));
+        // экспонента
+        var e = ptr.charAt(i);
+        if (e == 'e' || e == 'E') {
+            var j = i + 1;
+            var expNegative = false;
+            var sign = ptr.charAt(j);
+            if (sign == '+' || sign == '-') {
+                expNegative = sign == '-';
+                j++;
+            }
+            if (isDigit(ptr.charAt(j))) {
+                var exp = 0;
+                while (isDigit(ptr.charAt(j))) {
+                    if (exp < 100_000) exp = exp * 10 + (ptr.charAt(j) - '0');
+                    j++;
+                }
+                exp10 += expNegative ? -exp : exp;
+                i = j;
             }
         }
 
-        return Optional.empty();
+        double value;
+        if (exact && mantissa == 0) {
+            value = 0.0;
+        } else if (exact && mantissa <= MAX_EXACT_MANTISSA && exp10 >= -22 && exp10 <= 22) {
+            // Clinger: мантисса и степень 10 точны, результат - одно корректно округленное действие
+            value = exp10 < 0 ? mantissa / POW10[-exp10] : mantissa * POW10[exp10];
+        } else {
+            value = new RawFloat(text(ptr, start, i)).toDouble();
+        }
+
+        return Optional.of(new DoubleToken<>(negative ? -value : value, ptr, ptr.move(i)));
+    }
+
+    private static <S extends CharPointer<S>> String text(S ptr, int from, int to) {
+        var sb = new StringBuilder(to - from);
+        for (var k = from; k < to; k++) sb.append((char) ptr.charAt(k));
+        return sb.toString();
+    }
+
+    /**
+     * Десятичное целое
+     *
+     * @param ptr      начало лексемы
+     * @param start    смещение первой цифры
+     * @param end      смещение после последней цифры
+     * @param value    значение, если цифр не более 18
+     * @param negative признак знака
+     * @return лексема
+     */
+    private Token<S> decimalInteger(S ptr, int start, int end, long value, boolean negative) {
+        if (end - start <= 18) {
+            var bigSuffix = ptr.charAt(end) == 'n';
+            var tokEnd = ptr.move(bigSuffix ? end + 1 : end);
+            var v = negative ? -value : value;
+            if (bigSuffix) return new BigIntToken<>(BigInteger.valueOf(v), ptr, tokEnd);
+            if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) return new IntToken<>((int) v, ptr, tokEnd);
+            return new LongToken<>(v, ptr, tokEnd);
+        }
+        return integer(ptr, start, 10, negative);
+    }
+
+    /**
+     * Целое в указанной системе счисления
+     *
+     * @param ptr      начало лексемы
+     * @param start    смещение первой цифры
+     * @param base     система счисления
+     * @param negative признак знака
+     * @return лексема
+     */
+    private Token<S> integer(S ptr, int start, int base, boolean negative) {
+        long value = 0;
+        boolean overflow = false;
+        var i = start;
+        while (true) {
+            var d = Digit.digit(ptr.charAt(i), base);
+            if (d < 0) break;
+            if (!overflow) {
+                if (value > (Long.MAX_VALUE - d) / base) {
+                    overflow = true;
+                } else {
+                    value = value * base + d;
+                }
+            }
+            i++;
+        }
+
+        var bigSuffix = ptr.charAt(i) == 'n';
+        var end = ptr.move(bigSuffix ? i + 1 : i);
+
+        if (!overflow) {
+            var v = negative ? -value : value;
+            if (bigSuffix) return new BigIntToken<>(BigInteger.valueOf(v), ptr, end);
+            if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) return new IntToken<>((int) v, ptr, end);
+            return new LongToken<>(v, ptr, end);
+        }
+
+        var big = new BigInteger(text(ptr, start, i), base);
+        if (negative) big = big.negate();
+        if (bigSuffix) return new BigIntToken<>(big, ptr, end);
+        if (big.bitLength() < 64) return new LongToken<>(big.longValue(), ptr, end);
+        return new BigIntToken<>(big, ptr, end);
     }
 
     /**
@@ -99,68 +259,6 @@ public class NumberParser<S extends CharPointer<S>> implements TokenParser<S> {
         }
     }
 
-    @SuppressWarnings("UnnecessaryLocalVariable")
-    private Optional<Tuple2<RawFloat, S>> floatParse(S ptr) {
-        Function<S, Optional<Tuple2<String, S>>> dec = this::dec_part;
-        Function<S, Optional<Tuple2<String, S>>> frac = dec;
-        Function<S, Optional<Tuple2<String, S>>> exp = dec;
-        Function<S, Optional<Tuple2<String, S>>> dot = p1 -> expect(p1, ".", false);
-        Function<S, Optional<Tuple2<String, S>>> e = p1 -> expect(p1, "e", true);
-        Function<S, Optional<Tuple2<String, S>>> sign = p1 -> expect(p1, "+", false).or(() -> expect(p1, "-", false));
-
-        Function<S, Optional<Tuple2<String, S>>> dec_dot_frac_e_sign_exp = join(dec, join(dot, join(frac, join(e, join(sign, exp)))));
-        Function<S, Optional<Tuple2<String, S>>> dec_dot_frac_e_exp = join(dec, join(dot, join(frac, join(e, exp))));
-        Function<S, Optional<Tuple2<String, S>>> dec_dot_frac = join(dec, join(dot, frac));
-        Function<S, Optional<Tuple2<String, S>>> dec_dot_e_sign_exp = join(dec, join(dot, join(e, join(sign, exp))));
-        Function<S, Optional<Tuple2<String, S>>> dec_dot_e_exp = join(dec, join(dot, join(e, exp)));
-        Function<S, Optional<Tuple2<String, S>>> dec_dot = join(dec, dot);
-
-        Function<S, Optional<Tuple2<String, S>>> dot_frac_e_sign_exp = join(dot, join(frac, join(e, join(sign, exp))));
-        Function<S, Optional<Tuple2<String, S>>> dot_frac_e_exp = join(dot, join(frac, join(e, exp)));
-        Function<S, Optional<Tuple2<String, S>>> dot_frac = join(dot, frac);
-
-        var parseFun = or(
-            dec_dot_frac_e_sign_exp,
-            dec_dot_frac_e_exp,
-            dec_dot_frac,
-            dec_dot_e_sign_exp,
-            dec_dot_e_exp,
-            dec_dot,
-            dot_frac_e_sign_exp,
-            dot_frac_e_exp,
-            dot_frac
-        );
-
-        var r = parseFun.apply(ptr).map(tup -> Tuple2.of(new RawFloat(tup._1()), tup._2()));
-        return r;
-    }
-
-    private Optional<Tuple2<String, S>> dec_part(S ptr) {
-        var c0 = ptr.get(0).flatMap(c -> {
-            var d = Digit.digit(c, 10);
-            return d < 0 ? Optional.empty() : Optional.of(c);
-        });
-
-        if (c0.isEmpty()) return Optional.empty();
-        var p = ptr.move(1);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(c0.get());
-
-        while (true) {
-            var c1 = p.get(0).flatMap(c -> {
-                var d = Digit.digit(c, 10);
-                return d < 0 ? Optional.empty() : Optional.of(c);
-            });
-            if (c1.isEmpty()) break;
-
-            sb.append(c1.get());
-            p = p.move(1);
-        }
-
-        return Optional.of(Tuple2.of(sb.toString(), p));
-    }
-
     /**
      * Сырое значение, целое
      * @param digits цифры
@@ -233,75 +331,4 @@ public class NumberParser<S extends CharPointer<S>> implements TokenParser<S> {
             }
         }
     }
-
-    private Optional<Tuple2<RawInt, S>> prefInt(S ptr, int base, char pref1, char pref2) {
-        return ptr.get(0).flatMap(c0 -> ptr.get(1).flatMap(c1 -> {
-            if (c0 != '0' || !(c1 == pref1 || c1 == pref2)) return Optional.empty();
-
-            var digits = ImList.<Integer>of();
-            var p = ptr.move(2);
-            while (true) {
-                var digit = p.get(0).flatMap(c -> {
-                    var d = Digit.digit(c, base);
-                    return d < 0 ? Optional.empty() : Optional.of(d);
-                });
-                if (digit.isPresent()) {
-                    digits = digits.prepend(digit.get());
-                    p = p.move(1);
-                } else {
-                    break;
-                }
-            }
-
-            var pp = p;
-            var suffTup = p.get(0).flatMap(c -> c == 'n' ?
-                Optional.of(Tuple2.of(true, pp.move(1))) : Optional.empty()).orElse(Tuple2.of(false, p)
-            );
-
-            p = suffTup._2();
-            var big = suffTup._1();
-
-            return Optional.of(
-                Tuple2.of(new RawInt(digits.reverse(), base, big), p)
-            );
-        }));
-    }
-
-    private Optional<Tuple2<RawInt, S>> decInt(S ptr) {
-        return ptr.get(0).flatMap(c0 -> ptr.get(1).flatMap(c1 -> {
-            var d0 = ptr.get(0).flatMap(c -> {
-                var d = Digit.digit(c, 10);
-                return d < 0 ? Optional.empty() : Optional.of(d);
-            });
-            if (d0.isEmpty()) return Optional.empty();
-
-            var digits = ImList.<Integer>of(d0.get());
-            var p = ptr.move(1);
-            while (true) {
-                var digit = p.get(0).flatMap(c -> {
-                    var d = Digit.digit(c, 10);
-                    return d < 0 ? Optional.empty() : Optional.of(d);
-                });
-                if (digit.isPresent()) {
-                    digits = digits.prepend(digit.get());
-                    p = p.move(1);
-                } else {
-                    break;
-                }
-            }
-
-            var pp = p;
-            var suffTup = p.get(0).flatMap(c -> c == 'n' ? Optional.of(Tuple2.of(true, pp.move(1))) : Optional.empty()).orElse(Tuple2.of(false, p));
-            p = suffTup._2();
-            var big = suffTup._1();
-
-            return Optional.of(
-                Tuple2.of(new RawInt(digits.reverse(), 10, big), p)
-            );
-        }));
-    }
-
-    private Optional<Tuple2<Integer, S>> sign(S ptr) {
-        return ptr.get(0).flatMap(c -> c == '-' ? Optional.of(Tuple2.of(-1, ptr.move(1))) : Optional.empty());
-    }
 }
@@ -0,0 +1,268 @@
+package xyz.cofe.json.stream.token;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Указатель на исходник - поток символов {@link Reader}
+ *
+ * <p>
+ * Символы читаются из потока порциями (chunk) по мере продвижения указателя.
+ * Порции связаны только "вперед" - каждая порция ссылается на следующую, но не на предыдущую.
+ * Поэтому порция, на которую уже не ссылается ни один указатель (и ни одна лексема),
+ * становится доступна сборщику мусора, и расход памяти не зависит от размера исходника.
+ * </p>
+ *
+ * <p>
+ * Порции удерживает и результат, который хранит лексемы,
+ * например {@link xyz.cofe.json.stream.ast.AstParser#parse(Reader)}: тогда в памяти весь документ.
+ * </p>
+ *
+ * <p>
+ * Следствие - нельзя смещаться назад за пределы текущей порции,
+ * а также не стоит удерживать начальный указатель, если исходник большой.
+ * </p>
+ *
+ * <p>Экземпляры, созданные от одного потока, не потокобезопасны</p>
+ */
+public final class ReaderPointer implements CharPointer<ReaderPointer> {
+    /**
+     * Размер порции по умолчанию
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * Общий для всех указателей источник порций
+     */
+    private static final class Source {
+        private final Reader reader;
+        private final int chunkSize;
+        private boolean eof;
+
+        private Source(Reader reader, int chunkSize) {
+            this.reader = reader;
+            this.chunkSize = chunkSize;
+        }
+
+        private Chunk read(long start) {
+            if (eof) return null;
+
+            char[] buff = new char[chunkSize];
+            try {
+                while (true) {
+                    int cnt = reader.read(buff, 0, buff.length);
+                    if (cnt < 0) {
+                        eof = true;
+                        return null;
+                    }
+                    if (cnt > 0) return new Chunk(this, start, buff, cnt);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Порция символов
+     */
+    private static final class Chunk {
+        private final Source source;
+        private final long start;
+        private final char[] data;
+        private final int length;
+        private Chunk next;
+
+        /**
+         * Кол-во переводов строк до начала порции
+         */
+        private long lines;
+
+        /**
+         * Смещение начала строки, в которой начинается порция
+         */
+        private long lineStart;
+
+        private Chunk(Source source, long start, char[] data, int length) {
+            this.source = source;
+            this.start = start;
+            this.data = data;
+            this.length = length;
+        }
+
+        private Chunk next() {
+            if (next != null) return next;
+            next = source.read(start + length);
+            if (next != null) {
+                // строки считаются один раз на порцию, предыдущие порции к этому моменту могут быть уже освобождены
+                var at = lines(length);
+                next.lines = at[0];
+                next.lineStart = at[1];
+            }
+            return next;
+        }
+
+        /**
+         * Переводы строк (<code>\n</code>, <code>\r</code>, <code>\r\n</code>) до заданного символа порции
+         *
+         * @param count кол-во символов с начала порции
+         * @return кол-во переводов строк от начала исходника и смещение начала последней строки
+         */
+        private long[] lines(int count) {
+            var cnt = lines;
+            var ls = lineStart;
+            for (var i = 0; i < count; i++) {
+                var c = data[i];
+                // \r перед \n - начало пары \r\n, перевод строки учитывается на \n, в т.ч. в следующей порции
+                if (c == '\n' || (c == '\r' && following(i) != '\n')) {
+                    cnt++;
+                    ls = start + i + 1;
+                }
+            }
+            return new long[]{cnt, ls};
+        }
+
+        /**
+         * Символ после заданного, следующая порция не читается
+         *
+         * @param i индекс символа в порции
+         * @return символ или -1
+         */
+        private int following(int i) {
+            if (i + 1 < length) return data[i + 1];
+            return next != null && next.length > 0 ? next.data[0] : -1;
+        }
+    }
+
+    private final Chunk chunk;
+    private final int index;
+
+    private ReaderPointer(Chunk chunk, int index) {
+        this.chunk = chunk;
+        this.index = index;
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param reader    исходник
+     * @param chunkSize размер порции чтения
+     */
+    public ReaderPointer(Reader reader, int chunkSize) {
+        if (reader == null) throw new IllegalArgumentException("reader==null");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize<1");
+        this.chunk = new Chunk(new Source(reader, chunkSize), 0, new char[0], 0);
+        this.index = 0;
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param reader исходник
+     */
+    public ReaderPointer(Reader reader) {
+        this(reader, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Смещение относительно начала потока
+     *
+     * @return смещение
+     */
+    public long offset() {
+        return chunk.start + index;
+    }
+
+    @Override
+    public Optional<Character> get(int offset) {
+        int t = index + offset;
+        if (t < 0) return Optional.empty();
+
+        Chunk c = chunk;
+        while (t >= c.length) {
+            t -= c.length;
+            c = c.next();
+            if (c == null) return Optional.empty();
+        }
+
+        return Optional.of(c.data[t]);
+    }
+
+    @Override
+    public int charAt(int offset) {
+        int t = index + offset;
+        if (t < 0) return -1;
+
+        Chunk c = chunk;
+        while (t >= c.length) {
+            t -= c.length;
+            c = c.next();
+            if (c == null) return -1;
+        }
+
+        return c.data[t];
+    }
+
+    @Override
+    public String substring(int from, int to) {
+        if (to < from) throw new IllegalArgumentException("to<from");
+        int t = index + from;
+        if (t < 0) throw new IndexOutOfBoundsException(from);
+
+        Chunk c = chunk;
+        while (t >= c.length) {
+            t -= c.length;
+            c = c.next();
+            if (c == null) throw new IndexOutOfBoundsException(from);
+        }
+
+        if (t + (to - from) <= c.length) return new String(c.data, t, to - from);
+
+        var chars = new char[to - from];
+        var i = 0;
+        while (i < chars.length) {
+            if (c == null) throw new IndexOutOfBoundsException(from + i);
+            var len = Math.min(chars.length - i, c.length - t);
+            System.arraycopy(c.data, t, chars, i, len);
+            i += len;
+            t = 0;
+            if (i < chars.length) c = c.next();
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public ReaderPointer move(int offset) {
+        if (offset == 0) return this;
+
+        int t = index + offset;
+        if (t < 0) throw new IllegalArgumentException("can't move before the current chunk, it may be already released");
+
+        Chunk c = chunk;
+        while (t >= c.length) {
+            var n = c.next();
+            if (n == null) break;
+            t -= c.length;
+            c = n;
+        }
+
+        return new ReaderPointer(c, t);
+    }
+
+    @Override
+    public Optional<LineColumn> lineColumn() {
+        var at = chunk.lines(Math.min(index, chunk.length));
+        return Optional.of(new LineColumn(at[0] + 1, Math.toIntExact(offset() - at[1] + 1)));
+    }
+
+    @Override
+    public int subtract(ReaderPointer other) {
+        if (other == null) throw new IllegalArgumentException("other==null");
+        if (other.chunk.source != chunk.source)
+            throw new IllegalArgumentException("other has different source");
+
+        return Math.toIntExact(offset() - other.offset());
+    }
+}
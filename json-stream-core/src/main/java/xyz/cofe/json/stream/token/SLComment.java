@@ -19,33 +19,38 @@ public record SLComment<S extends CharPointer<S>>(
      * @param <S> Тип исходника
      */
     public static class Parser<S extends CharPointer<S>> implements TokenParser<S> {
+        @Override
+        public boolean canStartWith(int c) {
+            return c == '/';
+        }
+
         @Override
         public Optional<? extends Token<S>> parse(S ptr) {
             if( ptr==null ) throw new IllegalArgumentException("ptr==null");
-            var begin = ptr;
-            var buff = new StringBuilder();
-
-            if( !ptr.get(0).map(c -> c=='/').orElse(false) )return Optional.empty();
-            if( !ptr.get(1).map(c -> c=='/').orElse(false) )return Optional.empty();
 
-            buff.append("//");
+            if( ptr.charAt(0)!='/' )return Optional.empty();
+            if( ptr.charAt(1)!='/' )return Optional.empty();
 
-            ptr = ptr.move(2);
+            var len = 2;
+            var text = -1;
             while (true){
-                if( ptr.get(0).isEmpty() )break;
-                if( ptr.get(0).map(c -> c=='\r').orElse(false) && ptr.get(1).map(c -> c=='\n').orElse(false) ){
-                    ptr = ptr.move(2);
+                var c = ptr.charAt(len);
+                if( c<0 )break;
+                if( c=='\r' && ptr.charAt(len+1)=='\n' ){
+                    text = len;
+                    len += 2;
                     break;
                 }
-                if( ptr.get(0).map(c -> c=='\n').orElse(false) ){
-                    ptr = ptr.move(1);
+                if( c=='\n' ){
+                    text = len;
+                    len++;
                     break;
                 }
-                buff.append(ptr.get(0).get());
-                ptr = ptr.move(1);
+                len++;
             }
+            if( text<0 )text = len;
 
-            return Optional.of( new SLComment<>(buff.toString(), begin, ptr) );
+            return Optional.of( new SLComment<>(ptr.substring(0, text), ptr, ptr.move(len)) );
         }
     }
 }
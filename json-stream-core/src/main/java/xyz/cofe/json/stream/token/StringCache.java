@@ -0,0 +1,244 @@
+package xyz.cofe.json.stream.token;
+
+/**
+ * Кэш строк для повторяющихся ключей объектов при лексическом анализе
+ *
+ * <p>
+ * Для одинакового текста в исходнике возвращает один и тот же экземпляр {@link String}.
+ * Хэш вычисляется по символам исходника, поэтому при попадании в кэш строка не создается.
+ * </p>
+ *
+ * <p>
+ * Лексический анализатор обращается к кэшу только для строк и идентификаторов, за которыми следует <code>:</code>,
+ * значения почти не повторяются и только вытесняли бы ключи.
+ * </p>
+ *
+ * <p>
+ * Кэш ограничен: прямое отображение хэша в ячейку таблицы, при коллизии старое значение вытесняется.
+ * Строки длиннее {@link #maxLength()} символов (char) не кэшируются.
+ * </p>
+ *
+ * <p>
+ * Можно использовать из нескольких потоков: при гонке возможен только промах кэша.
+ * </p>
+ */
+public final class StringCache {
+    /**
+     * Размер таблицы по умолчанию
+     */
+    public static final int DEFAULT_SIZE = 4096;
+
+    /**
+     * Максимальная длина кэшируемой строки по умолчанию
+     */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final String[] entries;
+    private final int mask;
+    private final int maxLength;
+
+    /**
+     * Конструктор
+     *
+     * @param size      размер таблицы, округляется вверх до степени 2
+     * @param maxLength максимальная длина кэшируемой строки
+     */
+    public StringCache(int size, int maxLength) {
+        if (size < 1) throw new IllegalArgumentException("size<1");
+        if (size > (1 << 30)) throw new IllegalArgumentException("size>2^30");
+        if (maxLength < 0) throw new IllegalArgumentException("maxLength<0");
+
+        var cap = Integer.highestOneBit(size);
+        if (cap < size) cap <<= 1;
+
+        this.entries = new String[cap];
+        this.mask = cap - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Конструктор с размерами по умолчанию
+     */
+    public StringCache() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Максимальная длина кэшируемой строки в символах (char)
+     *
+     * @return длина
+     */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Проверка позиции ключа: после пробелов следует <code>:</code>
+     *
+     * @param ptr    указатель
+     * @param offset смещение после лексемы
+     * @param <S>    тип исходника
+     * @return true - лексема в позиции ключа объекта
+     */
+    static <S extends CharPointer<S>> boolean isKey(S ptr, int offset) {
+        while (true) {
+            var c = ptr.charAt(offset);
+            if (c == ':') return true;
+            if (c < 0 || !Character.isWhitespace(c)) return false;
+            offset++;
+        }
+    }
+
+    /**
+     * Проверка позиции ключа: после ASCII пробелов следует <code>:</code>
+     *
+     * @param src исходник
+     * @param pos смещение после лексемы в байтах
+     * @return true - лексема в позиции ключа объекта
+     */
+    static boolean isKey(Utf8Pointer.Source src, long pos) {
+        var size = src.size();
+        while (pos < size) {
+            var b = src.byteAt(pos);
+            if (b == ':') return true;
+            if (!(b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F))) return false;
+            pos++;
+        }
+        return false;
+    }
+
+    private int index(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Получение строки по тексту исходника
+     *
+     * @param ptr  указатель
+     * @param from начало (включительно), смещение относительно указателя
+     * @param to   конец (исключительно), смещение относительно указателя
+     * @param <S>  тип исходника
+     * @return строка
+     */
+    public <S extends CharPointer<S>> String get(S ptr, int from, int to) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+
+        var len = to - from;
+        if (len > maxLength) return ptr.substring(from, to);
+
+        var hash = 0;
+        for (var i = from; i < to; i++) {
+            hash = 31 * hash + ptr.charAt(i);
+        }
+
+        var idx = index(hash);
+        var str = entries[idx];
+        if (str != null && str.hashCode() == hash && str.length() == len) {
+            var same = true;
+            for (var i = 0; i < len; i++) {
+                if (str.charAt(i) != ptr.charAt(from + i)) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) return str;
+        }
+
+        str = ptr.substring(from, to);
+        entries[idx] = str;
+        return str;
+    }
+
+    /**
+     * Декодирование символа UTF-8
+     *
+     * @return (код символа &lt;&lt; 3) | длина последовательности, или -1 для некорректной последовательности
+     */
+    private static long codePoint(Utf8Pointer.Source src, long pos, long to) {
+        int b0 = src.byteAt(pos) & 0xFF;
+        if (b0 < 0x80) return ((long) b0 << 3) | 1;
+
+        int len;
+        int cp;
+        if (b0 >= 0xC2 && b0 <= 0xDF) {
+            len = 2;
+            cp = b0 & 0x1F;
+        } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+            len = 3;
+            cp = b0 & 0x0F;
+        } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+            len = 4;
+            cp = b0 & 0x07;
+        } else {
+            return -1;
+        }
+
+        if (pos + len > to) return -1;
+        for (var i = 1; i < len; i++) {
+            int b = src.byteAt(pos + i) & 0xFF;
+            if ((b & 0xC0) != 0x80) return -1;
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        // избыточная запись, суррогаты и код за пределами Unicode - некорректны
+        if (len == 3 && (cp < 0x800 || (cp >= 0xD800 && cp <= 0xDFFF))) return -1;
+        if (len == 4 && (cp < 0x10000 || cp > 0x10FFFF)) return -1;
+        return ((long) cp << 3) | len;
+    }
+
+    /**
+     * Получение строки по байтам UTF-8
+     *
+     * @param src  исходник
+     * @param from начало (включительно), смещение в байтах
+     * @param to   конец (исключительно), смещение в байтах
+     * @return строка
+     */
+    String get(Utf8Pointer.Source src, long from, long to) {
+        // символ (char) занимает от 1 до 3 байт
+        if (to - from > 3L * maxLength) return src.decode(from, to);
+
+        var hash = 0;
+        var len = 0;
+        for (var i = from; i < to; ) {
+            var cp = codePoint(src, i, to);
+            if (cp < 0) return src.decode(from, to);
+
+            var c = (int) (cp >>> 3);
+            if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                hash = 31 * (31 * hash + Character.highSurrogate(c)) + Character.lowSurrogate(c);
+                len += 2;
+            } else {
+                hash = 31 * hash + c;
+                len++;
+            }
+            if (len > maxLength) return src.decode(from, to);
+            i += cp & 7;
+        }
+
+        var idx = index(hash);
+        var str = entries[idx];
+        if (str != null && str.hashCode() == hash && str.length() == len && same(str, src, from, to)) {
+            return str;
+        }
+
+        str = src.decode(from, to);
+        entries[idx] = str;
+        return str;
+    }
+
+    private static boolean same(String str, Utf8Pointer.Source src, long from, long to) {
+        var k = 0;
+        for (var i = from; i < to; ) {
+            var cp = codePoint(src, i, to);
+            var c = (int) (cp >>> 3);
+            if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                if (str.charAt(k++) != Character.highSurrogate(c)) return false;
+                if (str.charAt(k++) != Character.lowSurrogate(c)) return false;
+            } else {
+                if (str.charAt(k++) != c) return false;
+            }
+            i += cp & 7;
+        }
+        return true;
+    }
+}
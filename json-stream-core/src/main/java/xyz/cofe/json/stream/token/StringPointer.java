@@ -16,6 +16,18 @@ public final class StringPointer implements CharPointer<StringPointer> {
      */
     public final int offset;
 
+    /**
+     * Индекс строк, общий для указателей, полученных от созданного конструктором
+     */
+    private final Lines lines;
+
+    /**
+     * Индекс строк, создается при первом обращении
+     */
+    private static final class Lines {
+        private volatile LineIndex index;
+    }
+
     /**
      * Конструктор
      * @param source Исходник - строка
@@ -24,6 +36,22 @@ public final class StringPointer implements CharPointer<StringPointer> {
     public StringPointer(String source, int offset) {
         this.source = source;
         this.offset = offset;
+        this.lines = new Lines();
+    }
+
+    private StringPointer(String source, int offset, Lines lines) {
+        this.source = source;
+        this.offset = offset;
+        this.lines = lines;
+    }
+
+    private LineIndex lines() {
+        var idx = lines.index;
+        if (idx == null) {
+            idx = LineIndex.of(source);
+            lines.index = idx;
+        }
+        return idx;
     }
 
     @Override
@@ -34,9 +62,22 @@ public final class StringPointer implements CharPointer<StringPointer> {
         return Optional.of(source.charAt(t));
     }
 
+    @Override
+    public int charAt(int offset) {
+        int t = offset + this.offset;
+        if (t < 0 || t >= source.length())
+            return -1;
+        return source.charAt(t);
+    }
+
+    @Override
+    public String substring(int from, int to) {
+        return source.substring(offset + from, offset + to);
+    }
+
     @Override
     public StringPointer move(int offset) {
-        return offset == 0 ? this : new StringPointer(source, offset + this.offset);
+        return offset == 0 ? this : new StringPointer(source, offset + this.offset, lines);
     }
 
     @Override
@@ -47,4 +88,10 @@ public final class StringPointer implements CharPointer<StringPointer> {
 
         return offset - other.offset;
     }
+
+    @Override
+    public Optional<LineColumn> lineColumn() {
+        if (source == null || offset < 0 || offset > source.length()) return Optional.empty();
+        return Optional.of(lines().lineColumn(offset));
+    }
 }
@@ -1,7 +1,5 @@
 package xyz.cofe.json.stream.token;
 
-import xyz.cofe.coll.im.Tuple2;
-
 import java.util.Optional;
 
 /**
@@ -18,6 +16,11 @@ import java.util.Optional;
  * escape_unicode_ext ::= '\&#x0075;' '{' hex_char hex_char hex_char hex_char hex_char '}'
  * </pre>
  *
+ * <p>
+ * escape_unicode_ext (код символа) не входит в JSON/JSON5 и по умолчанию не декодируется,
+ * см {@link Parser#codePointEscape(boolean)}
+ * </p>
+ *
  * @param value декодированное значение
  * @param begin начало лексемы
  * @param end конец лексемы
@@ -45,175 +48,172 @@ public record StringToken<S extends CharPointer<S>>(
      * @param <S> Тип исходника
      */
     public static class Parser<S extends CharPointer<S>> implements TokenParser<S> {
-        @Override
-        public Optional<StringToken<S>> parse(S ptr) {
-            if (ptr == null) throw new IllegalArgumentException("ptr==null");
-            return switch (expectQuote(ptr)) {
-                case 1 -> quotedString(ptr, 1);
-                case 2 -> quotedString(ptr, 2);
-                default -> Optional.empty();
-            };
+        private final StringCache cache;
+        private final boolean codePointEscape;
+
+        /**
+         * Конструктор
+         */
+        public Parser() {
+            this.cache = null;
+            this.codePointEscape = false;
         }
 
-        private int expectQuote(S ptr) {
-            return ptr.get(0).map(c ->
-                c == '\''
-                    ? 1 :
-                    c == '"' ? 2 : -1
-            ).orElse(-1);
+        /**
+         * Конструктор
+         * @param cache кэш ключей объектов
+         */
+        public Parser(StringCache cache) {
+            if (cache == null) throw new IllegalArgumentException("cache==null");
+            this.cache = cache;
+            this.codePointEscape = false;
         }
 
-        private Optional<StringToken<S>> quotedString(S ptr, int quoteType) {
-            S begin = ptr;
+        private Parser(Parser<S> sample, boolean codePointEscape) {
+            this.cache = sample.cache;
+            this.codePointEscape = codePointEscape;
+        }
 
-            StringBuilder buff = new StringBuilder();
-            ptr = ptr.move(1);
+        /**
+         * Декодирование <code>\&#x0075;{hhhhh}</code> - кода символа из пяти шестнадцатеричных цифр.
+         * Не входит в JSON/JSON5, по умолчанию выключено: последовательность остается в значении как есть.
+         *
+         * @param enable декодировать
+         * @return парсер с тем же кэшем
+         */
+        public Parser<S> codePointEscape(boolean enable) {
+            return new Parser<>(this, enable);
+        }
 
+        @Override
+        public boolean canStartWith(int c) {
+            return c == '\'' || c == '"';
+        }
+
+        @Override
+        public Optional<StringToken<S>> parse(S ptr) {
+            if (ptr == null) throw new IllegalArgumentException("ptr==null");
+
+            var quote = ptr.charAt(0);
+            if (quote != '\'' && quote != '"') return Optional.empty();
+
+            // быстрый путь - строка без escape последовательностей
+            var i = 1;
             while (true) {
-                var chr = encoded_char(ptr, quoteType);
-                if (chr.isPresent()) {
-                    var c = chr.get()._1();
-                    ptr = chr.get()._2();
-                    buff.append(c);
-                } else {
-                    var quote = expectQuote(ptr);
-                    if (quote == quoteType) {
-                        return Optional.of(new StringToken<>(buff.toString(), begin, ptr.move(1)));
-                    }else {
-                        return Optional.empty();
-                    }
+                var c = ptr.charAt(i);
+                if (c < 0) return Optional.empty();
+                if (c == quote) {
+                    var value = cache != null && StringCache.isKey(ptr, i + 1) ? cache.get(ptr, 1, i) : ptr.substring(1, i);
+                    return Optional.of(new StringToken<>(value, ptr, ptr.move(i + 1)));
                 }
+                if (c == '\\') break;
+                i++;
             }
-        }
 
-        private Optional<Tuple2<Character, S>> encoded_char(S ptr, int quoteType) {
-            return escaped_seq(ptr).or(() -> ptr.get(0).flatMap(c -> switch (c) {
-                case '\'' ->
-                    quoteType == 1 ? Optional.<Tuple2<Character, S>>empty() : Optional.of(Tuple2.of('\'', ptr.move(1)));
-                case '"' ->
-                    quoteType == 2 ? Optional.<Tuple2<Character, S>>empty() : Optional.of(Tuple2.of('"', ptr.move(1)));
-                default -> Optional.of(Tuple2.of(c, ptr.move(1)));
-            }));
-        }
+            // участки без escape копируются целиком, escape декодируются по одной
+            StringBuilder buff = new StringBuilder(i + 16);
+            var segment = 1;
+            while (true) {
+                var c = ptr.charAt(i);
+                if (c < 0) return Optional.empty();
+                if (c == quote) {
+                    buff.append(ptr.substring(segment, i));
+                    return Optional.of(new StringToken<>(buff.toString(), ptr, ptr.move(i + 1)));
+                }
 
-        private Optional<Tuple2<Character, S>> escaped_seq(S ptr) {
-            return escape_hex(ptr)
-                .or(() -> escape_unicode_ext(ptr))
-                .or(() -> escape_unicode(ptr))
-                .or(() -> escape_oct(ptr))
-                .or(() -> escape_simple(ptr))
-                ;
-        }
+                if (c == '\\') {
+                    buff.append(ptr.substring(segment, i));
+                    var len = escaped_seq(ptr, i, buff);
+                    if (len > 0) {
+                        i += len;
+                    } else {
+                        buff.append('\\');
+                        i++;
+                    }
+                    segment = i;
+                    continue;
+                }
 
-        // \ x hex hex
-        private Optional<Tuple2<Character, S>> escape_hex(S ptr) {
-            return
-                ptr.get(0).flatMap(
-                    c0 -> ptr.get(1).flatMap(
-                        c1 -> ptr.get(2).flatMap(
-                            c2 -> ptr.get(3).flatMap(
-                                c3 -> {
-                                    if (c0 != '\\') return Optional.empty();
-                                    if (c1 != 'x') return Optional.empty();
-
-                                    var d0 = Digit.digit(c2, 16);
-                                    var d1 = Digit.digit(c3, 16);
-
-                                    if (d0 < 0 || d1 < 0)
-                                        return Optional.empty();
-
-                                    var n =
-                                        d0 * 16
-                                            + d1;
-
-                                    return Optional.of(Tuple2.of((char) n, ptr.move(4)));
-                                }))));
+                i++;
+            }
         }
 
-        // \ u { hex hex hex hex hex }
-        private Optional<Tuple2<Character, S>> escape_unicode_ext(S ptr) {
-            return
-                ptr.get(0).flatMap(
-                    c0 -> ptr.get(1).flatMap(
-                        c1 -> ptr.get(2).flatMap(
-                            c2 -> ptr.get(3).flatMap(
-                                c3 -> ptr.get(4).flatMap(
-                                    c4 -> ptr.get(5).flatMap(
-                                        c5 -> ptr.get(6).flatMap(
-                                            c6 -> ptr.get(6).flatMap(
-                                                c7 -> ptr.get(6).flatMap(
-                                                    c8 -> {
-                                                        if (c0 != '\\') return Optional.empty();
-                                                        if (c1 != 'u') return Optional.empty();
-                                                        if (c2 != '{') return Optional.empty();
-                                                        if (c8 != '}') return Optional.empty();
-
-                                                        var d0 = Digit.digit(c3, 16);
-                                                        var d1 = Digit.digit(c4, 16);
-                                                        var d2 = Digit.digit(c5, 16);
-                                                        var d3 = Digit.digit(c6, 16);
-                                                        var d4 = Digit.digit(c7, 16);
-
-                                                        if (d0 < 0 || d1 < 0 || d2 < 0 || d3 < 0 || d4 < 0)
-                                                            return Optional.empty();
-
-                                                        var n =
-                                                            d0 * 16 * 16 * 16 * 16
-                                                                + d1 * 16 * 16 * 16
-                                                                + d2 * 16 * 16
-                                                                + d3 * 16
-                                                                + d4;
-
-                                                        return Optional.of(Tuple2.of((char) n, ptr.move(9)));
-                                                    })))))))));
-        }
+        /**
+         * Распознание escape последовательности
+         * @param ptr указатель
+         * @param i смещение символа '\\'
+         * @param buff куда добавить декодированный символ
+         * @return длина последовательности или 0
+         */
+        private int escaped_seq(S ptr, int i, StringBuilder buff) {
+            var c1 = ptr.charAt(i + 1);
+
+            // \ x hex hex
+            if (c1 == 'x') {
+                var d0 = Digit.digit(ptr.charAt(i + 2), 16);
+                var d1 = Digit.digit(ptr.charAt(i + 3), 16);
+                if (d0 >= 0 && d1 >= 0) {
+                    buff.append((char) (d0 * 16 + d1));
+                    return 4;
+                }
+            }
 
-        // \ u hex hex hex hex
-        private Optional<Tuple2<Character, S>> escape_unicode(S ptr) {
-            return
-                ptr.get(0).flatMap(c0 -> ptr.get(1).flatMap(c1 -> ptr.get(2).flatMap(c2 -> ptr.get(3).flatMap(c3 -> ptr.get(4).flatMap(c4 -> ptr.get(5).flatMap(c5 -> {
-                    if (c0 != '\\') return Optional.empty();
-                    if (c1 != 'u') return Optional.empty();
-
-                    var d0 = Digit.digit(c2, 16);
-                    var d1 = Digit.digit(c3, 16);
-                    var d2 = Digit.digit(c4, 16);
-                    var d3 = Digit.digit(c5, 16);
-                    if (d0 < 0 || d1 < 0 || d2 < 0 || d3 < 0) return Optional.empty();
-
-                    var n = d0 * 16 * 16 * 16 + d1 * 16 * 16 + d2 * 16 + d3;
-                    return Optional.of(Tuple2.of((char) n, ptr.move(6)));
-                }))))));
-        }
+            if (c1 == 'u') {
+                // \ u { hex hex hex hex hex }
+                if (codePointEscape && ptr.charAt(i + 2) == '{' && ptr.charAt(i + 8) == '}') {
+                    var n = hex(ptr, i + 3, 5);
+                    if (n >= 0) {
+                        buff.appendCodePoint(n);
+                        return 9;
+                    }
+                }
 
-        private Optional<Tuple2<Character, S>> escape_oct(S ptr) {
-            return ptr.get(0).flatMap(c0 -> ptr.get(1).flatMap(c1 -> ptr.get(2).flatMap(c2 -> ptr.get(3).flatMap(c3 -> {
-                if (c0 != '\\') return Optional.empty();
+                // \ u hex hex hex hex
+                var n = hex(ptr, i + 2, 4);
+                if (n >= 0) {
+                    buff.append((char) n);
+                    return 6;
+                }
+            }
 
-                var d1 = Digit.digit(c1, 8);
-                var d2 = Digit.digit(c2, 8);
-                var d3 = Digit.digit(c3, 8);
-                if (d1 < 0 || d2 < 0 || d3 < 0) return Optional.empty();
+            // \ oct oct oct
+            var o1 = Digit.digit(c1, 8);
+            var o2 = Digit.digit(ptr.charAt(i + 2), 8);
+            var o3 = Digit.digit(ptr.charAt(i + 3), 8);
+            if (o1 >= 0 && o2 >= 0 && o3 >= 0) {
+                buff.append((char) (o1 * 8 * 8 + o2 * 8 + o3));
+                return 4;
+            }
 
-                var n = d1 * 8 * 8 + d2 * 8 + d3;
-                return Optional.of(Tuple2.of((char) n, ptr.move(4)));
-            }))));
+            var simple = switch (c1) {
+                case '0' -> 0;
+                case 'b' -> 8;
+                case 'f' -> 12;
+                case 'n' -> 10;
+                case 'r' -> 13;
+                case 't' -> 9;
+                case 'v' -> 11;
+                case '\'' -> '\'';
+                case '"' -> '"';
+                case '\\' -> '\\';
+                default -> -1;
+            };
+            if (simple >= 0) {
+                buff.append((char) simple);
+                return 2;
+            }
+
+            return 0;
         }
 
-        private Optional<Tuple2<Character, S>> escape_simple(S ptr) {
-            return ptr.get(0).flatMap(c0 -> ptr.get(1).flatMap(c1 -> {
-                if (c0 == '\\' && c1 == '0') return Optional.of(Tuple2.of((char) 0, ptr.move(2)));
-                if (c0 == '\\' && c1 == 'b') return Optional.of(Tuple2.of((char) 8, ptr.move(2)));
-                if (c0 == '\\' && c1 == 'f') return Optional.of(Tuple2.of((char) 12, ptr.move(2)));
-                if (c0 == '\\' && c1 == 'n') return Optional.of(Tuple2.of((char) 10, ptr.move(2)));
-                if (c0 == '\\' && c1 == 'r') return Optional.of(Tuple2.of((char) 13, ptr.move(2)));
-                if (c0 == '\\' && c1 == 't') return Optional.of(Tuple2.of((char) 9, ptr.move(2)));
-                if (c0 == '\\' && c1 == 'v') return Optional.of(Tuple2.of((char) 11, ptr.move(2)));
-                if (c0 == '\\' && c1 == '\'') return Optional.of(Tuple2.of('\'', ptr.move(2)));
-                if (c0 == '\\' && c1 == '"') return Optional.of(Tuple2.of('"', ptr.move(2)));
-                if (c0 == '\\' && c1 == '\\') return Optional.of(Tuple2.of('\\', ptr.move(2)));
-                return Optional.empty();
-            }));
+        private int hex(S ptr, int from, int count) {
+            var n = 0;
+            for (var k = 0; k < count; k++) {
+                var d = Digit.digit(ptr.charAt(from + k), 16);
+                if (d < 0) return -1;
+                n = n * 16 + d;
+            }
+            return n;
         }
     }
 }
@@ -0,0 +1,310 @@
+package xyz.cofe.json.stream.token;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Индекс структурных символов json в кодировке UTF-8 (первый проход в духе simdjson)
+ *
+ * <p>
+ * Один проход по байтам находит позиции структурных символов <code>{ } [ ] : ,</code> вне строк
+ * и позиции открывающих/закрывающих кавычек строк.
+ * Байты читаются словами по 8 (SWAR), слова без интересных байтов пропускаются целиком.
+ * </p>
+ *
+ * <p>
+ * По индексу {@link #tokens()} строит лексемы, перескакивая от одной структурной позиции к другой:
+ * пробелы не сканируются посимвольно, конец строки известен заранее.
+ * Между структурными позициями распознаются только скалярные значения (числа, ключевые слова, идентификаторы).
+ * </p>
+ *
+ * <p>
+ * Индекс рассчитан на строгий json. Если вне строк встречаются комментарии или строки в одинарных кавычках,
+ * индекс помечается как нестрогий ({@link #strict()}) и {@link #tokens()} использует {@link ByteTokenizer}.
+ * </p>
+ */
+public final class StructuralIndex {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    private final byte[] source;
+    private final Utf8Pointer start;
+    private final int[] positions;
+    private final int size;
+    private final boolean strict;
+
+    private StructuralIndex(byte[] source, Utf8Pointer start, int[] positions, int size, boolean strict) {
+        this.source = source;
+        this.start = start;
+        this.positions = positions;
+        this.size = size;
+        this.strict = strict;
+    }
+
+    /**
+     * Кол-во позиций в индексе
+     *
+     * @return кол-во позиций
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Позиция структурного символа или кавычки.
+     *
+     * <p>
+     * Закрывающая кавычка строки с escape последовательностями хранится как <code>~position</code> (отрицательное число)
+     * </p>
+     *
+     * @param i индекс
+     * @return позиция в байтах
+     */
+    public int position(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return positions[i];
+    }
+
+    /**
+     * Исходник строгий json: нет комментариев и строк в одинарных кавычках
+     *
+     * @return true - лексемы строятся по индексу
+     */
+    public boolean strict() {
+        return strict;
+    }
+
+    /**
+     * Начало исходника (после BOM)
+     *
+     * @return указатель
+     */
+    public Utf8Pointer pointer() {
+        return start;
+    }
+
+    /**
+     * Маска байтов, равных заданному: старший бит байта установлен, если байт совпал
+     */
+    private static long eq(long word, long pattern) {
+        var x = word ^ pattern;
+        var y = (x & LOW7) + LOW7;
+        return ~(y | x | LOW7);
+    }
+
+    /**
+     * Маска байтов, которые могут быть интересны: структурные символы, кавычки, обратная косая черта, <code>/</code>.
+     * Символы <code>{ } [ ]</code> проверяются одним сравнением <code>(b &amp; 0xD9) == 0x59</code>,
+     * ложные совпадения (<code>Y _ y DEL</code>) отсеиваются при разборе байта.
+     */
+    private static long candidates(long word) {
+        return eq(word & (~(0x26 * ONES)), 0x59 * ONES)
+            | eq(word, ':' * ONES)
+            | eq(word, ',' * ONES)
+            | eq(word, '"' * ONES)
+            | eq(word, '\\' * ONES)
+            | eq(word, '\'' * ONES)
+            | eq(word, '/' * ONES);
+    }
+
+    /**
+     * Построение индекса
+     *
+     * @param source исходник в кодировке UTF-8
+     * @return индекс
+     */
+    public static StructuralIndex of(byte[] source) {
+        if (source == null) throw new IllegalArgumentException("source==null");
+        return new Scanner(source).scan();
+    }
+
+    private static final class Scanner {
+        private final byte[] source;
+        private final Utf8Pointer start;
+        private int[] positions = new int[64];
+        private int size;
+
+        private boolean inString;
+        private boolean escapes;
+        private boolean strict = true;
+
+        /**
+         * Байт на этой позиции экранирован обратной косой чертой
+         */
+        private int escaped = -1;
+
+        Scanner(byte[] source) {
+            this.source = source;
+            this.start = Utf8Pointer.of(source);
+        }
+
+        private void add(int pos) {
+            if (size == positions.length) positions = Arrays.copyOf(positions, size * 2);
+            positions[size++] = pos;
+        }
+
+        private void accept(int pos) {
+            if (pos == escaped) return;
+
+            var b = source[pos];
+            if (inString) {
+                if (b == '\\') {
+                    escaped = pos + 1;
+                    escapes = true;
+                } else if (b == '"') {
+                    add(escapes ? ~pos : pos);
+                    inString = false;
+                }
+                return;
+            }
+
+            switch (b) {
+                case '{', '}', '[', ']', ':', ',' -> add(pos);
+                case '"' -> {
+                    add(pos);
+                    inString = true;
+                    escapes = false;
+                }
+                case '\'', '/' -> strict = false;
+                default -> {
+                }
+            }
+        }
+
+        StructuralIndex scan() {
+            var pos = (int) start.position();
+            var end = source.length;
+
+            while (strict && pos + 8 <= end) {
+                var mask = candidates((long) LONGS.get(source, pos));
+                while (mask != 0) {
+                    accept(pos + (Long.numberOfTrailingZeros(mask) >>> 3));
+                    mask &= mask - 1;
+                }
+                pos += 8;
+            }
+
+            while (strict && pos < end) {
+                accept(pos);
+                pos++;
+            }
+
+            return new StructuralIndex(source, start, positions, size, strict);
+        }
+    }
+
+    /**
+     * Лексемы без пробелов и комментариев
+     *
+     * @return лексемы
+     */
+    public Iterator<Token<Utf8Pointer>> tokens() {
+        if (!strict) return new ByteTokenizer().skipTrivia(true, true).iterator(start);
+        return new Tokens();
+    }
+
+    private final class Tokens implements Iterator<Token<Utf8Pointer>> {
+        private final ByteTokenizer scalars = new ByteTokenizer().skipTrivia(true, true);
+        private final StringToken.Parser<Utf8Pointer> strings = new StringToken.Parser<>();
+        private final Utf8Pointer.Source src = start.source();
+
+        private int idx;
+        private int pos = (int) start.position();
+        private Token<Utf8Pointer> next;
+        private boolean fetched;
+
+        private Token<Utf8Pointer> fetch() {
+            while (pos < source.length && isWhitespace(source[pos])) pos++;
+            if (pos >= source.length) return null;
+
+            if (idx < size && positions[idx] == pos) {
+                var ptr = start.at(pos);
+                switch (source[pos]) {
+                    case '{':
+                        return structural(new OpenParentheses<>(ptr, start.at(pos + 1)));
+                    case '}':
+                        return structural(new CloseParentheses<>(ptr, start.at(pos + 1)));
+                    case '[':
+                        return structural(new OpenSquare<>(ptr, start.at(pos + 1)));
+                    case ']':
+                        return structural(new CloseSquare<>(ptr, start.at(pos + 1)));
+                    case ':':
+                        return structural(new Colon<>(ptr, start.at(pos + 1)));
+                    case ',':
+                        return structural(new Comma<>(ptr, start.at(pos + 1)));
+                    default:
+                        return string(ptr);
+                }
+            }
+
+            return fallback(scalars.next(start.at(pos)).orElse(null));
+        }
+
+        /**
+         * Лексема распознана без индекса (скаляр, строка с escape, пробелы за пределами ASCII),
+         * индекс сдвигается за конец лексемы
+         */
+        private Token<Utf8Pointer> fallback(Token<Utf8Pointer> tok) {
+            if (tok == null) {
+                idx = size;
+                return null;
+            }
+
+            pos = (int) tok.end().position();
+            while (idx < size) {
+                var p = positions[idx];
+                if ((p < 0 ? ~p : p) >= pos) break;
+                idx++;
+            }
+            return tok;
+        }
+
+        private Token<Utf8Pointer> structural(Token<Utf8Pointer> tok) {
+            idx++;
+            pos++;
+            return tok;
+        }
+
+        private Token<Utf8Pointer> string(Utf8Pointer ptr) {
+            if (idx + 1 < size && positions[idx + 1] >= 0) {
+                var close = positions[idx + 1];
+                idx += 2;
+                pos = close + 1;
+                return new StringToken<>(src.decode(ptr.position() + 1, close), ptr, start.at(pos));
+            }
+
+            return fallback(strings.parse(ptr).orElse(null));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                next = fetch();
+                fetched = true;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Token<Utf8Pointer> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            var tok = next;
+            next = null;
+            fetched = false;
+            return tok;
+        }
+    }
+
+    /**
+     * Проверка ASCII пробела, совпадает с {@link Character#isWhitespace(char)}
+     */
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+}
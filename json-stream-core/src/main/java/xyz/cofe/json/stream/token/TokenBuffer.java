@@ -0,0 +1,280 @@
+package xyz.cofe.json.stream.token;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Компактное хранилище лексем
+ *
+ * <p>
+ * Вместо объектов {@link Token} и указателей {@link CharPointer} хранит
+ * вид лексемы, смещения начала/конца (в символах относительно начала, переданного в конструктор) и значение в массивах.
+ * Объекты лексем и указатели создаются только по запросу, от переданного начала исходника:
+ * {@link #token(int, CharPointer)}, {@link #iterator(CharPointer)}.
+ * </p>
+ *
+ * <p>
+ * Буфер не хранит начало исходника: для {@link ReaderPointer} начальный указатель удерживал бы все прочитанные порции.
+ * </p>
+ *
+ * <p>
+ * При последовательном просмотре ({@link #iterator(CharPointer)}) конец предыдущей лексемы
+ * и начало следующей - один и тот же указатель.
+ * </p>
+ *
+ * <p>
+ * Экономия памяти касается только хранения списка лексем, по сравнению с {@link Tokenizer#parse(CharPointer)}.
+ * {@link xyz.cofe.json.stream.ast.Ast}, построенный из лексем буфера, содержит обычные лексемы с указателями.
+ * Дерево без расположения в исходнике - {@link xyz.cofe.json.stream.event.AstBuilder},
+ * компактный документ - {@link xyz.cofe.json.stream.tape.Tape}.
+ * </p>
+ *
+ * @param <S> тип исходника
+ */
+public final class TokenBuffer<S extends CharPointer<S>> {
+    /**
+     * Вид лексемы
+     */
+    public enum Kind {
+        BigInt, Int, Long, Double, String, False, True, Null, Identifier,
+        OpenParentheses, CloseParentheses, OpenSquare, CloseSquare, Colon, Comma,
+        MLComment, SLComment, Whitespace;
+
+        /**
+         * Определение вида лексемы
+         *
+         * @param token лексема
+         * @return вид
+         * @throws IllegalArgumentException неизвестный вид лексемы
+         */
+        public static Kind of(Token<?> token) {
+            if (token == null) throw new IllegalArgumentException("token==null");
+            if (token instanceof BigIntToken<?>) return BigInt;
+            if (token instanceof IntToken<?>) return Int;
+            if (token instanceof LongToken<?>) return Long;
+            if (token instanceof DoubleToken<?>) return Double;
+            if (token instanceof StringToken<?>) return String;
+            if (token instanceof FalseToken<?>) return False;
+            if (token instanceof TrueToken<?>) return True;
+            if (token instanceof NullToken<?>) return Null;
+            if (token instanceof IdentifierToken<?>) return Identifier;
+            if (token instanceof OpenParentheses<?>) return OpenParentheses;
+            if (token instanceof CloseParentheses<?>) return CloseParentheses;
+            if (token instanceof OpenSquare<?>) return OpenSquare;
+            if (token instanceof CloseSquare<?>) return CloseSquare;
+            if (token instanceof Colon<?>) return Colon;
+            if (token instanceof Comma<?>) return Comma;
+            if (token instanceof MLComment<?>) return MLComment;
+            if (token instanceof SLComment<?>) return SLComment;
+            if (token instanceof Whitespace<?>) return Whitespace;
+            throw new IllegalArgumentException("unsupported token " + token.getClass().getName());
+        }
+    }
+
+    private static final Kind[] kindValues = Kind.values();
+
+    private int size;
+    private byte[] kinds;
+    private int[] begins;
+    private int[] ends;
+    private long[] numbers;
+    private Object[] values;
+
+    /**
+     * Указатель и смещение последней добавленной лексемы,
+     * смещение следующей вычисляется относительно него
+     */
+    private S lastPtr;
+    private int lastOffset;
+
+    /**
+     * Конструктор
+     *
+     * @param start начало исходника, относительно него вычисляются смещения
+     */
+    public TokenBuffer(S start) {
+        if (start == null) throw new IllegalArgumentException("start==null");
+        this.lastPtr = start;
+        this.kinds = new byte[16];
+        this.begins = new int[16];
+        this.ends = new int[16];
+        this.numbers = new long[16];
+        this.values = new Object[16];
+    }
+
+    /**
+     * Количество лексем
+     *
+     * @return количество
+     */
+    public int size() {
+        return size;
+    }
+
+    private int offsetOf(S ptr) {
+        if (ptr == lastPtr) return lastOffset;
+        var off = lastOffset + ptr.subtract(lastPtr);
+        lastPtr = ptr;
+        lastOffset = off;
+        return off;
+    }
+
+    private void grow() {
+        var cap = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, cap);
+        begins = Arrays.copyOf(begins, cap);
+        ends = Arrays.copyOf(ends, cap);
+        numbers = Arrays.copyOf(numbers, cap);
+        values = Arrays.copyOf(values, cap);
+    }
+
+    /**
+     * Добавление лексемы, лексемы добавляются в порядке следования в исходнике
+     *
+     * @param token лексема
+     */
+    public void add(Token<S> token) {
+        if (token == null) throw new IllegalArgumentException("token==null");
+        if (size == kinds.length) grow();
+
+        var kind = Kind.of(token);
+        kinds[size] = (byte) kind.ordinal();
+        begins[size] = offsetOf(token.begin());
+        ends[size] = offsetOf(token.end());
+
+        if (token instanceof IntToken<S> t) {
+            numbers[size] = t.value();
+        } else if (token instanceof LongToken<S> t) {
+            numbers[size] = t.value();
+        } else if (token instanceof DoubleToken<S> t) {
+            numbers[size] = java.lang.Double.doubleToRawLongBits(t.value());
+        } else if (token instanceof BigIntToken<S> t) {
+            values[size] = t.value();
+        } else if (token instanceof StringToken<S> t) {
+            values[size] = t.value();
+        } else if (token instanceof IdentifierToken<S> t) {
+            values[size] = t.value();
+        } else if (token instanceof Whitespace<S> t) {
+            values[size] = t.value();
+        } else if (token instanceof SLComment<S> t) {
+            values[size] = t.value();
+        } else if (token instanceof MLComment<S> t) {
+            values[size] = t.value();
+        }
+
+        size++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Вид лексемы
+     *
+     * @param index индекс лексемы
+     * @return вид
+     */
+    public Kind kind(int index) {
+        checkIndex(index);
+        return kindValues[kinds[index]];
+    }
+
+    /**
+     * Смещение начала лексемы
+     *
+     * @param index индекс лексемы
+     * @return смещение относительно начала исходника
+     */
+    public int begin(int index) {
+        checkIndex(index);
+        return begins[index];
+    }
+
+    /**
+     * Смещение конца лексемы
+     *
+     * @param index индекс лексемы
+     * @return смещение относительно начала исходника
+     */
+    public int end(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Создание лексемы
+     *
+     * @param index  индекс лексемы
+     * @param origin начало исходника, тот же указатель, что передан в конструктор
+     * @return лексема
+     */
+    public Token<S> token(int index, S origin) {
+        if (origin == null) throw new IllegalArgumentException("origin==null");
+        checkIndex(index);
+        return token(index, origin.move(begins[index]), origin.move(ends[index]));
+    }
+
+    private Token<S> token(int index, S begin, S end) {
+        return switch (kindValues[kinds[index]]) {
+            case BigInt -> new BigIntToken<>((BigInteger) values[index], begin, end);
+            case Int -> new IntToken<>((int) numbers[index], begin, end);
+            case Long -> new LongToken<>(numbers[index], begin, end);
+            case Double -> new DoubleToken<>(java.lang.Double.longBitsToDouble(numbers[index]), begin, end);
+            case String -> new StringToken<>((String) values[index], begin, end);
+            case False -> new FalseToken<>(begin, end);
+            case True -> new TrueToken<>(begin, end);
+            case Null -> new NullToken<>(begin, end);
+            case Identifier -> new IdentifierToken<>((String) values[index], begin, end);
+            case OpenParentheses -> new OpenParentheses<>(begin, end);
+            case CloseParentheses -> new CloseParentheses<>(begin, end);
+            case OpenSquare -> new OpenSquare<>(begin, end);
+            case CloseSquare -> new CloseSquare<>(begin, end);
+            case Colon -> new Colon<>(begin, end);
+            case Comma -> new Comma<>(begin, end);
+            case MLComment -> new MLComment<>((String) values[index], begin, end);
+            case SLComment -> new SLComment<>((String) values[index], begin, end);
+            case Whitespace -> new Whitespace<>((String) values[index], begin, end);
+        };
+    }
+
+    /**
+     * Последовательный просмотр лексем, указатели создаются по ходу просмотра
+     *
+     * @param origin начало исходника, тот же указатель, что передан в конструктор
+     * @return лексемы
+     */
+    public Iterator<Token<S>> iterator(S origin) {
+        if (origin == null) throw new IllegalArgumentException("origin==null");
+        return new Iterator<>() {
+            private int index = 0;
+            private S ptr = origin;
+            private int ptrOffset = 0;
+
+            private S pointer(int offset) {
+                if (offset != ptrOffset) {
+                    ptr = ptr.move(offset - ptrOffset);
+                    ptrOffset = offset;
+                }
+                return ptr;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Token<S> next() {
+                if (index >= size) throw new NoSuchElementException();
+                var begin = pointer(begins[index]);
+                var end = pointer(ends[index]);
+                var tok = token(index, begin, end);
+                index++;
+                return tok;
+            }
+        };
+    }
+}
@@ -13,4 +13,15 @@ public interface TokenParser<S extends CharPointer<S>> {
      * @return лексема
      */
     public Optional<? extends Token<S>> parse(S ptr);
+
+    /**
+     * Проверка, может ли лексема начинаться с указанного символа.
+     * Используется {@link Tokenizer} для выбора парсеров по первому символу.
+     * @param c первый символ, см {@link CharPointer#charAt(int)}
+     * @return false - парсер гарантированно не распознает лексему;
+     * true - может распознать (по умолчанию)
+     */
+    default boolean canStartWith(int c) {
+        return true;
+    }
 }
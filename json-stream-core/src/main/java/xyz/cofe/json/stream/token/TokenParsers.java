@@ -25,10 +25,10 @@ public class TokenParsers {
         var buff = new StringBuilder();
 
         for (var i = 0; i < text.length(); i++) {
-            var copt = ptr.get(i);
-            if (copt.isEmpty()) return Optional.empty();
+            var c = ptr.charAt(i);
+            if (c < 0) return Optional.empty();
 
-            char c0 = copt.get();
+            char c0 = (char) c;
             char c1 = text.charAt(i);
 
             var matched = ignoreCase ? Character.toLowerCase(c0) == Character.toLowerCase(c1) : c0 == c1;
@@ -2,7 +2,17 @@ package xyz.cofe.json.stream.token;
 
 import xyz.cofe.coll.im.ImList;
 
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Парсинг лексем
@@ -11,6 +21,27 @@ import java.util.Optional;
 public class Tokenizer<S extends CharPointer<S>> {
     private final ImList<TokenParser<S>> parsers;
 
+    /**
+     * Все парсеры, для символов за пределами ASCII
+     */
+    private final TokenParser<S>[] allParsers;
+
+    /**
+     * Парсеры по первому символу (ASCII), в исходном порядке,
+     * см {@link TokenParser#canStartWith(int)}
+     */
+    private final TokenParser<S>[][] asciiParsers;
+
+    /**
+     * Пропускать пробелы, лексемы {@link Whitespace} не создаются
+     */
+    private final boolean skipWhitespace;
+
+    /**
+     * Пропускать комментарии, лексемы {@link SLComment}, {@link MLComment} не создаются
+     */
+    private final boolean skipComments;
+
     /**
      * Конструктор
      * @param parsers парсеры
@@ -18,6 +49,10 @@ public class Tokenizer<S extends CharPointer<S>> {
     public Tokenizer(Iterable<TokenParser<S>> parsers) {
         if (parsers == null) throw new IllegalArgumentException("parsers==null");
         this.parsers = ImList.from(parsers);
+        this.allParsers = toArray(this.parsers);
+        this.asciiParsers = dispatchTable(this.parsers);
+        this.skipWhitespace = false;
+        this.skipComments = false;
     }
 
     /**
@@ -28,6 +63,120 @@ public class Tokenizer<S extends CharPointer<S>> {
     public Tokenizer(TokenParser<S>... parsers) {
         if (parsers == null) throw new IllegalArgumentException("parsers==null");
         this.parsers = ImList.of(parsers);
+        this.allParsers = toArray(this.parsers);
+        this.asciiParsers = dispatchTable(this.parsers);
+        this.skipWhitespace = false;
+        this.skipComments = false;
+    }
+
+    private Tokenizer(Tokenizer<S> sample, boolean skipWhitespace, boolean skipComments) {
+        this.parsers = sample.parsers;
+        this.allParsers = sample.allParsers;
+        this.asciiParsers = sample.asciiParsers;
+        this.skipWhitespace = skipWhitespace;
+        this.skipComments = skipComments;
+    }
+
+    /**
+     * Пропуск пробелов и комментариев на месте, без создания лексем.
+     *
+     * <p>
+     * Пробелы и комментарии не несут данных для {@link xyz.cofe.json.stream.ast.AstParser},
+     * а в форматированном json занимают значительную часть текста.
+     * Для инструментов, которым нужны комментарии, используется режим без пропуска (по умолчанию).
+     * </p>
+     *
+     * @param whitespace пропускать пробелы
+     * @param comments   пропускать комментарии
+     * @return Лексический анализатор с теми же парсерами
+     */
+    public Tokenizer<S> skipTrivia(boolean whitespace, boolean comments) {
+        return new Tokenizer<>(this, whitespace, comments);
+    }
+
+    /**
+     * Пропуск пробелов и комментариев, которые пропускает {@link #next(CharPointer)}.
+     *
+     * <p>
+     * Если {@link #next(CharPointer)} вернул пусто, по этому указателю отличается конец исходника
+     * (после пропущенного ничего нет) от символа, который не распознан ни одним парсером.
+     * </p>
+     *
+     * @param ptr указатель
+     * @return указатель после пропущенных пробелов и комментариев
+     */
+    public S afterTrivia(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        if (!skipWhitespace && !skipComments) return ptr;
+        var skip = trivia(ptr);
+        return skip > 0 ? ptr.move(skip) : ptr;
+    }
+
+    /**
+     * Длина пробелов и комментариев, которые пропускаются
+     * @param ptr указатель
+     * @return кол-во символов
+     */
+    private int trivia(S ptr) {
+        var len = 0;
+        while (true) {
+            var c = ptr.charAt(len);
+            if (c < 0) return len;
+
+            if (skipWhitespace && Character.isWhitespace(c)) {
+                len++;
+                continue;
+            }
+
+            if (skipComments && c == '/') {
+                var c1 = ptr.charAt(len + 1);
+                if (c1 == '/') {
+                    len += 2;
+                    while (true) {
+                        c = ptr.charAt(len);
+                        if (c < 0) break;
+                        len++;
+                        if (c == '\n') break;
+                    }
+                    continue;
+                }
+                if (c1 == '*') {
+                    len += 2;
+                    while (true) {
+                        c = ptr.charAt(len);
+                        if (c < 0) break;
+                        if (c == '*' && ptr.charAt(len + 1) == '/') {
+                            len += 2;
+                            break;
+                        }
+                        len++;
+                    }
+                    continue;
+                }
+            }
+
+            return len;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends CharPointer<S>> TokenParser<S>[] toArray(Iterable<TokenParser<S>> parsers) {
+        var list = new ArrayList<TokenParser<S>>();
+        for (var p : parsers) list.add(p);
+        return list.toArray(new TokenParser[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends CharPointer<S>> TokenParser<S>[][] dispatchTable(Iterable<TokenParser<S>> parsers) {
+        TokenParser<S>[][] table = new TokenParser[128][];
+        for (var c = 0; c < table.length; c++) {
+            var list = new ArrayList<TokenParser<S>>();
+            for (var p : parsers) {
+                if (p.canStartWith(c)) list.add(p);
+            }
+            table[c] = list.toArray(new TokenParser[0]);
+        }
+        return table;
     }
 
     /**
@@ -38,18 +187,35 @@ public class Tokenizer<S extends CharPointer<S>> {
      */
     public record Parsed<S extends CharPointer<S>>(ImList<Token<S>> tokens, S next) {}
 
+    /**
+     * Распознание очередной лексемы
+     * @param ptr указатель
+     * @return лексема или пусто, если ни один парсер не распознал лексему
+     */
+    public Optional<? extends Token<S>> next(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        if (skipWhitespace || skipComments) {
+            var skip = trivia(ptr);
+            if (skip > 0) ptr = ptr.move(skip);
+        }
+
+        var c = ptr.charAt(0);
+        var candidates = c >= 0 && c < asciiParsers.length ? asciiParsers[c] : allParsers;
+        for (var parser : candidates) {
+            var tokOpt = parser.parse(ptr);
+            if( tokOpt.isPresent() ){
+                return tokOpt;
+            }
+        }
+        return Optional.empty();
+    }
+
     public Parsed<S> parse(S ptr) {
         if (ptr == null) throw new IllegalArgumentException("ptr==null");
         ImList<Token<S>> tokens = ImList.of();
 
         while (true) {
-            Optional<? extends Token<S>> tokOpt = Optional.empty();
-            for (var parser : parsers) {
-                tokOpt = parser.parse(ptr);
-                if( tokOpt.isPresent() ){
-                    break;
-                }
-            }
+            Optional<? extends Token<S>> tokOpt = next(ptr);
 
             if( tokOpt.isPresent() ) {
                 Token<S> tokTup = tokOpt.get();
@@ -63,6 +229,104 @@ public class Tokenizer<S extends CharPointer<S>> {
         return new Parsed<>(tokens.reverse(), ptr);
     }
 
+    /**
+     * Ленивый просмотр лексем, очередная лексема распознается при обращении к {@link #next()}
+     * @param <S> тип исходника
+     */
+    public static final class TokenIterator<S extends CharPointer<S>> implements Iterator<Token<S>> {
+        private final Function<S, Optional<? extends Token<S>>> parser;
+        private S ptr;
+        private Token<S> next;
+        private boolean fetched;
+
+        TokenIterator(Function<S, Optional<? extends Token<S>>> parser, S ptr) {
+            this.parser = parser;
+            this.ptr = ptr;
+        }
+
+        /**
+         * Текущая позиция - конец последней возвращенной лексемы
+         * @return позиция
+         */
+        public S pointer() {
+            return ptr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                next = parser.apply(ptr).orElse(null);
+                fetched = true;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Token<S> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            var tok = next;
+            next = null;
+            fetched = false;
+            ptr = tok.end();
+            return tok;
+        }
+    }
+
+    /**
+     * Ленивый просмотр лексем, лексемы не накапливаются
+     * @param ptr исходник
+     * @return лексемы
+     */
+    public TokenIterator<S> iterator(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        return new TokenIterator<>(this::next, ptr);
+    }
+
+    /**
+     * Ленивый поток лексем, лексемы не накапливаются
+     * @param ptr исходник
+     * @return лексемы
+     */
+    public Stream<Token<S>> stream(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator(ptr), Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    /**
+     * Парсинг в компактное хранилище, объекты лексем не удерживаются
+     * @param ptr исходник
+     * @return лексемы
+     */
+    public TokenBuffer<S> parseCompact(S ptr) {
+        if (ptr == null) throw new IllegalArgumentException("ptr==null");
+        var tokens = new TokenBuffer<S>(ptr);
+
+        while (true) {
+            Optional<? extends Token<S>> tokOpt = next(ptr);
+            if( tokOpt.isEmpty() )break;
+
+            Token<S> tok = tokOpt.get();
+            tokens.add(tok);
+            ptr = tok.end();
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Парсинг в компактное хранилище
+     * @param source исходник
+     * @return лексемы
+     */
+    public static TokenBuffer<StringPointer> parseCompact(String source){
+        if( source==null ) throw new IllegalArgumentException("source==null");
+        Tokenizer<StringPointer> tokenizer = defaultTokenizer();
+        return tokenizer.parseCompact(new StringPointer(source,0));
+    }
+
     /**
      * Парсинг
      * @param source исходник
@@ -75,6 +339,28 @@ public class Tokenizer<S extends CharPointer<S>> {
         return tokenizer.parse(ptr);
     }
 
+    /**
+     * Ленивый просмотр лексем, исходник читается порциями по мере распознания лексем.
+     * Лексемы не накапливаются, прочитанные порции, на которые не ссылаются лексемы, освобождаются
+     * @param source исходник
+     * @return лексемы
+     */
+    public static TokenIterator<ReaderPointer> iterator(Reader source){
+        if( source==null ) throw new IllegalArgumentException("source==null");
+        Tokenizer<ReaderPointer> tokenizer = defaultTokenizer();
+        return tokenizer.iterator(new ReaderPointer(source));
+    }
+
+    /**
+     * Парсинг файла в кодировке UTF-8, файл отображается в память и не копируется в кучу
+     * @param file исходник
+     * @return лексемы
+     */
+    public static Parsed<Utf8Pointer> parse(Path file){
+        if( file==null ) throw new IllegalArgumentException("file==null");
+        return ByteTokenizer.parse(file);
+    }
+
     /**
      * Парсер по умолчанию
      * @return Лексический анализатор
@@ -91,4 +377,23 @@ public class Tokenizer<S extends CharPointer<S>> {
             new MLComment.Parser<>()
         );
     }
+
+    /**
+     * Парсер по умолчанию, одинаковые ключи объектов (строки и идентификаторы) возвращаются одним экземпляром {@link String}
+     * @param cache кэш строк
+     * @return Лексический анализатор
+     * @param <S> тип исходника
+     */
+    public static <S extends CharPointer<S>> Tokenizer<S> defaultTokenizer(StringCache cache){
+        if( cache==null ) throw new IllegalArgumentException("cache==null");
+        return new Tokenizer<S>(
+            new KeyWordParser<>(),
+            new NumberParser<>(),
+            new StringToken.Parser<>(cache),
+            new Whitespace.Parser<>(),
+            new IdentifierToken.Parser<>(cache),
+            new SLComment.Parser<>(),
+            new MLComment.Parser<>()
+        );
+    }
 }
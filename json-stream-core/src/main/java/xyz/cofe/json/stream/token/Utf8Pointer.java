@@ -0,0 +1,550 @@
+package xyz.cofe.json.stream.token;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Указатель на исходник - байты в кодировке UTF-8
+ *
+ * <p>
+ * Байты не копируются и не преобразуются в строку,
+ * символ декодируется в момент обращения к нему относительно позиции указателя.
+ * Исходником может быть отображенный в память файл ({@link #map(Path)}) любого размера,
+ * {@link ByteBuffer} или массив байтов.
+ * </p>
+ *
+ * <p>
+ * Символы за пределами BMP (4-х байтовые последовательности) представлены, как и в {@link String},
+ * парой суррогатов, указатель может указывать на вторую половину пары.
+ * Некорректные последовательности байтов декодируются как U+FFFD.
+ * </p>
+ */
+public final class Utf8Pointer implements CharPointer<Utf8Pointer> {
+    /**
+     * Размер региона отображения файла в память
+     */
+    private static final int MAP_REGION_BITS = 30;
+
+    /**
+     * Исходник - последовательность байтов, разбитая на регионы
+     */
+    public static final class Source {
+        private final ByteBuffer[] regions;
+        private final int regionBits;
+        private final long regionMask;
+        private final long size;
+
+        /**
+         * Массив байтов, если исходник - один регион в куче, иначе null
+         */
+        private final byte[] array;
+        private final int arrayOffset;
+
+        private Source(ByteBuffer[] regions, int regionBits, long size) {
+            this.regions = regions;
+            this.regionBits = regionBits;
+            this.regionMask = (1L << regionBits) - 1;
+            this.size = size;
+
+            var heap = regions.length == 1 && regions[0].hasArray();
+            this.array = heap ? regions[0].array() : null;
+            this.arrayOffset = heap ? regions[0].arrayOffset() : 0;
+        }
+
+        /**
+         * Индекс строк, создается при первом обращении
+         */
+        private volatile LineIndex lines;
+
+        /**
+         * Индекс строк, смещения в байтах
+         *
+         * @return индекс строк
+         */
+        public LineIndex lines() {
+            var idx = lines;
+            if (idx == null) {
+                idx = new LineIndex(from -> {
+                    for (var pos = from; pos < size; pos++) {
+                        var b = byteAt(pos);
+                        if (b == '\n') return pos + 1;
+                        if (b == '\r') return pos + 1 < size && byteAt(pos + 1) == '\n' ? pos + 2 : pos + 1;
+                    }
+                    return -1;
+                });
+                lines = idx;
+            }
+            return idx;
+        }
+
+        /**
+         * Размер исходника в байтах
+         *
+         * @return размер
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Чтение байта
+         *
+         * @param position смещение в байтах, от 0 до {@link #size()}
+         * @return байт
+         */
+        public byte byteAt(long position) {
+            if (array != null) return array[arrayOffset + (int) position];
+            return regions[(int) (position >>> regionBits)].get((int) (position & regionMask));
+        }
+
+        /**
+         * Декодирование участка исходника в строку
+         *
+         * @param from начало (включительно), смещение в байтах
+         * @param to   конец (исключительно), смещение в байтах
+         * @return строка
+         */
+        public String decode(long from, long to) {
+            if (from < 0) throw new IllegalArgumentException("from<0");
+            if (to < from) throw new IllegalArgumentException("to<from");
+            if (to > size) throw new IllegalArgumentException("to>size");
+
+            if (array != null) {
+                return new String(array, arrayOffset + (int) from, (int) (to - from), StandardCharsets.UTF_8);
+            }
+
+            var bytes = new byte[Math.toIntExact(to - from)];
+            var pos = from;
+            var idx = 0;
+            while (pos < to) {
+                var region = regions[(int) (pos >>> regionBits)];
+                var off = (int) (pos & regionMask);
+                var len = (int) Math.min(to - pos, region.limit() - off);
+                region.get(off, bytes, idx, len);
+                pos += len;
+                idx += len;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private final Source source;
+    private final long position;
+    private final boolean lowSurrogate;
+
+    private Utf8Pointer(Source source, long position, boolean lowSurrogate) {
+        this.source = source;
+        this.position = position;
+        this.lowSurrogate = lowSurrogate;
+    }
+
+    /**
+     * Создание указателя на начало буфера
+     *
+     * @param buffer байты, от position до limit; буфер не изменяется
+     * @return указатель
+     */
+    public static Utf8Pointer of(ByteBuffer buffer) {
+        if (buffer == null) throw new IllegalArgumentException("buffer==null");
+        var buff = buffer.slice();
+        var src = new Source(new ByteBuffer[]{buff}, 31, buff.remaining());
+        return new Utf8Pointer(src, skipBom(src), false);
+    }
+
+    /**
+     * Создание указателя на начало массива
+     *
+     * @param bytes байты
+     * @return указатель
+     */
+    public static Utf8Pointer of(byte[] bytes) {
+        if (bytes == null) throw new IllegalArgumentException("bytes==null");
+        return of(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Отображение файла в память и создание указателя на его начало.
+     * Файл отображается регионами, поэтому его размер не ограничен 2 Гб.
+     *
+     * @param file файл
+     * @return указатель
+     */
+    public static Utf8Pointer map(Path file) {
+        if (file == null) throw new IllegalArgumentException("file==null");
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long regionSize = 1L << MAP_REGION_BITS;
+            int count = (int) Math.max(1, (size + regionSize - 1) / regionSize);
+
+            var regions = new ByteBuffer[count];
+            for (var i = 0; i < count; i++) {
+                long start = i * regionSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+            }
+
+            var src = new Source(regions, MAP_REGION_BITS, size);
+            return new Utf8Pointer(src, skipBom(src), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long skipBom(Source src) {
+        if (src.size() >= 3
+            && src.byteAt(0) == (byte) 0xEF
+            && src.byteAt(1) == (byte) 0xBB
+            && src.byteAt(2) == (byte) 0xBF
+        ) return 3;
+        return 0;
+    }
+
+    /**
+     * Исходник
+     *
+     * @return исходник
+     */
+    public Source source() {
+        return source;
+    }
+
+    /**
+     * Смещение в байтах относительно начала исходника
+     *
+     * @return смещение
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Создание указателя на начало последовательности байтов в том же исходнике
+     *
+     * @param position смещение в байтах
+     * @return указатель
+     */
+    public Utf8Pointer at(long position) {
+        return position == this.position && !lowSurrogate ? this : new Utf8Pointer(source, position, false);
+    }
+
+    //region декодирование utf-8
+
+    /**
+     * Длина последовательности по первому байту
+     *
+     * <p>
+     * Некорректная последовательность - один символ U+FFFD, длина отрицательная.
+     * Как и у декодера JDK, это наибольшее начало корректной последовательности (не менее 1 байта),
+     * а суррогаты в 3 байтах (ED A0..BF xx) - один некорректный символ.
+     * Второй байт ограничен сильнее (Unicode, табл. 3-7): избыточные кодировки (E0 80..9F, F0 80..8F,
+     * а также C0, C1) и значения больше U+10FFFF (F4 90..BF) некорректны.
+     * </p>
+     *
+     * @param pos позиция первого байта
+     * @return длина 1..4 или -1..-3 для некорректной последовательности
+     */
+    private int seqLength(long pos) {
+        int b0 = source.byteAt(pos) & 0xFF;
+        int len;
+        if (b0 < 0x80) return 1;
+        else if (b0 >= 0xC2 && b0 <= 0xDF) len = 2;
+        else if (b0 >= 0xE0 && b0 <= 0xEF) len = 3;
+        else if (b0 >= 0xF0 && b0 <= 0xF4) len = 4;
+        else return -1;
+
+        int lo = b0 == 0xE0 ? 0xA0 : b0 == 0xF0 ? 0x90 : 0x80;
+        int hi = b0 == 0xF4 ? 0x8F : 0xBF;
+        long size = source.size();
+        for (var i = 1; i < len; i++) {
+            if (pos + i >= size) return -i;
+            int b = source.byteAt(pos + i) & 0xFF;
+            if (i == 1 ? b < lo || b > hi : !isContinuation((byte) b)) return -i;
+        }
+
+        if (b0 == 0xED && (source.byteAt(pos + 1) & 0xFF) >= 0xA0) return -3;
+        return len;
+    }
+
+    private int codePoint(long pos, int len) {
+        int b0 = source.byteAt(pos) & 0xFF;
+        return switch (len) {
+            case 1 -> b0;
+            case 2 -> ((b0 & 0x1F) << 6) | (source.byteAt(pos + 1) & 0x3F);
+            case 3 -> ((b0 & 0x0F) << 12) | ((source.byteAt(pos + 1) & 0x3F) << 6) | (source.byteAt(pos + 2) & 0x3F);
+            case 4 -> ((b0 & 0x07) << 18) | ((source.byteAt(pos + 1) & 0x3F) << 12) | ((source.byteAt(pos + 2) & 0x3F) << 6) | (source.byteAt(pos + 3) & 0x3F);
+            default -> 0xFFFD;
+        };
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+    //endregion
+
+    //region перемещение
+
+    /**
+     * Позиция последнего обращения вперед относительно указателя:
+     * смещение в символах (31 бит), смещение в байтах (31 бит), признак второй половины суррогатной пары (1 бит).
+     * Последовательный просмотр {@link #charAt(int)} с возрастающим смещением не декодирует исходник повторно.
+     *
+     * <p>
+     * Указатели читаются из нескольких потоков ({@link xyz.cofe.json.stream.ast.LazyValues},
+     * {@link xyz.cofe.json.stream.ast.ParallelArrayParser}). Обычная запись long по JLS 17.7 может разорваться,
+     * а смесь половин двух позиций декодирует не тот символ, поэтому поле читается и пишется через
+     * {@link #CURSOR} в режиме opaque: запись атомарна, но без барьеров volatile.
+     * При гонке возможно лишь повторное декодирование.
+     * Значение 0 (в т.ч. до публикации указателя) - начало, см {@link #forward(int)}.
+     * </p>
+     */
+    private long cursor;
+
+    private static final VarHandle CURSOR;
+
+    static {
+        try {
+            CURSOR = MethodHandles.lookup().findVarHandle(Utf8Pointer.class, "cursor", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static long cursor(int chars, long bytes, boolean low) {
+        return ((long) chars << 32) | (bytes << 1) | (low ? 1 : 0);
+    }
+
+    /**
+     * Поиск позиции символа вперед
+     *
+     * @param count смещение в символах
+     * @return позиция, см {@link #cursor}
+     */
+    private long forward(int count) {
+        long cur = (long) CURSOR.getOpaque(this);
+        int chars = (int) (cur >>> 32);
+        if (chars == 0 || chars > count) {
+            cur = cursor(0, 0, lowSurrogate);
+            chars = 0;
+        }
+
+        long pos = position + ((cur >>> 1) & 0x7FFFFFFFL);
+        boolean low = (cur & 1) == 1;
+        long size = source.size();
+
+        for (var i = chars; i < count; i++) {
+            if (pos >= size) {
+                pos += count - i;
+                low = false;
+                break;
+            }
+            if (low) {
+                pos += 4;
+                low = false;
+                continue;
+            }
+            if (source.byteAt(pos) >= 0) {
+                pos++;
+                continue;
+            }
+            int len = seqLength(pos);
+            if (len == 4) {
+                low = true;
+            } else {
+                pos += Math.abs(len);
+            }
+        }
+
+        long bytes = pos - position;
+        if (bytes <= Integer.MAX_VALUE) {
+            cur = cursor(count, bytes, low);
+            CURSOR.setOpaque(this, cur);
+            return cur;
+        }
+        return -1;
+    }
+
+    /**
+     * Поиск позиции символа вперед
+     *
+     * @param count смещение в символах
+     * @return указатель
+     */
+    private Utf8Pointer forwardPointer(int count) {
+        var cur = forward(count);
+        if (cur >= 0) {
+            return new Utf8Pointer(source, position + ((cur >>> 1) & 0x7FFFFFFFL), (cur & 1) == 1);
+        }
+
+        // смещение более 2 Гб - по частям
+        var ptr = this;
+        while (count > 0) {
+            var step = Math.min(count, 1 << 20);
+            ptr = ptr.forwardPointer(step);
+            count -= step;
+        }
+        return ptr;
+    }
+
+    /**
+     * Поиск позиции символа назад
+     *
+     * @param count смещение в символах
+     * @return указатель или null, если позиция перед началом исходника
+     */
+    private Utf8Pointer backward(int count) {
+        long pos = position;
+        boolean low = lowSurrogate;
+        for (var i = 0; i < count; i++) {
+            if (low) {
+                low = false;
+                continue;
+            }
+            if (pos <= 0) return null;
+            if (pos > source.size()) {
+                pos--;
+                continue;
+            }
+
+            long p = pos - 1;
+            int back = 0;
+            while (p > 0 && back < 3 && isContinuation(source.byteAt(p))) {
+                p--;
+                back++;
+            }
+
+            int len = seqLength(p);
+            if (p + Math.abs(len) == pos) {
+                pos = p;
+                low = len == 4;
+            } else {
+                pos = pos - 1;
+            }
+        }
+        return new Utf8Pointer(source, pos, low);
+    }
+    //endregion
+
+    /**
+     * Декодирование символа
+     *
+     * @param pos позиция в байтах
+     * @param low вторая половина суррогатной пары
+     * @return символ или -1
+     */
+    private int decode(long pos, boolean low) {
+        if (pos < 0 || pos >= source.size()) return -1;
+
+        int b0 = source.byteAt(pos);
+        if (b0 >= 0) return b0;
+
+        int len = seqLength(pos);
+        int cp = codePoint(pos, len);
+        if (len == 4) {
+            return low ? Character.lowSurrogate(cp) : Character.highSurrogate(cp);
+        }
+        return cp;
+    }
+
+    @Override
+    public int charAt(int offset) {
+        if (offset == 0) return decode(position, lowSurrogate);
+        if (offset > 0) {
+            var cur = forward(offset);
+            if (cur >= 0) return decode(position + ((cur >>> 1) & 0x7FFFFFFFL), (cur & 1) == 1);
+            var ptr = forwardPointer(offset);
+            return decode(ptr.position, ptr.lowSurrogate);
+        }
+
+        var ptr = backward(-offset);
+        return ptr == null ? -1 : decode(ptr.position, ptr.lowSurrogate);
+    }
+
+    @Override
+    public String substring(int from, int to) {
+        if (to < from) throw new IllegalArgumentException("to<from");
+        if (from < 0) return CharPointer.super.substring(from, to);
+
+        var begin = from == 0 ? this : forwardPointer(from);
+        var end = forwardPointer(to);
+        if (begin.lowSurrogate || end.lowSurrogate || end.position > source.size()) {
+            return CharPointer.super.substring(from, to);
+        }
+        return source.decode(begin.position, end.position);
+    }
+
+    @Override
+    public Optional<LineColumn> lineColumn() {
+        if (position > source.size()) return Optional.empty();
+
+        var lines = source.lines();
+        var line = lines.line(position);
+
+        var column = lowSurrogate ? 2 : 1;
+        var pos = line == 1 ? skipBom(source) : lines.lineStart(line);
+        while (pos < position) {
+            var len = seqLength(pos);
+            column += len == 4 ? 2 : 1;
+            pos += Math.abs(len);
+        }
+
+        return Optional.of(new LineColumn(line, column));
+    }
+
+    @Override
+    public Optional<Character> get(int offset) {
+        var c = charAt(offset);
+        return c < 0 ? Optional.empty() : Optional.of((char) c);
+    }
+
+    @Override
+    public Utf8Pointer move(int offset) {
+        if (offset == 0) return this;
+        if (offset > 0) return forwardPointer(offset);
+
+        var ptr = backward(-offset);
+        if (ptr == null) throw new IllegalArgumentException("can't move before the beginning of source");
+        return ptr;
+    }
+
+    /**
+     * Разница между указателями в символах (char),
+     * требует просмотра всех байтов между указателями
+     *
+     * @param other другой указатель
+     * @return 0 - тот же самый указатель
+     */
+    @Override
+    public int subtract(Utf8Pointer other) {
+        if (other == null) throw new IllegalArgumentException("other==null");
+        if (other.source != source) throw new IllegalArgumentException("other has different source");
+
+        if (other.position > position || (other.position == position && other.lowSurrogate && !lowSurrogate)) {
+            return -other.subtract(this);
+        }
+
+        long chars = 0;
+        long pos = other.position;
+        long size = source.size();
+        while (pos < position) {
+            if (pos >= size) {
+                chars += position - pos;
+                break;
+            }
+            int len = seqLength(pos);
+            chars += len == 4 ? 2 : 1;
+            pos += Math.abs(len);
+        }
+
+        if (other.lowSurrogate) chars--;
+        if (lowSurrogate) chars++;
+
+        return Math.toIntExact(chars);
+    }
+}
@@ -19,25 +19,24 @@ public record Whitespace<S extends CharPointer<S>>(
      * @param <S> Тип исходника
      */
     public static class Parser<S extends CharPointer<S>> implements TokenParser<S> {
+        @Override
+        public boolean canStartWith(int c) {
+            return c >= 0 && Character.isWhitespace(c);
+        }
+
         @Override
         public Optional<? extends Token<S>> parse(S ptr) {
             if( ptr==null ) throw new IllegalArgumentException("ptr==null");
-            var begin = ptr;
-
-            StringBuilder buff = new StringBuilder();
-            var ch = ptr.get(0).flatMap( c -> Character.isWhitespace(c) ? Optional.of(c) : Optional.empty() );
-            if( ch.isEmpty() )return Optional.empty();
 
-            buff.append(ch.get());
-            ptr = ptr.move(1);
+            var len = 0;
             while (true){
-                ch = ptr.get(0).flatMap( c -> Character.isWhitespace(c) ? Optional.of(c) : Optional.empty() );
-                if( ch.isEmpty() )break;
-                buff.append(ch.get());
-                ptr = ptr.move(1);
+                var c = ptr.charAt(len);
+                if( c<0 || !Character.isWhitespace(c) )break;
+                len++;
             }
+            if( len==0 )return Optional.empty();
 
-            return Optional.of(new Whitespace<>(buff.toString(), begin, ptr));
+            return Optional.of(new Whitespace<>(ptr.substring(0, len), ptr, ptr.move(len)));
         }
     }
 }
@@ -0,0 +1,44 @@
+package xyz.cofe.json.stream;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Замер памяти, выделенной текущим потоком, для тестов.
+ * Если JVM не поддерживает замер, тест пропускается.
+ */
+public final class Allocations {
+    private Allocations() {}
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        var bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        var mx = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+        return mx;
+    }
+
+    /**
+     * Сколько байт выделяет одно выполнение, после прогрева
+     *
+     * @param work замеряемая работа, результат не должен быть null
+     * @return кол-во байт
+     */
+    public static long allocated(Supplier<?> work) {
+        var mx = threadBean();
+        var tid = Thread.currentThread().getId();
+        // прогрев
+        for (var i = 0; i < 5; i++) work.get();
+
+        var before = mx.getThreadAllocatedBytes(tid);
+        var res = work.get();
+        var after = mx.getThreadAllocatedBytes(tid);
+        assertNotNull(res);
+        return after - before;
+    }
+}
@@ -0,0 +1,76 @@
+package xyz.cofe.json.stream;
+
+import java.util.function.IntFunction;
+
+/**
+ * Тестовые исходники и замер времени для тестов производительности.
+ */
+public final class Samples {
+    private Samples() {}
+
+    /**
+     * Массив однотипных объектов, каждый элемент с новой строки
+     *
+     * @param count кол-во элементов
+     * @param item  текст элемента по его номеру
+     * @return json
+     */
+    public static String items(int count, IntFunction<String> item) {
+        if (item == null) throw new IllegalArgumentException("item==null");
+        var sb = new StringBuilder("[\n");
+        for (var i = 0; i < count; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append(item.apply(i));
+        }
+        sb.append("\n]");
+        return sb.toString();
+    }
+
+    /**
+     * Элемент массива в одну строку: <code>{ "id": i, "name": "item number i", "price": i.25 ... }</code>
+     *
+     * @param i      номер элемента
+     * @param fields дополнительные поля, начиная с запятой
+     * @return текст элемента
+     */
+    public static String item(int i, String fields) {
+        if (fields == null) throw new IllegalArgumentException("fields==null");
+        return "  { \"id\": " + i +
+            ", \"name\": \"item number " + i + "\"" +
+            ", \"price\": " + i + ".25" +
+            fields + " }";
+    }
+
+    /**
+     * Среднее время одного выполнения, после прогрева
+     *
+     * @param warmUp кол-во выполнений для прогрева
+     * @param rounds кол-во замеряемых выполнений
+     * @param work   замеряемая работа
+     * @return наносекунд на выполнение
+     */
+    public static double nanos(int warmUp, int rounds, Runnable work) {
+        if (work == null) throw new IllegalArgumentException("work==null");
+        if (rounds <= 0) throw new IllegalArgumentException("rounds<=0");
+        for (var i = 0; i < warmUp; i++) work.run();
+
+        var t0 = System.nanoTime();
+        for (var i = 0; i < rounds; i++) work.run();
+        var t1 = System.nanoTime();
+
+        return (t1 - t0) / (double) rounds;
+    }
+
+    /**
+     * Пропускная способность, после прогрева
+     *
+     * @param size   размер исходника
+     * @param warmUp кол-во выполнений для прогрева
+     * @param rounds кол-во замеряемых выполнений
+     * @param work   замеряемая работа
+     * @return Мб/сек
+     */
+    public static double mbPerSec(long size, int warmUp, int rounds, Runnable work) {
+        return (size / (1024.0 * 1024)) / (nanos(warmUp, rounds, work) / 1e9);
+    }
+}
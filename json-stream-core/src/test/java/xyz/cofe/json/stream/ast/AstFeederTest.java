@@ -0,0 +1,203 @@
+package xyz.cofe.json.stream.ast;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AstFeederTest {
+    private static final String source =
+        "{\"id\": 12345, \"имя\": \"значение 😀\", 'q': \"a\\\"b\", n: -1.5e3} // comment\n" +
+        "[1, 2.5, true, false, null, []] /* block */ \"long string value\"\n" +
+        "{ nested: { deep: [ { } ] } } 42";
+
+    private static final List<String> expect = List.of(
+        AstParser.parse("{\"id\": 12345, \"имя\": \"значение 😀\", 'q': \"a\\\"b\", n: -1.5e3}").toJson(),
+        AstParser.parse("[1, 2.5, true, false, null, []]").toJson(),
+        AstParser.parse("\"long string value\"").toJson(),
+        AstParser.parse("{ nested: { deep: [ { } ] } }").toJson(),
+        AstParser.parse("42").toJson()
+    );
+
+    @Test
+    public void byteByByte() {
+        var values = new ArrayList<String>();
+        var feeder = new AstFeeder(ast -> values.add(ast.toJson()));
+
+        var bytes = source.getBytes(StandardCharsets.UTF_8);
+        for (var b : bytes) {
+            feeder.feed(ByteBuffer.wrap(new byte[]{b}));
+        }
+        assertEquals(4, values.size());
+        assertTrue(feeder.pending() || values.size() == 5);
+
+        feeder.endOfInput();
+        System.out.println(values);
+        assertEquals(expect, values);
+        assertTrue(!feeder.pending());
+    }
+
+    @Test
+    public void incomplete() {
+        var feeder = new AstFeeder(ast -> {});
+        feeder.feed(ByteBuffer.wrap("{ a: [1, 2".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(feeder.pending());
+        assertThrows(AstParser.NoResult.class, feeder::endOfInput);
+
+        var bad = new AstFeeder(ast -> {});
+        assertThrows(AstParser.JsonParseError.class, () -> bad.feed("[1, }"));
+    }
+
+    @Test
+    public void trailingComment() {
+        var values = new ArrayList<String>();
+        var feeder = new AstFeeder(ast -> values.add(ast.toJson()));
+        feeder.feed("{} // c");
+        assertTrue(feeder.pending());
+        feeder.endOfInput();
+        assertEquals(List.of("{}"), values);
+        assertFalse(feeder.pending());
+
+        var closed = new AstFeeder(ast -> {});
+        closed.feed("[1] /* c */\n");
+        assertFalse(closed.pending());
+        closed.endOfInput();
+        assertEquals(12, closed.offset());
+    }
+
+    /**
+     * Комментарий и число из множества порций
+     */
+    @Test
+    public void longLexemes() {
+        var number = "9".repeat(2_000);
+        var source = "// " + "c".repeat(50_000) + "\n[" + number + ", /* " + "*".repeat(50_000) + " */ 1]";
+
+        var values = new ArrayList<String>();
+        var feeder = new AstFeeder(ast -> values.add(ast.toJson()));
+        for (var i = 0; i < source.length(); i++) {
+            feeder.feed(source.substring(i, i + 1));
+        }
+        feeder.endOfInput();
+
+        assertEquals(List.of(AstParser.parse("[" + number + ", 1]").toJson()), values);
+        assertEquals(source.length(), feeder.offset());
+    }
+
+    /**
+     * Нераспознанный символ - ошибка в той же порции, где он завершен, а не в {@link AstFeeder#endOfInput()}
+     */
+    @Test
+    public void unknownLexem() {
+        var values = new ArrayList<String>();
+        var feeder = new AstFeeder(ast -> values.add(ast.toJson()));
+        var err = assertThrows(AstParser.JsonParseError.class, () -> feeder.feed("[1] @ [2]"));
+        assertEquals(List.of("[1]"), values);
+        assertEquals("can't parse lexem at 4", err.getMessage());
+
+        var chunked = new AstFeeder(ast -> {});
+        chunked.feed("[1, @");
+        assertThrows(AstParser.JsonParseError.class, () -> chunked.feed(", 2]"));
+
+        var string = new AstFeeder(ast -> values.add(ast.toJson()));
+        string.feed("[\"a b");
+        string.feed(" c\"]");
+        string.endOfInput();
+        assertEquals(List.of("[1]", "[\"a b c\"]"), values);
+    }
+
+    /**
+     * Неблокирующий сервер на одном потоке, клиенты пишут json мелкими порциями
+     */
+    @Test
+    public void loopbackSocket() throws Exception {
+        var clients = 3;
+        var received = new HashMap<SocketChannel, List<String>>();
+        var feeders = new HashMap<SocketChannel, AstFeeder>();
+        var finished = new ArrayList<List<String>>();
+
+        try (var selector = Selector.open(); var server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            var port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+            var writers = new ArrayList<Thread>();
+            for (var c = 0; c < clients; c++) {
+                var chunk = c + 1;
+                var writer = new Thread(() -> {
+                    try (var socket = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+                        var bytes = source.getBytes(StandardCharsets.UTF_8);
+                        for (var i = 0; i < bytes.length; i += chunk) {
+                            socket.write(ByteBuffer.wrap(bytes, i, Math.min(chunk, bytes.length - i)));
+                            if (i % 16 == 0) TimeUnit.MILLISECONDS.sleep(1);
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                writer.start();
+                writers.add(writer);
+            }
+
+            var buffer = ByteBuffer.allocate(64);
+            var deadline = System.currentTimeMillis() + 10_000;
+            while (finished.size() < clients && System.currentTimeMillis() < deadline) {
+                selector.select(100);
+                var keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    var key = keys.next();
+                    keys.remove();
+
+                    if (key.isAcceptable()) {
+                        var channel = server.accept();
+                        channel.configureBlocking(false);
+                        channel.register(selector, SelectionKey.OP_READ);
+
+                        var values = new ArrayList<String>();
+                        received.put(channel, values);
+                        feeders.put(channel, new AstFeeder(ast -> values.add(ast.toJson())));
+                    } else if (key.isReadable()) {
+                        var channel = (SocketChannel) key.channel();
+                        var feeder = feeders.get(channel);
+
+                        buffer.clear();
+                        var cnt = channel.read(buffer);
+                        if (cnt < 0) {
+                            feeder.endOfInput();
+                            finished.add(received.get(channel));
+                            key.cancel();
+                            channel.close();
+                        } else {
+                            buffer.flip();
+                            feeder.feed(buffer);
+                        }
+                    }
+                }
+            }
+
+            for (var writer : writers) writer.join(1000);
+        }
+
+        assertEquals(clients, finished.size());
+        for (var values : finished) {
+            System.out.println(values);
+            assertEquals(expect, values);
+        }
+    }
+}
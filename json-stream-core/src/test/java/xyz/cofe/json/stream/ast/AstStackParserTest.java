@@ -0,0 +1,149 @@
+package xyz.cofe.json.stream.ast;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.Token;
+import xyz.cofe.json.stream.token.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static xyz.cofe.json.stream.Allocations.allocated;
+import static xyz.cofe.json.stream.Samples.item;
+import static xyz.cofe.json.stream.Samples.items;
+import static xyz.cofe.json.stream.Samples.nanos;
+
+public class AstStackParserTest {
+    private static final AstParser.ParserOptions strict = new AstParser.ParserOptions(
+        false, false, false, false, false, false, false
+    );
+
+    private static final AstParser.ParserOptions relaxed = new AstParser.ParserOptions(
+        true, true, true, true, false, true, true
+    );
+
+    private static List<Token<StringPointer>> tokens(String source, AstParser.ParserOptions options) {
+        Tokenizer<StringPointer> tokenizer = options.configure(Tokenizer.<StringPointer>defaultTokenizer());
+        var list = new ArrayList<Token<StringPointer>>();
+        tokenizer.iterator(new StringPointer(source, 0)).forEachRemaining(list::add);
+        return list;
+    }
+
+    private static void same(String source, AstParser.ParserOptions options) {
+        var tokens = tokens(source, options);
+
+        String expect;
+        try {
+            var ast = AstParser.parse(tokens.iterator(), options);
+            expect = ast.getClass().getSimpleName() + " " + ast.toJson() + " " + ast.sourceBegin() + " " + ast.sourceEnd();
+        } catch (AstParser.JsonParseError e) {
+            expect = "error " + e.getMessage();
+        } catch (AstParser.NoResult e) {
+            expect = "no result";
+        }
+
+        String actual;
+        try {
+            var ast = new AstStackParser<StringPointer>(options).parse(tokens.iterator());
+            actual = ast.getClass().getSimpleName() + " " + ast.toJson() + " " + ast.sourceBegin() + " " + ast.sourceEnd();
+        } catch (AstParser.JsonParseError e) {
+            actual = "error " + e.getMessage();
+        } catch (AstParser.NoResult e) {
+            actual = "no result";
+        }
+
+        System.out.println(actual);
+        assertEquals(expect, actual);
+    }
+
+    @Test
+    public void sameAsAstParser() {
+        var sources = List.of(
+            "1", "-2.5", "12345678901", "123456789012345678901234n", "true", "false", "null", "'str'", "ident",
+            "[]", "{}", "[ 1, [ 2, [ 3, [] ] ], { a: { b: [ true, false, null ] } } ]",
+            "{ \"a\": 1, b: 'x', \"c\": [ 1, 2, ], d: { }, }",
+            "{ a: 1 // comment\n , /* block */ b: [ 1 /* in array */, 2 ] }",
+            "[ ident, 1 ]", "{ a: ident }", "{ 'a' 1 }", "{ a: 1 b: 2 }", "[ 1 2 ]", "[ , ]", "{ a: ] }",
+            "[ 1, }", "}", ",", "{ a: [ 1, 2", "", "   ", "// only comment"
+        );
+        for (var options : List.of(new AstParser.ParserOptions(), strict, relaxed, relaxed.skipTrivia(false), strict.skipTrivia(false))) {
+            for (var source : sources) same(source, options);
+        }
+    }
+
+    @Test
+    public void streamOfValues() {
+        var options = new AstParser.ParserOptions();
+        var parser = new AstStackParser<StringPointer>(options);
+        var values = new ArrayList<String>();
+        for (var token : tokens("{ \"a\": 1 } [ 2, { \"b\": [] } ] 3 'x'", options)) {
+            parser.input(token).ifPresent(ast -> values.add(ast.toJson()));
+        }
+        assertEquals(List.of("{\"a\":1}", "[2,{\"b\":[]}]", "3", "\"x\""), values);
+        assertEquals(0, parser.getNestedLevel());
+
+        var nested = new AstStackParser<StringPointer>(new AstParser.ParserOptions(false, true, false, false, true, true, true));
+        var all = new ArrayList<String>();
+        for (var token : tokens("[ [ 1 ], { \"a\": [] } ]", options)) {
+            nested.input(token).ifPresent(ast -> all.add(ast.toJson()));
+        }
+        assertEquals(List.of("[1]", "[]", "{\"a\":[]}", "[[1],{\"a\":[]}]"), all);
+
+        var deep = "[".repeat(100) + "]".repeat(100);
+        assertEquals(AstParser.parse(deep).toJson(), AstStackParser.parse(deep).toJson());
+    }
+
+    @Test
+    public void errorIsSticky() {
+        var parser = new AstStackParser<StringPointer>();
+        var tokens = tokens("[ 1 } 2", new AstParser.ParserOptions());
+        parser.input(tokens.get(0));
+        parser.input(tokens.get(1));
+        var err = assertThrows(AstParser.JsonParseError.class, () -> parser.input(tokens.get(2)));
+        assertTrue(err.lineColumn().isPresent());
+        assertThrows(AstParser.JsonParseError.class, () -> parser.input(tokens.get(3)));
+
+        parser.reset();
+        assertEquals("2", parser.input(tokens.get(3)).map(Ast::toJson).orElse(""));
+    }
+
+    private static String sample() {
+        return items(5000, i -> item(i,
+            ", \"active\": " + (i % 2 == 0) +
+                ", \"tags\": [ \"alpha\", \"beta\", null ]" +
+                ", \"nested\": { \"a\": [ 1, 2, 3 ], \"b\": { } }"
+        ));
+    }
+
+    private static double tokensPerMs(int tokens, Supplier<Ast<?>> work) {
+        return tokens / (nanos(5, 10, work::get) / 1e6);
+    }
+
+    /**
+     * Сравнение на заранее распознанных лексемах, чтобы замерить только парсер
+     */
+    @Test
+    public void allocationAndThroughput() {
+        var options = new AstParser.ParserOptions();
+        var tokens = tokens(sample(), options);
+        var stack = new AstStackParser<StringPointer>(options);
+
+        Supplier<Ast<?>> objects = () -> AstParser.parse(tokens.iterator(), options);
+        Supplier<Ast<?>> frames = () -> stack.parse(tokens.iterator());
+        assertEquals(objects.get().toJson(), frames.get().toJson());
+
+        System.out.printf("tokens %d%n", tokens.size());
+        System.out.printf("AstParser      : %.0f tokens/ms%n", tokensPerMs(tokens.size(), objects));
+        System.out.printf("AstStackParser : %.0f tokens/ms%n", tokensPerMs(tokens.size(), frames));
+
+        var objectsBytes = allocated(objects);
+        var framesBytes = allocated(frames);
+        System.out.printf("AstParser      : %.1f bytes/token%n", objectsBytes / (double) tokens.size());
+        System.out.printf("AstStackParser : %.1f bytes/token%n", framesBytes / (double) tokens.size());
+        assertTrue(framesBytes < objectsBytes);
+    }
+}
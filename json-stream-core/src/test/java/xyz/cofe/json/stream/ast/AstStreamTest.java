@@ -0,0 +1,124 @@
+package xyz.cofe.json.stream.ast;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.rec.StdMapper;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AstStreamTest {
+    private static final String ndjson =
+        "{\"id\": 1, \"msg\": \"start\"}\n" +
+        "{\"id\": 2, \"msg\": \"имя 😀\"}\n" +
+        "\n" +
+        "{\"id\": 3, \"msg\": \"stop\"} [1, 2] 42\n";
+
+    private static final List<String> expect = List.of(
+        "{\"id\":1,\"msg\":\"start\"}",
+        "{\"id\":2,\"msg\":\"имя 😀\"}",
+        "{\"id\":3,\"msg\":\"stop\"}",
+        "[1,2]",
+        "42"
+    );
+
+    @Test
+    public void values() {
+        assertEquals(expect, AstStream.of(ndjson).asts().map(Ast::toJson).collect(Collectors.toList()));
+        assertEquals(expect, AstStream.of(new StringReader(ndjson)).asts().map(Ast::toJson).collect(Collectors.toList()));
+        assertEquals(expect, AstStream.of(ndjson.getBytes(StandardCharsets.UTF_8)).asts().map(Ast::toJson).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void offsets() {
+        var docs = AstStream.of(ndjson).stream().collect(Collectors.toList());
+        for (var doc : docs) {
+            System.out.println(doc.offset() + ".." + doc.end() + " " + doc.ast().toJson());
+            assertEquals(doc.ast().toJson(), AstParser.parse(ndjson.substring((int) doc.offset(), (int) doc.end())).toJson());
+        }
+
+        // продолжение с конца второй записи
+        var resumed = AstStream.of(ndjson.substring((int) docs.get(1).end())).asts().map(Ast::toJson).collect(Collectors.toList());
+        assertEquals(expect.subList(2, expect.size()), resumed);
+
+        var bytes = ndjson.getBytes(StandardCharsets.UTF_8);
+        var byteDocs = AstStream.of(bytes).stream().collect(Collectors.toList());
+        var third = new String(bytes, (int) byteDocs.get(2).offset(), (int) (byteDocs.get(2).end() - byteDocs.get(2).offset()), StandardCharsets.UTF_8);
+        assertEquals("{\"id\": 3, \"msg\": \"stop\"}", third);
+    }
+
+    @Test
+    public void incomplete() {
+        var it = AstStream.of("{\"a\": 1} {\"b\": [");
+        assertEquals("{\"a\":1}", it.next().ast().toJson());
+        assertThrows(AstParser.NoResult.class, it::hasNext);
+
+        assertThrows(AstParser.JsonParseError.class, () -> AstStream.of("1 ]").asts().count());
+    }
+
+    @Test
+    public void unknownLexem() {
+        var bad = "{}\n@bad\n{}";
+        var it = AstStream.of(bad);
+        assertEquals("{}", it.next().ast().toJson());
+        var err = assertThrows(AstParser.JsonParseError.class, it::hasNext);
+        System.out.println(err.getMessage());
+        assertEquals(2, err.lineColumn().orElseThrow().line());
+
+        assertThrows(AstParser.JsonParseError.class, () -> AstStream.of(new StringReader(bad)).asts().count());
+        assertThrows(AstParser.JsonParseError.class, () -> AstStream.of(bad.getBytes(StandardCharsets.UTF_8)).asts().count());
+        assertThrows(AstParser.JsonParseError.class, () -> AstStream.of("{\"a\": [1, @]}").asts().count());
+
+        assertEquals(List.of("{}"), AstStream.of("{} // tail").asts().map(Ast::toJson).collect(Collectors.toList()));
+    }
+
+    /**
+     * Поток записей генерируется по мере чтения и целиком в памяти не хранится
+     */
+    private static Reader generated(int records) {
+        return new Reader() {
+            private int record;
+            private String current = "";
+            private int pos;
+
+            @Override
+            public int read(char[] buf, int off, int len) {
+                if (pos == current.length()) {
+                    if (record == records) return -1;
+                    current = "{\"id\": " + record + ", \"msg\": \"record number " + record + "\"}\n";
+                    record++;
+                    pos = 0;
+                }
+                var n = Math.min(len, current.length() - pos);
+                current.getChars(pos, pos + n, buf, off);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    public record Event(int id, String msg) {}
+
+    @Test
+    public void records() {
+        var events = new StdMapper().<Event>parseStream(new StringReader(ndjson.replace("[1, 2] 42", "")), Event.class)
+            .collect(Collectors.toList());
+        System.out.println(events);
+        assertEquals(List.of(new Event(1, "start"), new Event(2, "имя 😀"), new Event(3, "stop")), events);
+
+        var count = 200_000;
+        var sum = new StdMapper().<Event>parseStream(generated(count), Event.class)
+            .mapToLong(Event::id)
+            .sum();
+        assertEquals((long) count * (count - 1) / 2, sum);
+    }
+}
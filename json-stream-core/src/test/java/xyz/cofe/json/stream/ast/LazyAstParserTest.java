@@ -0,0 +1,127 @@
+package xyz.cofe.json.stream.ast;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.query.QuerySetFin;
+import xyz.cofe.json.stream.rec.StdMapper;
+import xyz.cofe.json.stream.token.StringPointer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LazyAstParserTest {
+    private static final String source =
+        "{ \"user\": { \"name\": \"Alice\", \"tags\": [ \"a\", \"]}\" ] },\n" +
+        "  \"items\": [ 1, 2.5, { \"k\": [ [], {} ] }, null, true ], // comment\n" +
+        "  \"text\": \"имя 😀 {[\" }";
+
+    @Test
+    public void sameAsAstParser() {
+        var expect = AstParser.parse(source).toJson();
+        assertEquals(expect, LazyAstParser.parse(source).toJson());
+        assertEquals(expect, LazyAstParser.parse(source.getBytes(StandardCharsets.UTF_8)).toJson());
+        assertEquals("[]", LazyAstParser.parse(" [ ] ").toJson());
+        assertEquals("42", LazyAstParser.parse(" 42 ").toJson());
+    }
+
+    @Test
+    public void parsedOnDemand() {
+        var root = (Ast.ObjectAst<StringPointer>) LazyAstParser.parse(source);
+        assertFalse(root.lazy().isParsed());
+
+        var user = (Ast.ObjectAst<StringPointer>) root.get("user").orElseThrow();
+        assertTrue(root.lazy().isParsed());
+        assertFalse(user.lazy().isParsed());
+
+        var items = (Ast.ArrayAst<StringPointer>) root.get("items").orElseThrow();
+        assertFalse(items.lazy().isParsed());
+
+        assertEquals(Optional.of("Alice"), user.get("name").flatMap(Ast::asString));
+        assertTrue(user.lazy().isParsed());
+        assertFalse(items.lazy().isParsed());
+
+        // разобранный узел печатается так же, как обычный, а не с пустым полем values
+        assertEquals(new Ast.ObjectAst<>(user.values(), user.begin(), user.end()).toString(), user.toString());
+        items.values();
+        assertEquals(new Ast.ArrayAst<>(items.values(), items.begin(), items.end()).toString(), items.toString());
+    }
+
+    @Test
+    public void recordAccessors() throws ReflectiveOperationException {
+        // доступ к компонентам record (как у record pattern) - через values(), а не пустое поле
+        var root = (Ast.ObjectAst<?>) LazyAstParser.parse(source);
+        var values = Ast.ObjectAst.class.getRecordComponents()[0].getAccessor().invoke(root);
+        assertEquals(3, ((ImList<?>) values).size());
+
+        var items = (Ast.ArrayAst<StringPointer>) LazyAstParser.parse("[ 1, 2, 3 ]");
+        var accessor = Ast.ArrayAst.class.getRecordComponents()[0].getAccessor();
+        assertEquals(items.values(), accessor.invoke(items));
+        assertEquals(3, items.values().size());
+
+        assertThrows(IllegalArgumentException.class, () -> new Ast.ArrayAst<>(items.values(), items.begin(), items.end(), items.lazy()));
+    }
+
+    @Test
+    public void query() {
+        var ast = LazyAstParser.parse(source);
+        var qs = new QuerySetFin<>(ast);
+        assertEquals(Optional.of("Alice"), qs.get("user").get("name").firstString());
+        assertEquals(List.of("a", "]}"), qs.get("user").get("tags").arrayFlatMap((i, a) -> ImList.of(a)).toStringList().toList());
+    }
+
+    public record User(String name, List<String> tags) {}
+
+    @Test
+    public void mapper() {
+        var root = (Ast.ObjectAst<StringPointer>) LazyAstParser.parse(source);
+        var user = new StdMapper().parse(root.get("user").orElseThrow(), User.class);
+        assertEquals(new User("Alice", List.of("a", "]}")), user);
+    }
+
+    @Test
+    public void errors() {
+        // ошибка внутри объекта обнаруживается при разборе объекта
+        var root = (Ast.ObjectAst<StringPointer>) LazyAstParser.parse("{ \"a\": { \"b\": 1 2 }, \"c\": 3 }");
+        assertEquals(Optional.of(3), root.get("c").flatMap(Ast::asInt));
+        var a = (Ast.ObjectAst<StringPointer>) root.get("a").orElseThrow();
+        assertThrows(AstParser.JsonParseError.class, a::values);
+
+        assertThrows(AstParser.NoResult.class, () -> LazyAstParser.parse("{ \"a\": [ 1 "));
+        assertThrows(AstParser.JsonParseError.class, () -> LazyAstParser.parse("{ \"a\": 1 ]"));
+        assertThrows(AstParser.JsonParseError.class, () -> LazyAstParser.parse("[ 1 }"));
+    }
+
+    @Test
+    public void bigDocument() {
+        var sb = new StringBuilder("{ \"data\": [");
+        for (var i = 0; i < 50000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{ \"id\": ").append(i).append(", \"name\": \"item ").append(i).append("\", \"tags\": [1, 2, 3] }");
+        }
+        sb.append("], \"meta\": { \"count\": 50000 } }");
+        var bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (var i = 0; i < 3; i++) {
+            AstParser.parse(bytes);
+            LazyAstParser.parse(bytes);
+        }
+
+        var t0 = System.nanoTime();
+        var full = (Ast.ObjectAst<?>) AstParser.parse(bytes);
+        var count1 = full.get("meta").map(m -> ((Ast.ObjectAst<?>) m).get("count").flatMap(Ast::asInt).orElseThrow());
+        var t1 = System.nanoTime();
+        var lazy = (Ast.ObjectAst<?>) LazyAstParser.parse(bytes);
+        var count2 = lazy.get("meta").map(m -> ((Ast.ObjectAst<?>) m).get("count").flatMap(Ast::asInt).orElseThrow());
+        var t2 = System.nanoTime();
+
+        System.out.printf("bytes %d, full %.2f ms, lazy %.2f ms%n", bytes.length, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        assertEquals(Optional.of(50000), count1);
+        assertEquals(count1, count2);
+    }
+}
@@ -0,0 +1,153 @@
+package xyz.cofe.json.stream.ast;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.rec.StdMapper;
+import xyz.cofe.json.stream.rec.SubClassResolver;
+import xyz.cofe.json.stream.token.StringPointer;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObjectAstIndexTest {
+    private static String object(int size) {
+        var sb = new StringBuilder("{");
+        for (var i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("\"k").append(i).append("\": ").append(i);
+        }
+        sb.append(", \"k1\": \"duplicate\" }");
+        return sb.toString();
+    }
+
+    @Test
+    public void sameAsLinear() {
+        for (var size : new int[]{1, 7, 8, 100}) {
+            var obj = (Ast.ObjectAst<StringPointer>) AstParser.parse(object(size));
+            assertNull(obj.lazy());
+
+            var index = obj.indexed();
+            for (var i = -1; i <= size; i++) {
+                var key = "k" + i;
+                var linear = obj.values().find(kv -> kv.key().value().equals(key)).map(Ast.KeyValue::value);
+                assertEquals(linear.map(Ast::toJson), obj.get(key).map(Ast::toJson));
+                assertEquals(linear.map(Ast::toJson), index.get(key).map(Ast::toJson));
+            }
+
+            // при повторе ключа - первое значение
+            if (size > 1) assertEquals(Optional.of(1), index.get("k1").flatMap(Ast::asInt));
+        }
+    }
+
+    @Test
+    public void indexed() {
+        var small = (Ast.ObjectAst<StringPointer>) AstParser.parse("{ \"a\": 1, \"a\": 2, b: 3 }");
+        assertNull(small.lazy());
+
+        var indexed = small.indexed();
+        assertSame(small, indexed.object());
+        assertEquals(Optional.of(1), indexed.get("a").flatMap(Ast::asInt));
+        assertEquals(Optional.of(3), indexed.get("b").flatMap(Ast::asInt));
+        assertEquals(Optional.empty(), indexed.get("c"));
+        assertNull(small.lazy());
+
+        var big = (Ast.ObjectAst<StringPointer>) AstParser.parse(object(20));
+        var bigIndex = big.indexed();
+        assertEquals(Optional.of(3), bigIndex.get("k3").flatMap(Ast::asInt));
+        var replaced = big.put(big.values().get(3).orElseThrow().key(), Ast.StringAst.create("x", big.sourceBegin(), big.sourceEnd()));
+        assertEquals(Optional.of("x"), replaced.get("k3").flatMap(Ast::asString));
+        assertEquals(Optional.of("x"), replaced.indexed().get("k3").flatMap(Ast::asString));
+        assertEquals(Optional.of(3), bigIndex.get("k3").flatMap(Ast::asInt));
+    }
+
+    @Test
+    public void lazy() {
+        var obj = (Ast.ObjectAst<StringPointer>) LazyAstParser.parse(object(50));
+        assertFalse(obj.lazy().isParsed());
+        var index = obj.indexed();
+        assertFalse(obj.lazy().isParsed());
+        assertEquals(Optional.of(49), index.get("k49").flatMap(Ast::asInt));
+        assertTrue(obj.lazy().isParsed());
+
+        var created = Ast.ObjectAst.create(ImList.of(
+            Ast.KeyValue.create(Ast.StringAst.create("x"), Ast.NumberAst.IntAst.create(1))
+        ));
+        assertEquals(Optional.of(1), created.indexed().get("x").flatMap(Ast::asInt));
+    }
+
+    public record Wide(int f0, int f1, int f2, int f3, int f4, int f5, int f6, int f7, int f8, int f9, Optional<String> f10) {}
+
+    @Test
+    public void mapper() {
+        var json = "{ \"f9\": 9, \"f8\": 8, \"f7\": 7, \"f6\": 6, \"f5\": 5, \"f4\": 4, \"f3\": 3, \"f2\": 2, \"f1\": 1, \"f0\": 0 }";
+        var wide = new StdMapper().parse(AstParser.parse(json), Wide.class);
+        assertEquals(new Wide(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, Optional.empty()), wide);
+    }
+
+    @Test
+    public void subClassResolver() {
+        Class<?>[] subclasses = {Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, Character.class, Boolean.class, String.class};
+
+        var small = AstParser.parse("{ \"String\": { } }");
+        var res = SubClassResolver.defaultResolver().resolve(small, Object.class, subclasses, ImList.of());
+        assertEquals(String.class, res.unwrap().klass());
+
+        var big = AstParser.parse(object(20));
+        var predefined = SubClassResolver.defaultResolver(Map.of("k15", Long.class, "x", Integer.class));
+        var resolved = predefined.resolve(big, Object.class, subclasses, ImList.of()).unwrap();
+        assertEquals(Long.class, resolved.klass());
+        assertEquals(Optional.of(15), resolved.body().asInt());
+
+        var typed = AstParser.parse(object(20).replace("{", "{ \"@type\": \"Double\", "));
+        assertEquals(Double.class, SubClassResolver.typeProperty("@type").resolve(typed, Object.class, subclasses, ImList.of()).unwrap().klass());
+        assertTrue(SubClassResolver.defaultResolver().resolve(big, Object.class, subclasses, ImList.of()).isError());
+    }
+
+    @Test
+    public void toStringOnce() {
+        var sb = new StringBuilder();
+        var depth = 12;
+        for (var d = 0; d < depth; d++) {
+            sb.append("{ \"child\": ");
+        }
+        sb.append("1");
+        for (var d = 0; d < depth; d++) {
+            sb.append(", \"a\": 1, \"b\": 2, \"c\": 3, \"d\": 4, \"e\": 5, \"f\": 6, \"g\": 7 }");
+        }
+
+        // каждое значение выводится один раз, без роста 2^depth
+        var text = AstParser.parse(sb.toString()).toString();
+        assertEquals(depth, text.split("value=child,", -1).length - 1);
+
+        var lazy = LazyAstParser.parse(sb.toString());
+        assertTrue(lazy.toString().contains("LazyValues(not parsed)"));
+        System.out.println(lazy);
+    }
+
+    @Test
+    public void lookupSpeed() {
+        var size = 5000;
+        var obj = (Ast.ObjectAst<StringPointer>) AstParser.parse(object(size));
+        var index = obj.indexed();
+
+        var t0 = System.nanoTime();
+        var sum1 = 0L;
+        for (var i = 0; i < size; i++) {
+            var key = "k" + i;
+            sum1 += obj.values().find(kv -> kv.key().value().equals(key)).flatMap(kv -> kv.value().asInt()).orElse(0);
+        }
+        var t1 = System.nanoTime();
+        var sum2 = 0L;
+        for (var i = 0; i < size; i++) sum2 += index.get("k" + i).flatMap(Ast::asInt).orElse(0);
+        var t2 = System.nanoTime();
+
+        System.out.printf("keys %d, linear %.2f ms, indexed %.2f ms%n", size, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        assertEquals(sum1, sum2);
+    }
+}
@@ -0,0 +1,100 @@
+package xyz.cofe.json.stream.ast;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.rec.StdMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static xyz.cofe.json.stream.Samples.item;
+import static xyz.cofe.json.stream.Samples.items;
+import static xyz.cofe.json.stream.Samples.nanos;
+
+public class ParallelArrayParserTest {
+    private static byte[] utf8(String source) {
+        return source.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void same(String source) {
+        var expect = AstParser.parse(utf8(source)).toJson();
+        var pool = new ForkJoinPool(4);
+        try {
+            var actual = ParallelArrayParser.of(utf8(source)).parse(pool);
+            System.out.println(actual.toJson());
+            assertEquals(expect, actual.toJson());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sameAsAstParser() {
+        same("[]");
+        same("  [ 1 ]  ");
+        same("[ 1, 2, ]");
+        same("[ { \"a\": [ 1, 2, { \"b\": \"],[{\" } ], 'c': \"x\\\"]\" }, [ [], {} ], \"имя 😀\", null, true, -1.5e3 ]");
+        same("// head\n[ 1 /* , */, 2 // , ]\n, 3 ]");
+    }
+
+    @Test
+    public void errors() {
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8("{ \"a\": 1 }")));
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8("[ 1, 2")));
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8("[ 1 2 ]")).parse());
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8("[ 1, , 2 ]")).parse());
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8("[ , ]")).parse());
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8("[ { a: } ]")).parse());
+    }
+
+    /**
+     * AstParser на нераспознанном символе заканчивает лексемы и сообщает о незавершенном массиве ({@link AstParser.NoResult})
+     */
+    private static void sameError(String source) {
+        assertThrows(Error.class, () -> AstParser.parse(utf8(source)));
+        assertThrows(AstParser.JsonParseError.class, () -> ParallelArrayParser.of(utf8(source)).parse());
+    }
+
+    @Test
+    public void unknownLexem() {
+        sameError("[1 @, 2]");
+        sameError("[1, 2 @]");
+        sameError("[@]");
+        sameError("[1, @ ]");
+    }
+
+    public record Item(int id, String name, double price, List<String> tags) {}
+
+    private static String sample(int count) {
+        return items(count, i -> item(i, ", \"tags\": [ \"alpha\", \"beta\" ]"));
+    }
+
+    @Test
+    public void mapInOrder() {
+        var bytes = utf8(sample(10000));
+        var mapper = new StdMapper();
+        var items = ParallelArrayParser.of(bytes).map(ast -> mapper.parse(ast, Item.class));
+        assertEquals(10000, items.size());
+        for (var i = 0; i < items.size(); i++) {
+            assertEquals(i, items.get(i).id());
+        }
+        assertEquals(new Item(42, "item number 42", 42.25, List.of("alpha", "beta")), items.get(42));
+    }
+
+    @Test
+    public void scaling() {
+        var bytes = utf8(sample(20000));
+        assertEquals(AstParser.parse(bytes).toJson(), ParallelArrayParser.of(bytes).parse().toJson());
+
+        var single = nanos(3, 5, () -> AstParser.parse(bytes));
+        var parallel = nanos(3, 5, () -> ParallelArrayParser.of(bytes).parse());
+        var scan = nanos(3, 5, () -> ParallelArrayParser.of(bytes));
+
+        System.out.printf("bytes %d, cores %d%n", bytes.length, ForkJoinPool.commonPool().getParallelism());
+        System.out.printf("AstParser           : %.2f ms%n", single / 1e6);
+        System.out.printf("ParallelArrayParser : %.2f ms%n", parallel / 1e6);
+        System.out.printf("boundary scan       : %.2f ms%n", scan / 1e6);
+    }
+}
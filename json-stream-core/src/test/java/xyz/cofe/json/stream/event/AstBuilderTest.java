@@ -0,0 +1,92 @@
+package xyz.cofe.json.stream.event;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.coll.im.ImList;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.rec.StdMapper;
+import xyz.cofe.json.stream.token.DummyCharPointer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static xyz.cofe.json.stream.Allocations.allocated;
+
+public class AstBuilderTest {
+    private static final String source =
+        "{ \"a\": [ 1, -2, 3000000000, 12345678901234567890123, 2.5, true, false, null ],\n" +
+        "  \"b\": { \"c\": \"имя 😀\", \"d\": [ [], {} ] }, // comment\n" +
+        "  \"e\": 'x' }";
+
+    @Test
+    public void sameAsAstParser() {
+        var expect = AstParser.parse(source).toJson();
+        assertEquals(expect, AstBuilder.parse(source).toJson());
+        assertEquals(expect, AstBuilder.parse(source.getBytes(StandardCharsets.UTF_8)).toJson());
+        assertEquals("42", AstBuilder.parse(" 42 ").toJson());
+
+        var ast = AstBuilder.parse(source);
+        assertSame(DummyCharPointer.instance, ast.sourceBegin());
+        assertSame(DummyCharPointer.instance, ast.sourceEnd());
+
+        assertThrows(AstParser.JsonParseError.class, () -> AstBuilder.parse("{ \"a\": 1 2 }"));
+        assertThrows(AstParser.NoResult.class, () -> AstBuilder.parse("[ 1, 2"));
+    }
+
+    @Test
+    public void sharedNodes() {
+        assertSame(Ast.NullAst.create(), Ast.NullAst.create());
+        assertSame(Ast.BooleanAst.create(true), Ast.BooleanAst.create(true));
+        assertSame(Ast.BooleanAst.create(false), Ast.BooleanAst.create(false));
+        assertSame(Ast.NumberAst.IntAst.create(-128), Ast.NumberAst.IntAst.create(-128));
+        assertSame(Ast.NumberAst.IntAst.create(1023), Ast.NumberAst.IntAst.create(1023));
+        assertEquals(1024, Ast.NumberAst.IntAst.create(1024).value());
+        assertEquals(-129, Ast.NumberAst.IntAst.create(-129).value());
+
+        var o1 = Ast.ObjectAst.create(ImList.of());
+        var o2 = Ast.ObjectAst.create(ImList.of());
+        assertSame(o1.begin(), o2.begin());
+        assertSame(o1.end(), o2.end());
+
+        var a1 = Ast.ArrayAst.create(ImList.of());
+        var a2 = Ast.ArrayAst.create(ImList.of());
+        assertSame(a1.begin(), a2.begin());
+        assertSame(a1.end(), a2.end());
+
+        var arr = (Ast.ArrayAst<DummyCharPointer>) AstBuilder.parse("[ { \"k\": 1 }, { \"k\": 2 } ]");
+        var k1 = ((Ast.ObjectAst<DummyCharPointer>) arr.values().get(0).orElseThrow()).values().get(0).orElseThrow().key();
+        var k2 = ((Ast.ObjectAst<DummyCharPointer>) arr.values().get(1).orElseThrow()).values().get(0).orElseThrow().key();
+        assertSame(k1, k2);
+    }
+
+    public record Item(int id, String name, List<String> tags) {}
+
+    @Test
+    public void mapper() {
+        var item = new Item(1, "first", List.of("x", "y"));
+        var mapper = new StdMapper();
+        assertEquals(item, mapper.parse(AstBuilder.parse(mapper.toJson(item)), Item.class));
+    }
+
+    @Test
+    public void allocation() {
+        var sb = new StringBuilder("[");
+        for (var i = 0; i < 10000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{ \"id\": ").append(i % 1000).append(", \"name\": \"item ").append(i)
+                .append("\", \"active\": ").append(i % 2 == 0).append(", \"tags\": [ \"a\", null ] }");
+        }
+        sb.append("]");
+        var bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        var positions = allocated(() -> AstParser.parse(bytes));
+        var plain = allocated(() -> AstBuilder.parse(bytes));
+        System.out.printf("AstParser  : %d bytes%n", positions);
+        System.out.printf("AstBuilder : %d bytes%n", plain);
+        assertTrue(plain < positions);
+    }
+}
@@ -0,0 +1,167 @@
+package xyz.cofe.json.stream.event;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.token.StringPointer;
+import xyz.cofe.json.stream.token.Tokenizer;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonEventParserTest {
+    private static class Recorder implements JsonEventHandler {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void startObject() {events.add("{");}
+
+        @Override
+        public void key(String key) {events.add("key " + key);}
+
+        @Override
+        public void endObject() {events.add("}");}
+
+        @Override
+        public void startArray() {events.add("[");}
+
+        @Override
+        public void endArray() {events.add("]");}
+
+        @Override
+        public void value(String value) {events.add("str " + value);}
+
+        @Override
+        public void value(int value) {events.add("int " + value);}
+
+        @Override
+        public void value(long value) {events.add("long " + value);}
+
+        @Override
+        public void value(BigInteger value) {events.add("big " + value);}
+
+        @Override
+        public void value(double value) {events.add("double " + value);}
+
+        @Override
+        public void value(boolean value) {events.add("bool " + value);}
+
+        @Override
+        public void nullValue() {events.add("null");}
+
+        @Override
+        public void identifier(String value) {events.add("ident " + value);}
+
+        @Override
+        public void endValue() {events.add("end");}
+    }
+
+    private static final String source =
+        "{ \"a\": [ 1, 12345678901, 123456789012345678901234n, 2.5 ], b: { }, \"c\": [ true, false, null, \"x\", [], ] }";
+
+    private static final List<String> expect = List.of(
+        "{",
+        "key a", "[", "int 1", "long 12345678901", "big 123456789012345678901234", "double 2.5", "]",
+        "key b", "{", "}",
+        "key c", "[", "bool true", "bool false", "null", "str x", "[", "]", "]",
+        "}",
+        "end"
+    );
+
+    @Test
+    public void events() {
+        var rec = new Recorder();
+        JsonEventParser.parse(source, rec);
+        System.out.println(rec.events);
+        assertEquals(expect, rec.events);
+
+        var bytes = new Recorder();
+        JsonEventParser.parse(source.getBytes(StandardCharsets.UTF_8), bytes);
+        assertEquals(expect, bytes.events);
+    }
+
+    @Test
+    public void options() {
+        var relaxed = new AstParser.ParserOptions(true, true, true, true, false, true, true);
+
+        var rec = new Recorder();
+        JsonEventParser.parse(new StringPointer("{ a: b /* c */ } // tail", 0), relaxed, rec);
+        assertEquals(List.of("{", "key a", "ident b", "}", "end"), rec.events);
+
+        var strict = new AstParser.ParserOptions(false, false, false, false, false, false, false);
+        assertThrows(AstParser.JsonParseError.class,
+            () -> JsonEventParser.parse(new StringPointer("{ a: 1 }", 0), strict, new Recorder()));
+        assertThrows(AstParser.JsonParseError.class,
+            () -> JsonEventParser.parse(new StringPointer("[ 1 /* c */ ]", 0), strict, new Recorder()));
+        // AstParser после элемента массива принимает комментарий независимо от настроек
+        assertEquals("[1]", AstParser.parse(Tokenizer.<StringPointer>defaultTokenizer().iterator(new StringPointer("[ 1 /* c */ ]", 0)), strict).toJson());
+        assertThrows(AstParser.JsonParseError.class,
+            () -> JsonEventParser.parse(new StringPointer("[ ident ]", 0), new AstParser.ParserOptions(), new Recorder()));
+        assertThrows(AstParser.JsonParseError.class, () -> JsonEventParser.parse("[ 1 }", new Recorder()));
+        assertThrows(AstParser.NoResult.class, () -> JsonEventParser.parse("{ \"a\": [ 1", new Recorder()));
+    }
+
+    @Test
+    public void aggregate() {
+        var sb = new StringBuilder("[");
+        for (var i = 0; i < 1000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"price\":").append(i).append(".5,\"name\":\"n").append(i).append("\"}");
+        }
+        sb.append(']');
+
+        var total = new double[1];
+        JsonEventParser.parse(sb.toString(), new JsonEventHandler() {
+            private String key;
+
+            @Override
+            public void key(String key) {
+                this.key = key;
+            }
+
+            @Override
+            public void value(double value) {
+                if ("price".equals(key)) total[0] += value;
+            }
+        });
+        System.out.println(total[0]);
+        assertEquals(1000 * 999 / 2.0 + 500, total[0]);
+    }
+
+    @Test
+    public void widerNumbers() {
+        var longs = new ArrayList<Long>();
+        JsonEventParser.parse("[1, 12345678901]", new JsonEventHandler() {
+            @Override
+            public void value(long value) {
+                longs.add(value);
+            }
+        });
+        assertEquals(List.of(1L, 12345678901L), longs);
+
+        var doubles = new ArrayList<Double>();
+        JsonEventParser.parse("[1, 12345678901, 2.5]", new JsonEventHandler() {
+            @Override
+            public void value(double value) {
+                doubles.add(value);
+            }
+        });
+        assertEquals(List.of(1.0, 12345678901.0, 2.5), doubles);
+    }
+
+    @Test
+    public void streamOfValues() {
+        var rec = new Recorder();
+        var parser = new JsonEventParser<StringPointer>(rec);
+        var cnt = 0;
+        for (var token : xyz.cofe.json.stream.token.Tokenizer.parse("1 [2] {}").tokens()) {
+            if (parser.input(token)) cnt++;
+        }
+        assertEquals(3, cnt);
+        assertEquals(List.of("int 1", "end", "[", "int 2", "]", "end", "{", "}", "end"), rec.events);
+    }
+}
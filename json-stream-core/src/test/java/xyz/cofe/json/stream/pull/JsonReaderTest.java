@@ -0,0 +1,175 @@
+package xyz.cofe.json.stream.pull;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.token.CharPointer;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonReaderTest {
+    private static final String source = """
+        {
+          "id": 12,
+          "big": 12345678901,
+          "huge": 123456789012345678901234n,
+          "price": 2.5,
+          "name": "имя 😀",
+          "active": true,
+          "parent": null,
+          "skipped": { "a": [ "]]}", '{', { "b": 1 } ], /* ] */ "c": "\\"}" // }
+          },
+          "tags": [ "x", "y", ],
+          "raw": [ #, @ ]
+        }
+        """;
+
+    private static <S extends CharPointer<S>> void read(JsonReader<S> reader) {
+        assertEquals(JsonReader.Kind.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+
+        assertEquals("id", reader.nextKey());
+        assertEquals(12, reader.nextInt());
+
+        assertEquals("big", reader.nextKey());
+        assertEquals(12345678901L, reader.nextLong());
+
+        assertEquals("huge", reader.nextKey());
+        assertEquals(new BigInteger("123456789012345678901234"), reader.nextNumber());
+
+        assertEquals("price", reader.nextKey());
+        assertEquals(2.5, reader.nextDouble());
+
+        assertEquals("name", reader.nextKey());
+        assertEquals("имя 😀", reader.nextString());
+
+        assertEquals("active", reader.nextKey());
+        assertTrue(reader.nextBoolean());
+
+        assertEquals("parent", reader.nextKey());
+        assertEquals(JsonReader.Kind.NULL, reader.peek());
+        reader.nextNull();
+
+        assertEquals(JsonReader.Kind.KEY, reader.peek());
+        reader.skipValue();
+
+        assertEquals("tags", reader.nextKey());
+        reader.beginArray();
+        var tags = new ArrayList<String>();
+        while (reader.hasNext()) tags.add(reader.nextString());
+        reader.endArray();
+        assertEquals(List.of("x", "y"), tags);
+
+        assertEquals("raw", reader.nextKey());
+        reader.skipValue();
+
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals(JsonReader.Kind.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void readAndSkip() {
+        read(JsonReader.of(source));
+        read(JsonReader.of(new StringReader(source)));
+        read(JsonReader.of(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static <S extends CharPointer<S>> void emptyObject(JsonReader<S> reader) {
+        reader.beginObject();
+        reader.endObject();
+        assertFalse(reader.hasNext());
+        assertEquals(JsonReader.Kind.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void trailingTrivia() {
+        for (var src : List.of("{} // c", "{} /* c */ ", "{}\n// c\n")) {
+            emptyObject(JsonReader.of(src));
+            emptyObject(JsonReader.of(new StringReader(src)));
+            emptyObject(JsonReader.of(src.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        var bad = JsonReader.of("{} // c\n@");
+        bad.beginObject();
+        bad.endObject();
+        assertThrows(AstParser.JsonParseError.class, bad::peek);
+    }
+
+    @Test
+    public void errors() {
+        var reader = JsonReader.of("{ \"a\": \"x\" }");
+        reader.beginObject();
+        reader.nextKey();
+        var err = assertThrows(AstParser.JsonParseError.class, reader::nextInt);
+        System.out.println(err.getMessage());
+        assertTrue(err.lineColumn().isPresent());
+
+        assertThrows(AstParser.JsonParseError.class, () -> JsonReader.of("[ 12345678901 ]").nextInt());
+        var notInt = JsonReader.of("[ 12345678901 ]");
+        notInt.beginArray();
+        assertThrows(AstParser.JsonParseError.class, notInt::nextInt);
+
+        var unclosed = JsonReader.of("{ \"a\": [ 1, 2 ");
+        unclosed.beginObject();
+        unclosed.nextKey();
+        assertThrows(AstParser.JsonParseError.class, unclosed::skipValue);
+
+        var strict = new JsonReader<>(
+            new xyz.cofe.json.stream.token.StringPointer("[ ident ]", 0),
+            new AstParser.ParserOptions(false, false, false, false, false, false, false)
+        );
+        strict.beginArray();
+        assertThrows(AstParser.JsonParseError.class, strict::peek);
+
+        var missingComma = JsonReader.of("[ 1 2 ]");
+        missingComma.beginArray();
+        missingComma.nextInt();
+        assertThrows(AstParser.JsonParseError.class, missingComma::peek);
+    }
+
+    @Test
+    public void skipThroughput() {
+        var sb = new StringBuilder("{ \"payload\": [");
+        for (var i = 0; i < 20000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\",\"tags\":[\"a\",\"b\"],\"price\":").append(i).append(".5}");
+        }
+        sb.append("], \"total\": 42 }");
+        var text = sb.toString();
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        Runnable skip = () -> {
+            var reader = JsonReader.of(bytes);
+            reader.beginObject();
+            reader.nextKey();
+            reader.skipValue();
+            assertEquals("total", reader.nextKey());
+            assertEquals(42, reader.nextInt());
+        };
+        Runnable parse = () -> AstParser.parse(bytes);
+
+        for (var i = 0; i < 5; i++) {
+            skip.run();
+            parse.run();
+        }
+
+        var t0 = System.nanoTime();
+        for (var i = 0; i < 10; i++) skip.run();
+        var t1 = System.nanoTime();
+        for (var i = 0; i < 10; i++) parse.run();
+        var t2 = System.nanoTime();
+
+        System.out.printf("bytes %d%n", bytes.length);
+        System.out.printf("skipValue : %.2f ms%n", (t1 - t0) / 10 / 1e6);
+        System.out.printf("AstParser : %.2f ms%n", (t2 - t1) / 10 / 1e6);
+    }
+}
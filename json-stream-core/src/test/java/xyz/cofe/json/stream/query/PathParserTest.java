@@ -0,0 +1,111 @@
+package xyz.cofe.json.stream.query;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PathParserTest {
+    private static final String source =
+        "{ \"meta\": { \"count\": 3, \"note\": \"[{ skipped\" },\n" +
+        "  \"items\": [\n" +
+        "    { \"id\": 1, \"name\": \"first\", \"tags\": [ \"a\", \"b\" ] },\n" +
+        "    { \"id\": 2, \"name\": \"second\", \"tags\": [] }, // comment\n" +
+        "    { \"name\": \"no id\" },\n" +
+        "    { \"id\": 3, \"tags\": [ \"c\" ], }\n" +
+        "  ]\n" +
+        "}";
+
+    @Test
+    public void compile() {
+        assertEquals("$['items'][*]['id']", JsonPath.compile("$.items[*].id").toString());
+        assertEquals("$['a b'][0][*]", JsonPath.compile("$['a b'][0].*").toString());
+        assertEquals("$['it\\'s']", JsonPath.compile("$[\"it's\"]").toString());
+        assertEquals(0, JsonPath.compile(" $ ").length());
+
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("items"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$..id"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$.items[x]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$.items[0"));
+    }
+
+    private static void same(String... paths) {
+        var full = AstParser.parse(source);
+        var expect = new ArrayList<String>();
+        for (var p : paths) JsonPath.compile(p).select(full).forEach(a -> expect.add(a.toJson()));
+
+        var actual = PathParser.query(source, paths).toList().map(Ast::toJson).toList();
+        var bytes = PathParser.query(source.getBytes(StandardCharsets.UTF_8), paths).toList().map(Ast::toJson).toList();
+        System.out.println(String.join(", ", paths) + " => " + actual);
+
+        // значения одного пути - в порядке следования, для нескольких путей порядок общий по исходнику
+        assertEquals(expect.stream().sorted().toList(), actual.stream().sorted().toList());
+        assertEquals(actual, bytes);
+    }
+
+    @Test
+    public void selectSameAsAst() {
+        same("$");
+        same("$.items[*].id");
+        same("$.items[1]");
+        same("$.items[*].tags[*]");
+        same("$.meta.*");
+        same("$.items[0].tags", "$.items[0].tags[1]");
+        same("$.meta.count", "$.items[*].name");
+        same("$.missing");
+        same("$.items.id");
+    }
+
+    @Test
+    public void querySet() {
+        assertEquals(List.of(1, 2, 3), PathParser.query(source, "$.items[*].id").toIntList().toList());
+        assertEquals(Optional.of(3), PathParser.query(source, "$.meta.count").firstInt());
+        assertEquals(List.of("first", "second", "no id"), PathParser.query(source, "$.items[*]").get("name").toStringList().toList());
+    }
+
+    @Test
+    public void errors() {
+        assertThrows(AstParser.JsonParseError.class, () -> PathParser.query("{ \"a\": 1 2 }", "$.a"));
+        assertThrows(AstParser.JsonParseError.class, () -> PathParser.query("{ \"a\" 1 }", "$.b"));
+        assertThrows(AstParser.JsonParseError.class, () -> PathParser.query("{ \"a\": [ 1 2 ] }", "$.a[0]"));
+        assertThrows(AstParser.NoResult.class, () -> PathParser.query("{ \"a\": [ 1, ", "$.b"));
+        assertThrows(AstParser.NoResult.class, () -> PathParser.query("{ \"a\": { \"b\": 1 ", "$.a"));
+
+        // синтаксис пропущенных значений не проверяется
+        assertEquals(List.of(2), PathParser.query("{ \"a\": [ 1 2 ], \"b\": 2 }", "$.b").toIntList().toList());
+    }
+
+    @Test
+    public void bigDocument() {
+        var sb = new StringBuilder("{ \"items\": [");
+        for (var i = 0; i < 50000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{ \"id\": ").append(i).append(", \"name\": \"item ").append(i)
+                .append("\", \"attrs\": { \"tags\": [1, 2, 3], \"text\": \"lorem ipsum dolor sit amet\" } }");
+        }
+        sb.append("] }");
+        var bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (var i = 0; i < 3; i++) {
+            AstParser.parse(bytes);
+            PathParser.query(bytes, "$.items[*].id");
+        }
+
+        var t0 = System.nanoTime();
+        var full = JsonPath.compile("$.items[*].id").select(AstParser.parse(bytes));
+        var t1 = System.nanoTime();
+        var ids = PathParser.query(bytes, "$.items[*].id").toIntList();
+        var t2 = System.nanoTime();
+
+        System.out.printf("bytes %d, full %.2f ms, path %.2f ms%n", bytes.length, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        assertEquals(full.size(), ids.size());
+        assertEquals(49999, ids.get(49999).orElseThrow());
+    }
+}
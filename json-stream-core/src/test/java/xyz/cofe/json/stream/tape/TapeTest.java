@@ -0,0 +1,210 @@
+package xyz.cofe.json.stream.tape;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.event.AstBuilder;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static xyz.cofe.json.stream.Allocations.allocated;
+
+public class TapeTest {
+    private static final String source =
+        "{ \"a\": [ 1, -2, 3000000000, 12345678901234567890123, 2.5, true, false, null ],\n" +
+        "  \"b\": { \"c\": \"имя 😀\", \"d\": [ [], {} ] }, // comment\n" +
+        "  \"e\": 'x', \"a\": \"duplicate\" }";
+
+    @Test
+    public void sameAsAstParser() {
+        var expect = AstParser.parse(source).toJson();
+        assertEquals(expect, TapeBuilder.parse(source).toAst().toJson());
+        assertEquals(expect, TapeBuilder.parse(source.getBytes(StandardCharsets.UTF_8)).toAst().toJson());
+        assertEquals("42", TapeBuilder.parse(" 42 ").toAst().toJson());
+        assertEquals("\"s\"", TapeBuilder.parse("\"s\"").toAst().toJson());
+
+        var tape = TapeBuilder.parse(source);
+        var ast = (Ast.ObjectAst<?>) tape.toAst();
+        assertFalse(ast.lazy().isParsed());
+        assertEquals(AstBuilder.parse(source), ast);
+
+        assertThrows(AstParser.JsonParseError.class, () -> TapeBuilder.parse("{ \"a\": 1 2 }"));
+        assertThrows(AstParser.NoResult.class, () -> TapeBuilder.parse("[ 1, 2"));
+    }
+
+    @Test
+    public void values() {
+        var tape = TapeBuilder.parse(source);
+        var root = tape.root();
+        assertEquals(Tape.Kind.OBJECT, tape.kind(root));
+        assertEquals(4, tape.count(root));
+
+        var a = tape.field(root, "a");
+        assertEquals(Tape.Kind.ARRAY, tape.kind(a));
+        assertEquals(8, tape.count(a));
+        assertEquals(1, tape.intValue(tape.element(a, 0)));
+        assertEquals(-2, tape.intValue(tape.element(a, 1)));
+        assertEquals(-2L, tape.longValue(tape.element(a, 1)));
+        assertEquals(3000000000L, tape.longValue(tape.element(a, 2)));
+        assertEquals(new BigInteger("12345678901234567890123"), tape.bigIntValue(tape.element(a, 3)));
+        assertEquals(2.5, tape.doubleValue(tape.element(a, 4)));
+        assertTrue(tape.booleanValue(tape.element(a, 5)));
+        assertFalse(tape.booleanValue(tape.element(a, 6)));
+        assertTrue(tape.isNull(tape.element(a, 7)));
+        assertEquals(-1, tape.element(a, 8));
+        assertThrows(IllegalArgumentException.class, () -> tape.intValue(tape.element(a, 2)));
+
+        var c = tape.field(tape.field(root, "b"), "c");
+        assertEquals("имя 😀", tape.string(c));
+        assertEquals("имя 😀".length(), tape.stringLength(c));
+        assertTrue(tape.stringEquals(c, "имя 😀"));
+        assertEquals("c", tape.key(c));
+
+        var e = tape.field(root, "e");
+        assertEquals(Tape.Kind.STRING, tape.kind(e));
+        assertEquals("x", tape.string(e));
+        assertEquals(-1, tape.field(root, "missing"));
+
+        var keys = new ArrayList<String>();
+        for (var i = tape.first(root); i >= 0; i = tape.next(root, i)) keys.add(tape.key(i));
+        assertEquals(List.of("a", "b", "e", "a"), keys);
+    }
+
+    @Test
+    public void cursor() {
+        var c = TapeBuilder.parse(source).cursor();
+        assertFalse(c.next());
+        assertFalse(c.up());
+
+        assertTrue(c.field("b"));
+        assertTrue(c.field("d"));
+        assertEquals(2, c.depth());
+        assertEquals("d", c.key());
+        assertTrue(c.keyEquals("d"));
+
+        assertTrue(c.down());
+        assertEquals(Tape.Kind.ARRAY, c.kind());
+        assertFalse(c.down());
+        assertFalse(c.hasKey());
+        assertTrue(c.next());
+        assertEquals(Tape.Kind.OBJECT, c.kind());
+        assertEquals(0, c.count());
+        assertFalse(c.next());
+        assertEquals("{}", c.toAst().toJson());
+
+        assertTrue(c.up());
+        assertTrue(c.up());
+        assertFalse(c.field("missing"));
+        assertFalse(c.element(0));
+        assertEquals("b", c.key());
+
+        c.reset();
+        assertEquals(0, c.depth());
+        assertTrue(c.down());
+        var keys = new ArrayList<String>();
+        do {
+            keys.add(c.key());
+        } while (c.next());
+        assertEquals(List.of("a", "b", "e", "a"), keys);
+    }
+
+    @Test
+    public void offHeap() {
+        var heap = TapeBuilder.parse(source);
+        assertFalse(heap.isOffHeap());
+
+        var off = heap.offHeap();
+        assertTrue(off.isOffHeap());
+        assertSame(off, off.offHeap());
+        assertEquals(heap.length(), off.length());
+        assertEquals(heap.toAst().toJson(), off.toAst().toJson());
+
+        var parsed = TapeBuilder.parseOffHeap(source.getBytes(StandardCharsets.UTF_8));
+        assertTrue(parsed.isOffHeap());
+        assertEquals(heap.toAst().toJson(), parsed.toAst().toJson());
+
+        var c = parsed.cursor();
+        assertTrue(c.field("b") && c.field("c"));
+        assertEquals("имя 😀", c.stringValue());
+        assertTrue(c.stringEquals("имя 😀"));
+        assertEquals(new BigInteger("12345678901234567890123"), parsed.bigIntValue(parsed.element(parsed.field(0, "a"), 3)));
+        System.out.println(parsed);
+    }
+
+    @Test
+    public void offHeapLimit() {
+        assertEquals(Tape.MAX_OFF_HEAP_TAPE * Long.BYTES, Tape.directBytes(Tape.MAX_OFF_HEAP_TAPE, Long.BYTES, "tape words"));
+        var err = assertThrows(
+            IllegalArgumentException.class,
+            () -> Tape.directBytes(Tape.MAX_OFF_HEAP_TAPE + 1, Long.BYTES, "tape words")
+        );
+        assertTrue(err.getMessage().startsWith("document too large for off-heap tape"));
+
+        assertEquals(Tape.MAX_OFF_HEAP_CHARS * Character.BYTES, Tape.directBytes(Tape.MAX_OFF_HEAP_CHARS, Character.BYTES, "chars"));
+        assertThrows(IllegalArgumentException.class, () -> Tape.directBytes(Tape.MAX_OFF_HEAP_CHARS + 1, Character.BYTES, "chars"));
+    }
+
+    @Test
+    public void query() {
+        var tape = TapeBuilder.parseOffHeap(bigDocument());
+        assertEquals(Optional.of(5), tape.query().get("items").array(i -> i == 5).get("id").firstInt());
+        assertEquals(List.of("a", "a"), tape.query().get("items").array(i -> i < 2).get("tags").array(i -> i == 0).toStringList().toList());
+        assertEquals(20000, tape.query().get("items").array(i -> true).get("name").count());
+        assertEquals(Optional.of("item 7"), TapeBuilder.parse(bigDocument()).query().get("items").array(i -> i == 7).get("name").firstString());
+    }
+
+    private static byte[] bigDocument() {
+        var sb = new StringBuilder("{ \"items\": [");
+        for (var i = 0; i < 20000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{ \"id\": ").append(i).append(", \"name\": \"item ").append(i)
+                .append("\", \"active\": ").append(i % 2 == 0).append(", \"tags\": [ \"a\", null ] }");
+        }
+        sb.append("] }");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void bigDocumentNavigation() {
+        var tape = TapeBuilder.parse(bigDocument());
+        System.out.println(tape);
+
+        var c = tape.cursor();
+        var sum = 0L;
+        var count = 0;
+        if (c.field("items") && c.down()) {
+            do {
+                if (c.field("id")) {
+                    sum += c.intValue();
+                    count++;
+                    c.up();
+                }
+            } while (c.next());
+        }
+        assertEquals(20000, count);
+        assertEquals(19999L * 20000 / 2, sum);
+    }
+
+    @Test
+    public void allocation() {
+        var bytes = bigDocument();
+
+        var ast = allocated(() -> AstBuilder.parse(bytes));
+        var tape = allocated(() -> TapeBuilder.parse(bytes));
+        System.out.printf("AstBuilder  : %d bytes%n", ast);
+        System.out.printf("TapeBuilder : %d bytes%n", tape);
+        assertTrue(tape < ast);
+
+        var t = TapeBuilder.parse(bytes);
+        System.out.printf("tape retained: %d bytes%n", t.length() * 8L + t.charsLength() * 2L);
+    }
+}
@@ -0,0 +1,60 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ByteTokenizerTest {
+    private static String value(Token<?> token) {
+        if (token instanceof StringToken<?> t) return t.value();
+        if (token instanceof IdentifierToken<?> t) return t.value();
+        if (token instanceof Whitespace<?> t) return t.value();
+        if (token instanceof SLComment<?> t) return t.value();
+        if (token instanceof MLComment<?> t) return t.value();
+        if (token instanceof IntToken<?> t) return Integer.toString(t.value());
+        if (token instanceof LongToken<?> t) return Long.toString(t.value());
+        if (token instanceof DoubleToken<?> t) return Double.toString(t.value());
+        if (token instanceof BigIntToken<?> t) return t.value().toString();
+        return "";
+    }
+
+    private void same(String source) {
+        System.out.println(source);
+
+        var expect = Tokenizer.parse(source);
+        var start = Utf8Pointer.of(source.getBytes(StandardCharsets.UTF_8));
+        var actual = new ByteTokenizer().parse(start);
+
+        assertEquals(expect.tokens().size(), actual.tokens().size());
+        for (var i = 0; i < expect.tokens().size(); i++) {
+            var e = expect.tokens().get(i).get();
+            var a = actual.tokens().get(i).get();
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(value(e), value(a));
+            assertEquals(e.begin().offset, a.begin().subtract(start));
+            assertEquals(e.end().offset, a.end().subtract(start));
+        }
+        assertEquals(expect.next().offset, actual.next().subtract(start));
+    }
+
+    @Test
+    public void sameAsCharTokenizer() {
+        same("{ \"a\": [ 1, -2, 3.5, 0x1F, 12345678901, 123456789012345678901234n ], b: null, c: true, d: false }");
+        same("[ 'single', \"esc\\n\\u0041\", \"имя 😀\", имя, nullable, trueish ]");
+        same("// comment\r\n/* multi\n line */ { x : 1 } // tail");
+        same("/* unterminated");
+        same("\t\n\u000B\f\r   x");
+        same("\"unterminated");
+        same("{ a: 1 } #");
+    }
+
+    @Test
+    public void astParse() {
+        var ast = AstParser.parse("{ a: 1, b: [ 'x', \"y\" ], c: null }".getBytes(StandardCharsets.UTF_8));
+        System.out.println(ast.toJson());
+        assertEquals("{a:1,b:[\"x\",\"y\"],c:null}", ast.toJson());
+    }
+}
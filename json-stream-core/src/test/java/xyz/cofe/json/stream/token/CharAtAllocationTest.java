@@ -0,0 +1,92 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static xyz.cofe.json.stream.Allocations.allocated;
+import static xyz.cofe.json.stream.Samples.item;
+import static xyz.cofe.json.stream.Samples.items;
+
+/**
+ * Замер выделения памяти на символ исходника:
+ * доступ через {@link SourcePointer#get(int)} против {@link CharPointer#charAt(int)}
+ */
+public class CharAtAllocationTest {
+    /**
+     * Указатель без собственной реализации charAt -
+     * каждое обращение к символу идет через Optional&lt;Character&gt;, как было до charAt
+     */
+    private record BoxedPointer(StringPointer ptr) implements CharPointer<BoxedPointer> {
+        @Override
+        public Optional<Character> get(int offset) {
+            var c = ptr.charAt(offset);
+            return c < 0 ? Optional.empty() : Optional.of((char) c);
+        }
+
+        @Override
+        public BoxedPointer move(int offset) {
+            return offset == 0 ? this : new BoxedPointer(ptr.move(offset));
+        }
+
+        @Override
+        public int subtract(BoxedPointer other) {
+            return ptr.subtract(other.ptr);
+        }
+    }
+
+    private static String sample() {
+        return items(2000, i -> item(i, ", \"active\": " + (i % 2 == 0) + ", \"tags\": [ \"alpha\", \"beta\", null ]"));
+    }
+
+    /**
+     * Чтение всех символов исходника, одинаковое для обоих указателей
+     */
+    private static <S extends CharPointer<S>> long scan(S ptr) {
+        var sum = 0L;
+        for (var i = 0; ; i++) {
+            var c = ptr.charAt(i);
+            if (c < 0) return sum;
+            sum += c;
+        }
+    }
+
+    @Test
+    public void bytesPerChar() {
+        var source = sample();
+        var boxedPtr = new BoxedPointer(new StringPointer(source, 0));
+        var primitivePtr = new StringPointer(source, 0);
+        Tokenizer<BoxedPointer> boxedTokenizer = Tokenizer.defaultTokenizer();
+        Tokenizer<StringPointer> primitiveTokenizer = Tokenizer.defaultTokenizer();
+
+        var boxedCount = boxedTokenizer.parse(boxedPtr).tokens().size();
+        var primitiveCount = primitiveTokenizer.parse(primitivePtr).tokens().size();
+        assertEquals(boxedCount, primitiveCount);
+        assertEquals(scan(boxedPtr), scan(primitivePtr));
+
+        // оба варианта прогреваются до замеров, замеряется один и тот же вызов
+        for (var i = 0; i < 5; i++) {
+            scan(boxedPtr);
+            scan(primitivePtr);
+            boxedTokenizer.parse(boxedPtr);
+            primitiveTokenizer.parse(primitivePtr);
+        }
+
+        var boxedScan = allocated(() -> scan(boxedPtr));
+        var primitiveScan = allocated(() -> scan(primitivePtr));
+        var boxed = allocated(() -> boxedTokenizer.parse(boxedPtr).tokens().size());
+        var primitive = allocated(() -> primitiveTokenizer.parse(primitivePtr).tokens().size());
+
+        var chars = (double) source.length();
+        System.out.printf("chars %d, tokens %d%n", source.length(), primitiveCount);
+        System.out.printf("scan get(int)        : %.2f bytes/char%n", boxedScan / chars);
+        System.out.printf("scan charAt(int)     : %.2f bytes/char%n", primitiveScan / chars);
+        System.out.printf("tokenize get(int)    : %.2f bytes/char%n", boxed / chars);
+        System.out.printf("tokenize charAt(int) : %.2f bytes/char%n", primitive / chars);
+
+        // charAt не упаковывает символы: выделение не зависит от длины исходника, в т.ч. до JIT компиляции
+        assertTrue(primitiveScan / chars < 1, "charAt allocates " + primitiveScan + " bytes per " + source.length() + " chars");
+    }
+}
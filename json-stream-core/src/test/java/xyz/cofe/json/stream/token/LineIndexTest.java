@@ -0,0 +1,106 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.rec.RecMapParseError;
+import xyz.cofe.json.stream.rec.RecMapper;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LineIndexTest {
+    @Test
+    public void lines() {
+        var idx = LineIndex.of("ab\ncd\r\n\nx");
+        assertEquals(4, idx.lines());
+        assertEquals(new LineColumn(1, 1), idx.lineColumn(0));
+        assertEquals(new LineColumn(1, 3), idx.lineColumn(2));
+        assertEquals(new LineColumn(2, 1), idx.lineColumn(3));
+        assertEquals(new LineColumn(2, 3), idx.lineColumn(5));
+        assertEquals(new LineColumn(3, 1), idx.lineColumn(7));
+        assertEquals(new LineColumn(4, 1), idx.lineColumn(8));
+        assertEquals(new LineColumn(4, 2), idx.lineColumn(9));
+    }
+
+    private static void check(String source, int offset, LineColumn expect) {
+        assertEquals(expect, new StringPointer(source, 0).move(offset).lineColumn().orElseThrow());
+        assertEquals(expect, new ReaderPointer(new StringReader(source), 3).move(offset).lineColumn().orElseThrow());
+        assertEquals(expect, Utf8Pointer.of(source.getBytes(StandardCharsets.UTF_8)).move(offset).lineColumn().orElseThrow());
+    }
+
+    @Test
+    public void pointers() {
+        var source = "{\n  \"имя\": 1,\r\n  😀: [ 2,\n\n    3 ] }";
+        check(source, 0, new LineColumn(1, 1));
+        check(source, 1, new LineColumn(1, 2));
+        check(source, 4, new LineColumn(2, 3));
+        check(source, 10, new LineColumn(2, 9));
+        check(source, 17, new LineColumn(3, 3));
+        check(source, 19, new LineColumn(3, 5));
+        check(source, source.indexOf('3'), new LineColumn(5, 5));
+        check(source, source.length(), new LineColumn(5, 10));
+
+        var bom = Utf8Pointer.of(("﻿" + source).getBytes(StandardCharsets.UTF_8));
+        assertEquals(new LineColumn(1, 1), bom.lineColumn().orElseThrow());
+        assertEquals(new LineColumn(3, 5), bom.move(19).lineColumn().orElseThrow());
+    }
+
+    /**
+     * Пара \r\n разделена между порциями {@link ReaderPointer}, одиночный \r - тоже перевод строки
+     */
+    @Test
+    public void carriageReturn() {
+        var source = "ab\r\ncd\ref\r\r\ngh";
+        check(source, 4, new LineColumn(2, 1));
+        check(source, 6, new LineColumn(2, 3));
+        check(source, 7, new LineColumn(3, 1));
+        check(source, 12, new LineColumn(5, 1));
+        check(source, source.length(), new LineColumn(5, 3));
+        assertEquals(5, LineIndex.of(source).lines());
+
+        for (var chunk = 1; chunk <= source.length(); chunk++) {
+            for (var offset = 0; offset <= source.length(); offset++) {
+                assertEquals(
+                    new StringPointer(source, 0).move(offset).lineColumn().orElseThrow(),
+                    new ReaderPointer(new StringReader(source), chunk).move(offset).lineColumn().orElseThrow(),
+                    "chunk " + chunk + ", offset " + offset
+                );
+            }
+        }
+    }
+
+    @Test
+    public void sharedIndex() {
+        var root = new StringPointer("a\nb", 0);
+        var derived = root.move(2);
+        assertEquals(new LineColumn(2, 1), derived.lineColumn().orElseThrow());
+        assertEquals(new LineColumn(1, 1), root.lineColumn().orElseThrow());
+        assertEquals(new LineColumn(2, 2), derived.move(1).lineColumn().orElseThrow());
+    }
+
+    @Test
+    public void parseError() {
+        var source = "{\n  a: 1,\n  b: [ 1, 2 }\n}";
+        var err = assertThrows(AstParser.JsonParseError.class, () -> AstParser.parse(source));
+        System.out.println(err.getMessage());
+        assertEquals(new LineColumn(3, 13), err.lineColumn().orElseThrow());
+        assertTrue(err.getMessage().contains("line 3, column 13"));
+
+        var bytesErr = assertThrows(AstParser.JsonParseError.class, () -> AstParser.parse(source.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(new LineColumn(3, 13), bytesErr.lineColumn().orElseThrow());
+    }
+
+    public record Item(int id, String name) {}
+
+    @Test
+    public void recMapError() {
+        var source = "{\n  \"id\": 1,\n  \"name\": [ \"x\" ]\n}";
+        var err = assertThrows(RecMapParseError.class, () -> new RecMapper().parse(source, Item.class));
+        System.out.println(err.getMessage());
+        assertEquals(new LineColumn(3, 11), err.lineColumn().orElseThrow());
+    }
+}
@@ -2,6 +2,10 @@ package xyz.cofe.json.stream.token;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NumberTest {
@@ -28,4 +32,82 @@ public class NumberTest {
         assertTrue( new NumberParser.RawFloat(".1E1").toDouble() == 1.0 );
         assertTrue( new NumberParser.RawFloat(".1").toDouble() == 0.1 );
     }
+
+    private static Token<StringPointer> number(String source) {
+        var tok = new NumberParser<StringPointer>().parse(new StringPointer(source, 0));
+        assertTrue(tok.isPresent(), source);
+        assertEquals(source.length(), tok.get().end().offset, source);
+        return tok.get();
+    }
+
+    private static double doubleOf(String source) {
+        var tok = number(source);
+        assertTrue(tok instanceof DoubleToken<StringPointer>, source);
+        return ((DoubleToken<StringPointer>) tok).value();
+    }
+
+    @Test
+    public void integers(){
+        assertEquals(1, ((IntToken<StringPointer>) number("1")).value());
+        assertEquals(-15, ((IntToken<StringPointer>) number("-0xF")).value());
+        assertEquals(8, ((IntToken<StringPointer>) number("0o10")).value());
+        assertEquals(5, ((IntToken<StringPointer>) number("0b101")).value());
+        assertEquals(Integer.MIN_VALUE, ((IntToken<StringPointer>) number("-2147483648")).value());
+        assertEquals(2147483648L, ((LongToken<StringPointer>) number("2147483648")).value());
+        assertEquals(Long.MIN_VALUE, ((LongToken<StringPointer>) number("-9223372036854775808")).value());
+        assertEquals(Long.MAX_VALUE, ((LongToken<StringPointer>) number("0x7FFFFFFFFFFFFFFF")).value());
+        assertEquals(new BigInteger("9223372036854775808"), ((BigIntToken<StringPointer>) number("9223372036854775808")).value());
+        assertEquals(BigInteger.valueOf(-12), ((BigIntToken<StringPointer>) number("-12n")).value());
+    }
+
+    @Test
+    public void floats(){
+        assertEquals(1.5, doubleOf("1.5"));
+        assertEquals(-1.5, doubleOf("-1.5"));
+        assertEquals(-0.5, doubleOf("-.5"));
+        assertEquals(1.0, doubleOf("1."));
+        assertEquals(150.0, doubleOf("1.5e2"));
+        assertEquals(0.015, doubleOf("1.5E-2"));
+        assertEquals(1.7976931348623157e308, doubleOf("1.7976931348623157e308"));
+        assertEquals(4.9e-324, doubleOf("4.9e-324"));
+        assertEquals(Double.POSITIVE_INFINITY, doubleOf("1.0e400"));
+        assertEquals(0.1, doubleOf("0.1000000000000000000000000001"));
+        assertEquals(-0.0, doubleOf("-0.0"));
+        assertTrue(1 / doubleOf("-0.0") < 0);
+
+        // экспонента без цифр не входит в лексему
+        var tok = new NumberParser<StringPointer>().parse(new StringPointer("1.5e", 0)).get();
+        assertEquals(3, tok.end().offset);
+    }
+
+    @Test
+    public void randomFloats(){
+        var rnd = new Random(1);
+        for (var i = 0; i < 20000; i++) {
+            var d = switch (i % 3) {
+                case 0 -> rnd.nextDouble();
+                case 1 -> Double.longBitsToDouble(rnd.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+                default -> Math.round(rnd.nextDouble() * 1e6) / 1e3;
+            };
+            var str = Double.toString(d);
+            if (!str.contains(".")) continue;
+            assertEquals(Double.parseDouble(str), doubleOf(str), str);
+        }
+    }
+
+    @Test
+    public void edgeCases(){
+        // "0x" без цифр - целое 0, далее идентификатор
+        var tokens = Tokenizer.parse("0x").tokens();
+        assertTrue(tokens.get(0).get() instanceof IntToken<StringPointer>);
+        assertTrue(tokens.get(1).get() instanceof IdentifierToken<StringPointer>);
+
+        // число в конце исходника
+        assertEquals(1, Tokenizer.parse("[1]").tokens().fmap(IntToken.class).size());
+        assertEquals(1, Tokenizer.parse("7").tokens().size());
+
+        // без точки - не число с плавающей точкой
+        tokens = Tokenizer.parse("1e5").tokens();
+        assertTrue(tokens.get(0).get() instanceof IntToken<StringPointer>);
+    }
 }
@@ -0,0 +1,71 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+import xyz.cofe.json.stream.rec.StdMapper;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReaderPointerTest {
+    @Test
+    public void readAcrossChunks() {
+        var ptr = new ReaderPointer(new StringReader("abcdefghij"), 3);
+        assertEquals('a', ptr.get(0).get());
+        assertEquals('e', ptr.get(4).get());
+        assertTrue(ptr.get(10).isEmpty());
+
+        var p2 = ptr.move(7);
+        assertEquals('h', p2.get(0).get());
+        assertEquals(7, p2.subtract(ptr));
+        assertEquals(7L, p2.offset());
+
+        var end = p2.move(5);
+        assertTrue(end.get(0).isEmpty());
+    }
+
+    @Test
+    public void sameTokensAsString() {
+        var source = "{ a: [ 1, true, false, null, 'abc', 2.5 ], \"b\": 123456789012 } // end";
+
+        var expect = Tokenizer.parse(source).tokens();
+        Tokenizer<ReaderPointer> tokenizer = Tokenizer.defaultTokenizer();
+        var actual = tokenizer.parse(new ReaderPointer(new StringReader(source), 4)).tokens();
+
+        assertEquals(expect.size(), actual.size());
+        for (var i = 0; i < expect.size(); i++) {
+            var e = expect.get(i).get();
+            var a = actual.get(i).get();
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.end().offset, a.end().offset());
+        }
+
+        var iter = Tokenizer.iterator(new StringReader(source));
+        var count = 0;
+        while (iter.hasNext()) {
+            assertEquals(expect.get(count).get().getClass(), iter.next().getClass());
+            count++;
+        }
+        assertEquals(expect.size(), count);
+    }
+
+    @Test
+    public void astParse() {
+        var ast = AstParser.parse(new StringReader("{ a: 1, b: [ 'x', 'y' ] }"));
+        assertTrue(ast instanceof Ast.ObjectAst<ReaderPointer>);
+        System.out.println(ast.toJson());
+        assertEquals("{a:1,b:[\"x\",\"y\"]}", ast.toJson());
+    }
+
+    public record Item(int a, List<String> b) {}
+
+    @Test
+    public void mapperParse() {
+        Item item = new StdMapper().parse(new StringReader("{ a: 1, b: [ 'x', 'y' ] }"), Item.class);
+        assertEquals(new Item(1, List.of("x", "y")), item);
+    }
+}
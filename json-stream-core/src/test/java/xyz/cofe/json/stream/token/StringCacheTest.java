@@ -0,0 +1,97 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class StringCacheTest {
+    private static String sample(int count) {
+        var sb = new StringBuilder("[");
+        for (var i = 0; i < count; i++) {
+            if (i > 0) sb.append(",");
+            sb.append("{ \"id\": ").append(i).append(", \"status\": \"active\", kind: 'item', \"ключ\": 1 }");
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Уникальные (по ссылке) экземпляры строк ключей и значений
+     */
+    private static Set<String> strings(Ast<?> ast) {
+        Set<String> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (var item : ((Ast.ArrayAst<?>) ast).values()) {
+            for (var kv : ((Ast.ObjectAst<?>) item).values()) {
+                set.add(kv.key().value());
+                if (kv.value() instanceof Ast.StringAst<?> str) set.add(str.value());
+            }
+        }
+        return set;
+    }
+
+    @Test
+    public void sameInstance() {
+        var cache = new StringCache();
+        var ptr = new StringPointer("'abc' 'abc' abc", 0);
+        var a = cache.get(ptr, 1, 4);
+        var b = cache.get(ptr, 7, 10);
+        var c = cache.get(ptr, 12, 15);
+        assertEquals("abc", a);
+        assertSame(a, b);
+        assertSame(a, c);
+
+        var small = new StringCache(16, 2);
+        assertNotSame(small.get(ptr, 1, 4), small.get(ptr, 7, 10));
+    }
+
+    @Test
+    public void utf8LengthInChars() {
+        // "ключ" - 4 символа, 8 байт
+        var src = Utf8Pointer.of("ключ ключ".getBytes(StandardCharsets.UTF_8)).source();
+        var cache = new StringCache(16, 4);
+        var a = cache.get(src, 0, 8);
+        assertEquals("ключ", a);
+        assertSame(a, cache.get(src, 9, 17));
+
+        var small = new StringCache(16, 3);
+        assertNotSame(small.get(src, 0, 8), small.get(src, 9, 17));
+    }
+
+    @Test
+    public void malformedUtf8() {
+        // 0x00 и избыточная запись того же символа: E0 80 80
+        var bytes = new byte[]{0, ' ', (byte) 0xE0, (byte) 0x80, (byte) 0x80};
+        var src = Utf8Pointer.of(bytes).source();
+        var cache = new StringCache();
+        assertEquals("\u0000", cache.get(src, 0, 1));
+        assertEquals(new String(bytes, 2, 3, StandardCharsets.UTF_8), cache.get(src, 2, 5));
+    }
+
+    @Test
+    public void retainedKeys() {
+        var count = 1000;
+        var source = sample(count);
+
+        var plain = strings(AstParser.parse(source));
+        var cached = strings(AstParser.parse(new StringPointer(source, 0), new StringCache()));
+        var bytes = strings(AstParser.parse(
+            new ByteTokenizer(new StringCache()).iterator(Utf8Pointer.of(source.getBytes(StandardCharsets.UTF_8)))));
+
+        System.out.println("distinct String instances without cache: " + plain.size());
+        System.out.println("distinct String instances with cache   : " + cached.size());
+        System.out.println("distinct String instances, bytes       : " + bytes.size());
+
+        // кэшируются только ключи, значения "active" и 'item' - свои экземпляры
+        assertEquals(count * 6, plain.size());
+        assertEquals(4 + count * 2, cached.size());
+        assertEquals(4 + count * 2, bytes.size());
+    }
+}
@@ -0,0 +1,53 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StringTokenTest {
+    private static <S extends CharPointer<S>> String value(S ptr) {
+        var tok = new StringToken.Parser<S>().parse(ptr);
+        assertTrue(tok.isPresent());
+        return tok.get().value();
+    }
+
+    private static void check(String source, String expect) {
+        System.out.println(source + " => " + expect);
+        assertEquals(expect, value(new StringPointer(source, 0)));
+        assertEquals(expect, value(new ReaderPointer(new StringReader(source), 3)));
+        assertEquals(expect, value(Utf8Pointer.of(source.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void decode() {
+        check("\"abc\"", "abc");
+        check("'key_1'", "key_1");
+        check("\"\"", "");
+        check("\"значение 😀\"", "значение 😀");
+        check("'say \"hi\"'", "say \"hi\"");
+        check("\"a\\nb\\tc\"", "a\nb\tc");
+        check("\"\\u0041\\x42\\103\"", "ABC");
+        check("\"\\u{00044}!\"", "\\u{00044}!");
+        check("'it\\'s'", "it's");
+        check("\"back\\\\slash\"", "back\\slash");
+        check("\"unknown \\q escape\"", "unknown \\q escape");
+        check("\"long text before escape\\n and long text after\"", "long text before escape\n and long text after");
+    }
+
+    @Test
+    public void codePointEscape() {
+        var parser = new StringToken.Parser<StringPointer>().codePointEscape(true);
+        assertEquals("D!", parser.parse(new StringPointer("\"\\u{00044}!\"", 0)).get().value());
+        assertEquals("😀", parser.parse(new StringPointer("\"\\u{1F600}\"", 0)).get().value());
+    }
+
+    @Test
+    public void unterminated() {
+        assertTrue(new StringToken.Parser<StringPointer>().parse(new StringPointer("\"abc", 0)).isEmpty());
+        assertTrue(new StringToken.Parser<StringPointer>().parse(new StringPointer("\"a\\nbc", 0)).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.Samples;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static xyz.cofe.json.stream.Samples.items;
+
+public class StructuralIndexTest {
+    private static void same(String source, boolean strict) {
+        System.out.println(source);
+
+        var bytes = source.getBytes(StandardCharsets.UTF_8);
+        var index = StructuralIndex.of(bytes);
+        assertEquals(strict, index.strict());
+
+        var expect = new ArrayList<Token<Utf8Pointer>>();
+        new ByteTokenizer().skipTrivia(true, true).iterator(Utf8Pointer.of(bytes)).forEachRemaining(expect::add);
+
+        var actual = new ArrayList<Token<Utf8Pointer>>();
+        index.tokens().forEachRemaining(actual::add);
+
+        assertEquals(expect.size(), actual.size());
+        for (var i = 0; i < expect.size(); i++) {
+            var e = expect.get(i);
+            var a = actual.get(i);
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.begin().position(), a.begin().position());
+            assertEquals(e.end().position(), a.end().position());
+            if (e instanceof StringToken<Utf8Pointer> s) assertEquals(s.value(), ((StringToken<?>) a).value());
+        }
+    }
+
+    @Test
+    public void positions() {
+        var index = StructuralIndex.of("{ \"a\\\"{\": [1, \"b\"] }".getBytes(StandardCharsets.UTF_8));
+        var pos = new ArrayList<Integer>();
+        for (var i = 0; i < index.size(); i++) pos.add(index.position(i));
+        System.out.println(pos);
+        assertEquals(java.util.List.of(0, 2, ~7, 8, 10, 12, 14, 16, 17, 19), pos);
+    }
+
+    @Test
+    public void sameAsByteTokenizer() {
+        same("{ \"a\": [ 1, -2, 3.5, 0x1F, 12345678901, 123456789012345678901234n ], b: null, c: true, d: false }", true);
+        same("[ \"esc\\n\\u0041\", \"q\\\"{[,:\", \"back\\\\\", \"имя 😀\", имя, nullable, trueish ]", true);
+        same("﻿  { \"a\" :　[ 1 ,2 ]\n}  ", true);
+        same("[ 'single', \"double\" ]", false);
+        same("// comment\r\n{ x : 1 } /* tail */", false);
+        same("{ \"a\": \"unterminated", true);
+        same("{ \"a\": \"unterminated\\\" }", true);
+        same("{ a: 1 } #", true);
+        same("", true);
+    }
+
+    @Test
+    public void astParse() {
+        var source = "{ \"items\": [ { \"id\": 1, \"name\": \"a\\tb\" }, { \"id\": 2, \"tags\": [] } ], \"ok\": true }";
+        var ast = AstParser.parse(source.getBytes(StandardCharsets.UTF_8));
+        System.out.println(ast.toJson());
+        assertEquals(AstParser.parse(source).toJson(), ast.toJson());
+    }
+
+    private static String sample() {
+        return items(20000, i -> "    {\n" +
+            "        \"id\": " + i + ",\n" +
+            "        \"name\": \"item number " + i + "\",\n" +
+            "        \"description\": \"a somewhat longer text value with \\\"escapes\\\" inside\",\n" +
+            "        \"price\": " + i + ".25,\n" +
+            "        \"active\": " + (i % 2 == 0) + ",\n" +
+            "        \"tags\": [ \"alpha\", \"beta\" ]\n" +
+            "    }"
+        );
+    }
+
+    private static double mbPerSec(int size, Runnable run) {
+        return Samples.mbPerSec(size, 3, 5, run);
+    }
+
+    private static int count(java.util.Iterator<?> it) {
+        var cnt = 0;
+        while (it.hasNext()) {
+            it.next();
+            cnt++;
+        }
+        return cnt;
+    }
+
+    @Test
+    public void throughput() {
+        var source = sample();
+        var bytes = source.getBytes(StandardCharsets.UTF_8);
+
+        Tokenizer<StringPointer> chars = Tokenizer.<StringPointer>defaultTokenizer().skipTrivia(true, true);
+        var byteTokenizer = new ByteTokenizer().skipTrivia(true, true);
+
+        var expect = count(chars.iterator(new StringPointer(source, 0)));
+        assertEquals(expect, count(StructuralIndex.of(bytes).tokens()));
+        assertTrue(StructuralIndex.of(bytes).strict());
+        assertFalse(StructuralIndex.of(bytes).size() == 0);
+
+        var charSpeed = mbPerSec(bytes.length, () -> count(chars.iterator(new StringPointer(source, 0))));
+        var byteSpeed = mbPerSec(bytes.length, () -> count(byteTokenizer.iterator(Utf8Pointer.of(bytes))));
+        var scanSpeed = mbPerSec(bytes.length, () -> StructuralIndex.of(bytes));
+        var indexSpeed = mbPerSec(bytes.length, () -> count(StructuralIndex.of(bytes).tokens()));
+
+        System.out.printf("bytes %d, tokens %d%n", bytes.length, expect);
+        System.out.printf("Tokenizer        : %.2f Mb/s%n", charSpeed);
+        System.out.printf("ByteTokenizer    : %.2f Mb/s%n", byteSpeed);
+        System.out.printf("index scan only  : %.2f Mb/s%n", scanSpeed);
+        System.out.printf("index + tokens   : %.2f Mb/s%n", indexSpeed);
+    }
+}
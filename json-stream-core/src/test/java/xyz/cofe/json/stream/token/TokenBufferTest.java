@@ -0,0 +1,58 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TokenBufferTest {
+    private static final String source =
+        "{ a: 1, \"b\": [ -2, 3.5, 12345678901, 123n, true, false, null ], /* c */ c: 'str' } // end";
+
+    @Test
+    public void sameAsTokens() {
+        var expect = Tokenizer.parse(source).tokens();
+        var buff = Tokenizer.parseCompact(source);
+        var origin = new StringPointer(source, 0);
+
+        assertEquals(expect.size(), buff.size());
+
+        var i = 0;
+        Token<StringPointer> prev = null;
+        for (var it = buff.iterator(origin); it.hasNext(); ) {
+            var actual = it.next();
+            var e = expect.get(i).get();
+            System.out.println(buff.kind(i) + " " + actual);
+
+            assertEquals(e.getClass(), buff.token(i, origin).getClass());
+            assertEquals(e.getClass(), actual.getClass());
+            assertEquals(e.begin().offset, actual.begin().offset);
+            assertEquals(e.end().offset, actual.end().offset);
+            assertEquals(e.begin().offset, buff.begin(i));
+            assertEquals(e.end().offset, buff.end(i));
+
+            if (prev != null) assertSame(prev.end(), actual.begin());
+            prev = actual;
+            i++;
+        }
+    }
+
+    @Test
+    public void astParse() {
+        var ast = AstParser.parse(Tokenizer.parseCompact(source).iterator(new StringPointer(source, 0)));
+        assertEquals(AstParser.parse(source).toJson(), ast.toJson());
+        System.out.println(ast.toJson());
+    }
+
+    @Test
+    public void readerSource() {
+        Tokenizer<ReaderPointer> tokenizer = Tokenizer.defaultTokenizer();
+        var origin = new ReaderPointer(new StringReader(source), 5);
+        var buff = tokenizer.parseCompact(origin);
+        assertEquals(Tokenizer.parse(source).tokens().size(), buff.size());
+        assertEquals(AstParser.parse(source).toJson(), AstParser.parse(buff.iterator(origin)).toJson());
+    }
+}
@@ -1,6 +1,15 @@
 package xyz.cofe.json.stream.token;
 
 import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TokenizerTest {
     @Test
@@ -13,4 +22,97 @@ public class TokenizerTest {
             System.out.println(""+te.index()+" "+te.value());
         });
     }
+
+    /**
+     * Бесконечный исходник: prefix, затем повторяющийся item
+     */
+    private static Reader endless(String prefix, String item) {
+        return new Reader() {
+            private int pos = 0;
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                for (var i = 0; i < len; i++) {
+                    cbuf[off + i] = pos < prefix.length()
+                        ? prefix.charAt(pos)
+                        : item.charAt((pos - prefix.length()) % item.length());
+                    pos++;
+                }
+                return len;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    public void lazyStream(){
+        Tokenizer<ReaderPointer> tokenizer = Tokenizer.defaultTokenizer();
+        var ints = tokenizer.stream(new ReaderPointer(endless("[", "1, "), 64))
+            .filter(t -> t instanceof IntToken<ReaderPointer>)
+            .limit(1000)
+            .count();
+        assertEquals(1000, ints);
+
+        var it = tokenizer.iterator(new ReaderPointer(endless("", "{a:1} "), 64));
+        assertTrue(it.next() instanceof OpenParentheses<ReaderPointer>);
+        assertTrue(it.next() instanceof IdentifierToken<ReaderPointer>);
+        assertEquals(2L, it.pointer().offset());
+    }
+
+    @Test
+    public void lazyAstParse(){
+        var ast = AstParser.parse(endless("{ a: [1, 2], b: 'x' }", " null"));
+        System.out.println(ast.toJson());
+        assertTrue(ast instanceof Ast.ObjectAst<ReaderPointer>);
+    }
+
+    @Test
+    public void skipTrivia(){
+        var source = "// header\n{\n  \"a\" : [ 1,\t2 ], /* note */\n  b: 'x'  // tail\r\n}\u00A0\u2003 /* end";
+
+        Tokenizer<StringPointer> keep = Tokenizer.defaultTokenizer();
+        Tokenizer<StringPointer> skip = keep.skipTrivia(true, true);
+
+        var all = keep.parse(new StringPointer(source, 0)).tokens();
+        var tokens = skip.parse(new StringPointer(source, 0)).tokens();
+        var bytes = new ByteTokenizer().skipTrivia(true, true)
+            .parse(Utf8Pointer.of(source.getBytes(StandardCharsets.UTF_8))).tokens();
+
+        var expect = all.filter(t ->
+            !(t instanceof Whitespace<StringPointer>)
+            && !(t instanceof SLComment<StringPointer>)
+            && !(t instanceof MLComment<StringPointer>));
+        System.out.println("tokens: " + all.size() + ", without trivia: " + tokens.size());
+
+        assertEquals(expect.size(), tokens.size());
+        assertEquals(expect.size(), bytes.size());
+        for (var i = 0; i < expect.size(); i++) {
+            var e = expect.get(i).orElseThrow();
+            var t = tokens.get(i).orElseThrow();
+            assertEquals(e.getClass(), t.getClass());
+            assertEquals(e.begin().offset, t.begin().offset);
+            assertEquals(e.end().offset, t.end().offset);
+            assertEquals(e.getClass(), bytes.get(i).orElseThrow().getClass());
+        }
+
+        var comments = keep.skipTrivia(true, false).parse(new StringPointer(source, 0)).tokens();
+        assertEquals(3, comments.filter(t -> t instanceof SLComment<StringPointer> || t instanceof MLComment<StringPointer>).size());
+        assertEquals(0, comments.filter(t -> t instanceof Whitespace<StringPointer>).size());
+    }
+
+    @Test
+    public void skipTriviaOptions(){
+        var source = "{ a: 1, // one\n b: [ 2 ] }";
+        var options = new AstParser.ParserOptions();
+
+        var keep = AstParser.parse(new StringPointer(source, 0), options.skipTrivia(false));
+        var skip = AstParser.parse(new StringPointer(source, 0), options);
+        assertEquals(keep.toJson(), skip.toJson());
+
+        var noComments = new AstParser.ParserOptions(false, true, false, false, false, false, true);
+        assertThrows(AstParser.JsonParseError.class, () -> AstParser.parse(new StringPointer(source, 0), noComments));
+    }
 }
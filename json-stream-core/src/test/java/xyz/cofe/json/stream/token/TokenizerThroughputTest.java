@@ -0,0 +1,73 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.Samples;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static xyz.cofe.json.stream.Samples.item;
+import static xyz.cofe.json.stream.Samples.items;
+
+/**
+ * Пропускная способность {@link Tokenizer}:
+ * выбор парсера по первому символу против перебора всех парсеров
+ */
+public class TokenizerThroughputTest {
+    /**
+     * Парсер без {@link TokenParser#canStartWith(int)} - перебирается для каждой лексемы
+     */
+    private record Linear(TokenParser<StringPointer> parser) implements TokenParser<StringPointer> {
+        @Override
+        public Optional<? extends Token<StringPointer>> parse(StringPointer ptr) {
+            return parser.parse(ptr);
+        }
+    }
+
+    private static String sample() {
+        return items(5000, i ->
+            item(i, ", \"active\": " + (i % 2 == 0) + ", note: null, \"tags\": [ \"alpha\", \"beta\" ]") + " // item"
+        );
+    }
+
+    private static double mbPerSec(Tokenizer<StringPointer> tokenizer, String source) {
+        return Samples.mbPerSec(source.length(), 5, 10, () -> tokenizer.parse(new StringPointer(source, 0)));
+    }
+
+    @Test
+    public void dispatchVsLinear() {
+        var source = sample();
+
+        Tokenizer<StringPointer> dispatch = Tokenizer.defaultTokenizer();
+        Tokenizer<StringPointer> linear = new Tokenizer<>(
+            new Linear(new KeyWordParser<>()),
+            new Linear(new NumberParser<>()),
+            new Linear(new StringToken.Parser<>()),
+            new Linear(new Whitespace.Parser<>()),
+            new Linear(new IdentifierToken.Parser<>()),
+            new Linear(new SLComment.Parser<>()),
+            new Linear(new MLComment.Parser<>())
+        );
+
+        var expect = linear.parse(new StringPointer(source, 0)).tokens();
+        var actual = dispatch.parse(new StringPointer(source, 0)).tokens();
+        assertEquals(expect.size(), actual.size());
+        var ei = expect.iterator();
+        var ai = actual.iterator();
+        while (ei.hasNext()) {
+            var e = ei.next();
+            var a = ai.next();
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.end().offset, a.end().offset);
+        }
+
+        var linearSpeed = mbPerSec(linear, source);
+        var dispatchSpeed = mbPerSec(dispatch, source);
+        var skipSpeed = mbPerSec(dispatch.skipTrivia(true, true), source);
+
+        System.out.printf("chars %d, tokens %d%n", source.length(), actual.size());
+        System.out.printf("linear   : %.2f Mb/s%n", linearSpeed);
+        System.out.printf("dispatch : %.2f Mb/s%n", dispatchSpeed);
+        System.out.printf("skip ws  : %.2f Mb/s%n", skipSpeed);
+    }
+}
@@ -0,0 +1,130 @@
+package xyz.cofe.json.stream.token;
+
+import org.junit.jupiter.api.Test;
+import xyz.cofe.json.stream.ast.Ast;
+import xyz.cofe.json.stream.ast.AstParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Utf8PointerTest {
+    @Test
+    public void decode() {
+        var str = "aб€😀z";
+        var ptr = Utf8Pointer.of(str.getBytes(StandardCharsets.UTF_8));
+
+        for (var i = 0; i < str.length(); i++) {
+            assertEquals(str.charAt(i), ptr.get(i).get());
+        }
+        assertTrue(ptr.get(str.length()).isEmpty());
+
+        var end = ptr.move(str.length());
+        assertEquals(str.length(), end.subtract(ptr));
+        assertEquals(-str.length(), ptr.subtract(end));
+
+        var low = ptr.move(4);
+        assertEquals('\uDE00', low.get(0).get());
+        assertEquals('\uD83D', low.get(-1).get());
+        assertEquals('€', low.get(-2).get());
+        assertEquals(4, low.subtract(ptr));
+        assertEquals(2, end.subtract(low));
+    }
+
+    @Test
+    public void charAt() {
+        var str = "{ \"ключ\": \"😀 значение €\", a: 1 }";
+        var ptr = Utf8Pointer.of(str.getBytes(StandardCharsets.UTF_8));
+
+        for (var i = 0; i < str.length(); i++) {
+            assertEquals(str.charAt(i), ptr.charAt(i));
+        }
+        assertEquals(-1, ptr.charAt(str.length()));
+        assertEquals(-1, ptr.charAt(-1));
+
+        var rnd = new java.util.Random(1);
+        for (var i = 0; i < 200; i++) {
+            var off = rnd.nextInt(str.length());
+            assertEquals(str.charAt(off), ptr.charAt(off));
+            assertEquals(str.charAt(off), ptr.move(off).charAt(0));
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        var res = new byte[values.length];
+        for (var i = 0; i < values.length; i++) res[i] = (byte) values[i];
+        return res;
+    }
+
+    /**
+     * Избыточные кодировки и суррогаты заменяются на U+FFFD побайтно, как и декодером JDK
+     */
+    @Test
+    public void malformed() {
+        var bytes = bytes(
+            'a', 0xC0, 0x80, 'b',
+            0xE0, 0x80, 0x80, 0xED, 0xA0, 0x80, 0xED, 0xBF, 0xBF,
+            0xF0, 0x80, 0x80, 0x80, 0xF4, 0x90, 0x80, 0x80,
+            0xE0, 0xA0, 0x80, 0xED, 0x9F, 0xBF, 0xF0, 0x90, 0x80, 0x80, 0xF4, 0x8F, 0xBF, 0xBF, 'z'
+        );
+        var expect = new String(bytes, StandardCharsets.UTF_8);
+        var ptr = Utf8Pointer.of(bytes);
+
+        for (var i = 0; i < expect.length(); i++) {
+            assertEquals(expect.charAt(i), ptr.charAt(i), "char " + i);
+            assertEquals(expect.charAt(i), ptr.move(i).charAt(0), "move " + i);
+        }
+        assertEquals(-1, ptr.charAt(expect.length()));
+
+        var end = ptr.move(expect.length());
+        assertEquals(expect.length(), end.subtract(ptr));
+        assertEquals(expect.charAt(expect.length() - 2), end.charAt(-2));
+        assertEquals(expect, ptr.substring(0, expect.length()));
+
+        var interesting = bytes('a', 0x80, 0xBF, 0xC0, 0xC2, 0xDF, 0xE0, 0xE2, 0xED, 0xEF, 0xF0, 0xF4, 0xF5, 0x9F, 0xA0, 0x8F, 0x90);
+        var rnd = new java.util.Random(1);
+        for (var round = 0; round < 2000; round++) {
+            var src = new byte[1 + rnd.nextInt(8)];
+            for (var i = 0; i < src.length; i++) src[i] = interesting[rnd.nextInt(interesting.length)];
+            var str = new String(src, StandardCharsets.UTF_8);
+            var p = Utf8Pointer.of(src);
+            for (var i = 0; i <= str.length(); i++) {
+                assertEquals(i < str.length() ? str.charAt(i) : -1, p.charAt(i), java.util.Arrays.toString(src) + " char " + i);
+                assertEquals(i, p.move(i).subtract(p));
+                assertEquals(p.charAt(i - 1), p.move(i).charAt(-1));
+            }
+        }
+    }
+
+    @Test
+    public void mapFile() throws IOException {
+        var source = "\uFEFF{ \"имя\": \"значение 😀\", a: [ 1, 2.5, true, null ] } // конец";
+        var file = Files.createTempFile("utf8", ".json");
+        try {
+            Files.writeString(file, source, StandardCharsets.UTF_8);
+
+            var expect = Tokenizer.parse(source.substring(1)).tokens();
+            var start = Utf8Pointer.map(file);
+            Tokenizer<Utf8Pointer> tokenizer = Tokenizer.defaultTokenizer();
+            var actual = tokenizer.parse(start).tokens();
+
+            assertEquals(expect.size(), actual.size());
+            for (var i = 0; i < expect.size(); i++) {
+                var e = expect.get(i).get();
+                var a = actual.get(i).get();
+                assertEquals(e.getClass(), a.getClass());
+                assertEquals(e.end().offset, a.end().subtract(start));
+            }
+
+            var ast = AstParser.parse(file);
+            assertTrue(ast instanceof Ast.ObjectAst<Utf8Pointer>);
+            System.out.println(ast.toJson());
+            assertEquals("{\"имя\":\"значение 😀\",a:[1,2.5,true,null]}", ast.toJson());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}